@@ -0,0 +1,84 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class BatchEngineTest {
+    private CompiledNetwork network;
+    private Game template;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        template = new Game(0, new Settings());
+        network.load(template);
+    }
+
+    /**
+     * Plays every seed with the batch engine and with the object engine, and compares the results.
+     */
+    private void assertMatchesObjectEngine(Settings settings, String... strategies) {
+        List<BatchEngine.Kind> lineUp = new ArrayList<>();
+        List<Function<Position, ? extends Player>> players = new ArrayList<>();
+        for (String s : strategies) {
+            lineUp.add(BatchEngine.Kind.of(s));
+            players.add(Tournament.strategy(s));
+        }
+        int[] seeds = new int[60];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = 1000 + 7919 * i;
+        }
+        GameResult[] results = new BatchEngine(template, settings, lineUp).run(seeds);
+        for (int i = 0; i < seeds.length; i++) {
+            Game g = BatchRunner.play(Generator.generateGame(seeds[i], network, settings, players));
+            assertEquals(results[i].toString(), new GameResult(seeds[i], g).toString());
+        }
+    }
+
+    @Test
+    public void sameAsGame() {
+        Settings settings = new Settings();
+        settings.setPersistent(false);
+        assertMatchesObjectEngine(settings, "greedy", "random", "gui");
+        assertMatchesObjectEngine(settings, "random", "random", "greedy", "greedy");
+    }
+
+    @Test
+    public void otherSettings() {
+        //High tolls and robberies, and an inactive greedy player
+        Settings settings = new Settings(new boolean[]{true, false, true}, 50, 60, 0, 80, 2);
+        settings.setPersistent(false);
+        assertMatchesObjectEngine(settings, "greedy", "random", "random");
+    }
+
+    @Test
+    public void unsupported() {
+        try {
+            BatchEngine.Kind.of("smart");
+            fail("Expected the smart player to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
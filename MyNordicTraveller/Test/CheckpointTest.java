@@ -0,0 +1,148 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class CheckpointTest {
+    private Game game;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = Generator.generateGame(11, "network.dat");
+        for (int i = 0; i < 20; i++) {
+            game.step();
+        }
+    }
+
+    /**
+     * Describes the money of all players and the values of all cities.
+     */
+    private static String describe(Game g) {
+        StringBuilder sb = new StringBuilder();
+        for (Player p : g.getPlayers()) {
+            sb.append(p.getName()).append("=").append(p.getMoney()).append(" ");
+        }
+        for (int i = 0; i < g.getCityCount(); i++) {
+            sb.append(g.getCity(i).getValue()).append(" ");
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void gameRandom() {
+        //Checks that the generator gives the same numbers as java.util.Random, and can be restored
+        Random expected = new Random(42);
+        GameRandom random = new GameRandom(42);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(random.nextInt(i + 1), expected.nextInt(i + 1));
+            assertEquals(random.nextLong(), expected.nextLong());
+            assertEquals(random.nextDouble(), expected.nextDouble(), 0);
+        }
+        long state = random.getState();
+        int next = random.nextInt();
+        random.nextInt();
+        random.setState(state);
+        assertEquals(random.nextInt(), next);
+    }
+
+    @Test
+    public void continueExactly() {
+        //Captures a game halfway, and continues it in another game which has been played with another seed
+        Checkpoint checkpoint = Checkpoint.fromBytes(Checkpoint.capture(game).toBytes());
+        BatchRunner.play(game);
+
+        Game other = Generator.generateGame(11, "network.dat");
+        other.reset(false, false);
+        BatchRunner.play(other);
+        checkpoint.restore(other);
+        assertEquals(other.getStepsLeft(), 30);
+        BatchRunner.play(other);
+        assertEquals(describe(other), describe(game));
+    }
+
+    @Test
+    public void writeAsync() throws Exception {
+        Checkpoint checkpoint = Checkpoint.capture(game);
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            assertEquals(checkpoint.writeAsync(file).get(), file);
+            assertArrayEquals(Checkpoint.read(file).toBytes(), checkpoint.toBytes());
+            assertEquals(Files.size(file), checkpoint.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void invalid() {
+        //Checks a corrupt network hash, a truncated checkpoint and a game with other players
+        byte[] hash = Checkpoint.capture(game).toBytes();
+        hash[9] ^= 1;
+        byte[] truncated = Arrays.copyOf(Checkpoint.capture(game).toBytes(), 60);
+        CompiledNetwork network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        Game others = Generator.generateGame(11, network, new Settings(), Arrays.asList(Tournament.strategy("greedy")));
+        String before = describe(game);
+        for (byte[] data : Arrays.asList(hash, truncated)) {
+            try {
+                Checkpoint.fromBytes(data).restore(game);
+                fail("Expected the checkpoint to be rejected");
+            } catch (CheckpointException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+        try {
+            Checkpoint.capture(game).restore(others);
+            fail("Expected the checkpoint to be rejected");
+        } catch (CheckpointException e) {
+            assertNotNull(e.getMessage());
+        }
+        assertEquals(describe(game), before);
+    }
+
+    @Test
+    public void noSettingsFile() throws IOException {
+        //Restoring, even a checkpoint that is rejected, must not write 'settings.dat'
+        Path file = java.nio.file.Paths.get("settings.dat");
+        byte[] before = Files.exists(file) ? Files.readAllBytes(file) : null;
+        Settings settings = new Settings(new boolean[]{true, true, false}, 7, 3, 1, 9, 1);
+        settings.setPersistent(false);
+        CompiledNetwork network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        Game headless = Generator.generateGame(12, network, settings, Arrays.asList(Tournament.strategy("random")));
+        Game others = Generator.generateGame(12, network, settings, Arrays.asList(Tournament.strategy("greedy")));
+        try {
+            Checkpoint.capture(headless).restore(others);
+            fail("Expected the checkpoint to be rejected");
+        } catch (CheckpointException e) {
+            assertNotNull(e.getMessage());
+        }
+        Checkpoint.capture(headless).restore(headless);
+        if (before == null) {
+            assertFalse(Files.exists(file));
+        } else {
+            assertArrayEquals(Files.readAllBytes(file), before);
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,118 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class CityChangesTest {
+    private Game game;
+    private Country country;
+    private City cityA, cityB, cityC;
+    private CityChanges changes;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = new Game(0);
+        game.getRandom().setSeed(0);
+        Map<City, List<Road>> network = new HashMap<>();
+        country = new Country("Changes", network);
+        game.addCountry(country);
+
+        cityA = new City("Changes A", 80, country);
+        cityB = new City("Changes B", 60, country);
+        cityC = new City("Changes C", 40, country);
+        network.put(cityA, new ArrayList<>());
+        network.put(cityB, new ArrayList<>());
+        network.put(cityC, new ArrayList<>());
+        game.addRoads(cityA, cityB, 4);
+        game.addRoads(cityB, cityC, 3);
+        changes = game.getCityChanges();
+    }
+
+    @Test
+    public void versions() {
+        //Checks that every change of value increases the version of the city
+        assertEquals(changes.getVersion(cityA), 0);
+        cityA.changeValue(10);
+        cityA.reset();
+        assertEquals(changes.getVersion(cityA), 2);
+        assertEquals(changes.getVersion(cityB), 0);
+        //Checks that the changed city is dirty, and no other
+        int a = game.getTopology().indexOf(cityA);
+        assertTrue(changes.isDirty(a));
+        assertEquals(changes.nextDirty(0), a);
+        assertEquals(changes.nextDirty(a + 1), -1);
+    }
+
+    @Test
+    public void listeners() {
+        //Checks that listeners are told once per step, about all changed cities
+        List<Set<City>> calls = new ArrayList<>();
+        changes.addListener(c -> {
+            Set<City> dirty = new HashSet<>();
+            for (int i = c.nextDirty(0); i >= 0; i = c.nextDirty(i + 1)) {
+                dirty.add(game.getCity(i));
+            }
+            calls.add(dirty);
+        });
+        cityA.changeValue(5);
+        cityC.changeValue(5);
+        cityA.changeValue(5);
+        game.step();
+        game.step();
+        assertEquals(calls.size(), 1);
+        assertEquals(calls.get(0), new HashSet<>(Arrays.asList(cityA, cityC)));
+        assertEquals(changes.nextDirty(0), -1);
+
+        //Checks that a reset is reported as well
+        game.reset(true, false);
+        assertEquals(calls.size(), 2);
+        assertEquals(calls.get(1), new HashSet<>(Arrays.asList(cityA, cityB, cityC)));
+    }
+
+    @Test
+    public void networkChanged() {
+        //Checks that listeners and versions survive a change of the network, which reports every city
+        List<Integer> calls = new ArrayList<>();
+        changes.addListener(c -> {
+            int n = 0;
+            for (int i = c.nextDirty(0); i >= 0; i = c.nextDirty(i + 1)) {
+                n++;
+            }
+            calls.add(n);
+        });
+        cityA.changeValue(5);
+        Map<City, List<Road>> network = new HashMap<>();
+        Country other = new Country("Changes 2", network);
+        game.addCountry(other);
+        City cityD = new City("Changes 0", 20, other);
+        network.put(cityD, new ArrayList<>());
+        game.addRoads(cityC, cityD, 2);
+        assertSame(game.getCityChanges(), changes);
+        assertEquals(changes.getVersion(cityA), 2);
+        assertEquals(changes.getVersion(cityD), 1);
+        cityD.changeValue(5);
+        assertEquals(changes.getVersion(cityD), 2);
+        game.step();
+        assertEquals(calls, Collections.singletonList(4));
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
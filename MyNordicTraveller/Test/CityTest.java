@@ -134,6 +134,34 @@ public class CityTest {
         assertNotEquals(cityA.hashCode(),null);
     }
 
+    @Test
+    public void equalsObject() {
+        //Checks that equal cities are treated as the same key by a HashMap
+        Object other = new City("City A", 60, country1);
+        assertTrue(cityA.equals(other));
+        assertEquals(cityA.hashCode(), other.hashCode());
+        Map<City, Integer> map = new HashMap<>();
+        map.put(cityA, 1);
+        assertEquals(map.get(other), Integer.valueOf(1));
+        assertFalse(cityA.equals("City A"));
+    }
+
+    @Test
+    public void getId() {
+        //Checks that cities get dense ids, ordered by name, once the game indexes them
+        assertEquals(cityA.getId(), -1);
+        country1.getNetwork().put(cityA, new ArrayList<>());
+        country1.getNetwork().put(cityB, new ArrayList<>());
+        country1.getNetwork().put(cityC, new ArrayList<>());
+        game.addCountry(country1);
+        assertEquals(game.getCityCount(), 3);
+        assertEquals(cityA.getId(), 0);
+        assertEquals(cityB.getId(), 1);
+        assertEquals(cityC.getId(), 2);
+        assertSame(game.getCity(1), cityB);
+        assertEquals(country1.getId(), 0);
+    }
+
     /**
      * Tears down the test fixture.
      * <p>
@@ -0,0 +1,145 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class CompiledNetworkTest {
+    private String[] data;
+    private CompiledNetwork network;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        data = Generator.readNetwork("network.dat");
+        network = new CompiledNetwork(CompiledNetwork.compile(data));
+    }
+
+    /**
+     * Describes the countries of a game, the roads and positions of all their cities, in order.
+     */
+    private static String describe(Game g) {
+        StringBuilder sb = new StringBuilder();
+        for (Country country : g.getCountries()) {
+            sb.append(country.getName()).append(country instanceof MafiaCountry ? " (mafia)\n" : "\n");
+            for (City city : country.getCities()) {
+                Point p = g.getPosition(city);
+                sb.append("  ").append(city.getClass().getName()).append(" ").append(city.getName()).append(" ")
+                        .append(city.getValue()).append(" @").append(p.x).append(",").append(p.y).append(":");
+                for (Road r : country.getRoads(city)) {
+                    sb.append(" ").append(r.getTo().getName()).append("/").append(r.getLength());
+                }
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void sameAsText() {
+        //Checks that a compiled network loads into exactly the game the text network gives
+        Game text = new Game(0, new Settings());
+        Generator.loadNetwork(text, data);
+        Game compiled = new Game(0, new Settings());
+        network.load(compiled);
+        assertEquals(describe(text), describe(compiled));
+        assertEquals(network.getCityCount(), text.getCityCount());
+        for (int i = 0; i < text.getCityCount(); i++) {
+            assertEquals(text.getCity(i).getName(), compiled.getCity(i).getName());
+        }
+    }
+
+    @Test
+    public void sameGame() {
+        //Plays the same seed on both networks
+        Game text = Generator.generateGame(7, "network.dat");
+        Game compiled = Generator.generateGame(7, network);
+        while (text.getStepsLeft() > 0) {
+            text.step();
+            compiled.step();
+        }
+        for (int i = 0; i < text.getPlayers().size(); i++) {
+            assertEquals(text.getPlayers().get(i).getMoney(), compiled.getPlayers().get(i).getMoney());
+        }
+    }
+
+    @Test
+    public void corrupt() {
+        //Flips a single byte after the header, and checks bad magic numbers and truncated buffers
+        ByteBuffer b = CompiledNetwork.compile(data);
+        b.put(100, (byte) (b.get(100) ^ 1));
+        ByteBuffer truncated = CompiledNetwork.compile(data);
+        truncated.limit(20);
+        ByteBuffer magic = CompiledNetwork.compile(data);
+        magic.putInt(0, 0);
+        for (ByteBuffer bad : Arrays.asList(b, truncated, magic)) {
+            try {
+                new CompiledNetwork(bad);
+                fail("Expected the buffer to be rejected");
+            } catch (NetworkParseException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void badCounts() {
+        //Rewrites the header counts along with the hash, which covers them, and checks they are still rejected
+        int[][] counts = {{8, -1}, {16, Integer.MAX_VALUE}, {8, Integer.MAX_VALUE / 4}, {20, 1 << 28}};
+        for (int[] count : counts) {
+            ByteBuffer b = CompiledNetwork.compile(data);
+            b.putInt(count[0], count[1]);
+            b.putLong(24, CompiledNetwork.hash(b));
+            try {
+                new CompiledNetwork(b);
+                fail("Expected the counts to be rejected");
+            } catch (NetworkParseException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+        //Checks that changing a count without the hash is caught by the hash
+        ByteBuffer b = CompiledNetwork.compile(data);
+        b.putInt(12, b.getInt(12) + 1);
+        try {
+            new CompiledNetwork(b);
+            fail("Expected the hash to cover the counts");
+        } catch (NetworkParseException e) {
+            assertTrue(e.getMessage().contains("hash"));
+        }
+    }
+
+    @Test
+    public void badRoad() {
+        //Points the last road at a city that does not exist, with a valid hash
+        ByteBuffer b = CompiledNetwork.compile(data);
+        b.putInt(b.limit() - 8, network.getCityCount());
+        b.putLong(24, CompiledNetwork.hash(b));
+        CompiledNetwork bad = new CompiledNetwork(b);
+        try {
+            bad.load(new Game(0, new Settings()));
+            fail("Expected the road to be rejected");
+        } catch (NetworkParseException e) {
+            assertTrue(e.getMessage().contains("city"));
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -240,6 +240,27 @@ public class CountryTest {
         assertEquals(newPosTest.getDistance(), 0);
     }
 
+    @Test
+    public void getRoad() {
+        // Checks that every road of the network is found, with its length
+        for (City from : country1.getNetwork().keySet()) {
+            for (Road r : country1.getRoads(from)) {
+                assertSame(country1.getRoad(from, r.getTo()), r);
+                assertEquals(country1.getRoadLength(from, r.getTo()), r.getLength());
+            }
+        }
+        // Checks missing roads, and cities outside the country
+        assertNull(country1.getRoad(cityB, cityC));
+        assertEquals(country1.getRoadLength(cityB, cityC), -1);
+        assertNull(country1.getRoad(cityE, cityF));
+        assertNull(country1.getRoad(null, cityA));
+
+        // Checks that roads added later are found
+        country1.addRoads(cityB, cityC, 7);
+        assertEquals(country1.getRoadLength(cityB, cityC), 7);
+        assertEquals(country1.getRoadLength(cityC, cityB), 7);
+    }
+
     @Test
     public void Position() {
         //Checks if position sets and returns correctly
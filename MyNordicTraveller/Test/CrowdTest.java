@@ -0,0 +1,155 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class CrowdTest {
+    private CompiledNetwork network;
+    private Settings settings;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        //No robberies, so money only moves between the agents and the cities
+        settings = new Settings(new boolean[]{true, true, true}, 20, 0, 10, 50, 2);
+        settings.setPersistent(false);
+    }
+
+    private static long total(Game g) {
+        long sum = 0;
+        for (int i = 0; i < g.getCityCount(); i++) {
+            sum += g.getCity(i).getValue();
+        }
+        Crowd crowd = g.getCrowd();
+        for (int i = 0; i < crowd.getSize(); i++) {
+            sum += crowd.getMoney(i);
+        }
+        return sum;
+    }
+
+    @Test
+    public void conserved() {
+        Game g = Generator.generateCrowd(3, network, settings, 2000, 2000, 10);
+        Crowd crowd = g.getCrowd();
+        assertEquals(crowd.getSize(), 4010);
+        long before = total(g);
+        while (g.ongoing()) {
+            g.step();
+            int agents = 0;
+            for (int i = 0; i < g.getCityCount(); i++) {
+                agents += crowd.getDensity(g.getCity(i));
+            }
+            assertEquals(agents, crowd.getSize());
+            assertEquals(total(g), before);
+        }
+        assertTrue(crowd.getStats(Crowd.GREEDY).getMean() > 0);
+        assertTrue(crowd.getStats(Crowd.RANDOM).getMean() > 0);
+    }
+
+    @Test
+    public void leaders() {
+        Game g = Generator.generateCrowd(4, network, settings, 500, 500, 0);
+        while (g.ongoing()) {
+            g.step();
+        }
+        Crowd crowd = g.getCrowd();
+        int[] leaders = crowd.getLeaders(10);
+        assertEquals(leaders.length, 10);
+        for (int j = 1; j < leaders.length; j++) {
+            assertTrue(crowd.getMoney(leaders[j - 1]) >= crowd.getMoney(leaders[j]));
+        }
+        for (int i = 0; i < crowd.getSize(); i++) {
+            assertTrue(crowd.getMoney(i) <= crowd.getMoney(leaders[0]));
+        }
+        assertEquals(crowd.getMoney(leaders[0]),
+                Math.max(crowd.getStats(Crowd.GREEDY).getMax(), crowd.getStats(Crowd.RANDOM).getMax()), 0);
+    }
+
+    @Test
+    public void repeatable() {
+        Game a = Generator.generateCrowd(5, network, settings, 300, 300, 0),
+             b = Generator.generateCrowd(5, network, settings, 300, 300, 0);
+        while (a.ongoing()) {
+            a.step();
+            b.step();
+        }
+        assertEquals(a.getCrowd().toString(), b.getCrowd().toString());
+        a.reset(true, false);
+        while (a.ongoing()) {
+            a.step();
+        }
+        assertEquals(a.getCrowd().toString(), b.getCrowd().toString());
+    }
+
+    @Test
+    public void deactivated() {
+        settings.setActive(Crowd.RANDOM, false);
+        Game g = Generator.generateCrowd(6, network, settings, 200, 200, 0);
+        while (g.ongoing()) {
+            g.step();
+        }
+        assertEquals(g.getCrowd().getStats(Crowd.RANDOM).getMax(), 0, 0);
+        assertTrue(g.getCrowd().getStats(Crowd.GREEDY).getMax() > 0);
+    }
+
+    @Test
+    public void reactivated() {
+        //Parked agents move again once their kind is active again
+        settings.setActive(Crowd.RANDOM, false);
+        Game g = Generator.generateCrowd(7, network, settings, 200, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            g.step();
+        }
+        assertEquals(g.getCrowd().getStats(Crowd.RANDOM).getMax(), 0, 0);
+        g.getSettings().setActive(Crowd.RANDOM, true);
+        while (g.ongoing()) {
+            g.step();
+        }
+        assertTrue(g.getCrowd().getStats(Crowd.RANDOM).getMax() > 0);
+    }
+
+    @Test
+    public void state() {
+        //The crowd is part of the state hash, and games with a crowd are neither captured nor streamed
+        Game a = Generator.generateCrowd(8, network, settings, 100, 100, 0),
+             b = Generator.generateCrowd(8, network, settings, 100, 100, 0);
+        assertEquals(a.getStateHash(), b.getStateHash());
+        for (int i = 0; i < 5; i++) {
+            a.step();
+            b.step();
+        }
+        assertEquals(a.getStateHash(), b.getStateHash());
+        b.getCrowd().reset();
+        assertNotEquals(a.getStateHash(), b.getStateHash());
+        try {
+            Checkpoint.capture(a);
+            fail("Expected a game with a crowd not to be captured");
+        } catch (CheckpointException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            new StateStream(a, 0, 8).close();
+            fail("Expected a game with a crowd not to be streamed");
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            assertTrue(e instanceof IllegalArgumentException);
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
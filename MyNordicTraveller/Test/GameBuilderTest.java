@@ -0,0 +1,119 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class GameBuilderTest {
+    private Game game;
+    private GameBuilder builder;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = new Game(0);
+        builder = new GameBuilder(game);
+    }
+
+    /**
+     * Describes the countries of a game and the roads of all their cities, in order.
+     */
+    private static String describe(Game g) {
+        StringBuilder sb = new StringBuilder();
+        for (Country country : g.getCountries()) {
+            sb.append(country.getName()).append(country instanceof MafiaCountry ? " (mafia)\n" : "\n");
+            for (City city : country.getCities()) {
+                sb.append("  ").append(city.getName()).append(":");
+                for (Road r : country.getRoads(city)) {
+                    sb.append(" ").append(r.getFrom().getName()).append(">").append(r.getTo().getName())
+                            .append("/").append(r.getLength());
+                }
+                sb.append("\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void sameAsGame() {
+        //Builds the same random network road by road through Game, and at once through a GameBuilder
+        Random random = new Random(3);
+        String[] countryNames = {"Norway", "Denmark", "Sweden"};
+        Game slow = new Game(0);
+        List<String> names = new ArrayList<>();
+        for (String name : countryNames) {
+            Map<City, List<Road>> network = new HashMap<>();
+            Country slowCountry = name.equals("Sweden") ? new MafiaCountry(name, network) : new Country(name, network);
+            Country fastCountry = builder.country(name, name.equals("Sweden"));
+            for (int i = 0; i < 5; i++) {
+                String cityName = name.substring(0, 2) + (char) ('Z' - random.nextInt(26)) + i;
+                int value = random.nextInt(100);
+                City c = new City(cityName, value, slowCountry);
+                network.put(c, new ArrayList<>());
+                builder.addCity(new City(cityName, value, fastCountry));
+                names.add(cityName);
+            }
+            slow.addCountry(slowCountry);
+        }
+        for (int i = 0; i < 40; i++) {
+            String a = names.get(random.nextInt(names.size())), b = names.get(random.nextInt(names.size()));
+            int length = 1 + random.nextInt(6);
+            slow.addRoads(a, b, length);
+            builder.addRoads(a, b, length);
+        }
+        assertEquals(describe(slow), describe(builder.build()));
+        for (String name : names) {
+            assertEquals(game.getCity(name).getId(), slow.getTopology().indexOf(game.getCity(name)));
+        }
+    }
+
+    @Test
+    public void validation() {
+        Country country = builder.country("Country", false);
+        builder.addCity(new City("City A", 10, country));
+        builder.addCity(new City("City B", 10, country));
+        builder.addRoads("City A", "City C", 2);
+        try {
+            builder.build();
+            fail("Expected an unknown city to be rejected");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "No such city: 'City C'.");
+        }
+
+        //Checks duplicate names, cities of unknown countries and roads without length
+        GameBuilder duplicate = new GameBuilder(new Game(0));
+        Country c1 = duplicate.country("Country", false);
+        duplicate.addCity(new City("City A", 10, c1)).addCity(new City("City A", 20, c1));
+        GameBuilder foreign = new GameBuilder(new Game(0));
+        foreign.addCity(new City("City A", 10, country));
+        GameBuilder empty = new GameBuilder(new Game(0));
+        Country c2 = empty.country("Country", false);
+        empty.addCity(new City("City A", 10, c2)).addCity(new City("City B", 10, c2)).addRoads("City A", "City B", 0);
+        for (GameBuilder b : Arrays.asList(duplicate, foreign, empty)) {
+            try {
+                b.build();
+                fail("Expected the network to be rejected");
+            } catch (IllegalStateException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,124 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class GameHostTest {
+    private CompiledNetwork network;
+    private List<Function<Position, ? extends Player>> lineUp;
+    private Settings settings;
+    private GameHost host;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        lineUp = Arrays.asList(Tournament.strategy("greedy"), Tournament.strategy("random"));
+        settings = new Settings();
+        settings.setPersistent(false);
+        host = new GameHost(network, 2);
+    }
+
+    @Test
+    public void sameAsBatch() throws InterruptedException {
+        //Runs many sessions side by side, and checks each against the same game played on its own
+        List<GameHost.Session> sessions = new ArrayList<>();
+        for (int seed = 0; seed < 40; seed++) {
+            GameHost.Session s = host.open(seed, settings, lineUp);
+            assertEquals(s.getStepsLeft(), -1);
+            assertFalse(s.isLoaded());
+            s.start(1);
+            sessions.add(s);
+        }
+        assertEquals(host.getSessionCount(), 40);
+        for (GameHost.Session s : sessions) {
+            GameResult result = s.awaitResult();
+            GameResult expected = new GameResult(s.getSeed(),
+                    BatchRunner.play(Generator.generateGame(s.getSeed(), network, settings, lineUp)));
+            assertEquals(result.toString(), expected.toString());
+            assertFalse(s.isLoaded());
+            assertFalse(s.isRunning());
+            assertEquals(s.getStepsLeft(), 0);
+        }
+        assertEquals(host.getRunningCount(), 0);
+    }
+
+    @Test
+    public void lifecycle() throws InterruptedException {
+        //Checks pausing and closing
+        GameHost.Session s = host.open(1, settings, lineUp);
+        s.start(60000);
+        assertTrue(s.isRunning());
+        assertTrue(s.isLoaded());
+        assertEquals(s.getStepsLeft(), 50);
+        s.pause();
+        assertFalse(s.isRunning());
+        assertTrue(s.isLoaded());
+        s.close();
+        assertFalse(s.isLoaded());
+        assertEquals(host.getSessionCount(), 0);
+        try {
+            s.awaitResult();
+            fail("Expected a closed session to have no result");
+        } catch (IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            s.start(1);
+            fail("Expected a closed session not to start");
+        } catch (IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void failure() throws InterruptedException {
+        //A game throwing while it is ticked stops the session, and the failure reaches the thread waiting for it
+        List<Function<Position, ? extends Player>> failing = new ArrayList<>(lineUp);
+        failing.add(pos -> new GreedyPlayer(pos) {
+            private int steps;
+
+            @Override
+            public void step() {
+                if (++steps == 10) {
+                    throw new ArithmeticException("Broken player");
+                }
+                super.step();
+            }
+        });
+        GameHost.Session s = host.open(2, settings, failing);
+        s.start(1);
+        try {
+            s.awaitResult();
+            fail("Expected the failure to be thrown");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+        assertTrue(s.getFailure() instanceof ArithmeticException);
+        assertFalse(s.isRunning());
+        assertFalse(s.isLoaded());
+        assertNull(s.getResult());
+        assertEquals(host.getRunningCount(), 0);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+        host.close();
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class LogHistogramTest {
+    private LogHistogram histogram;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        histogram = new LogHistogram();
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        for (int v = -50; v <= 50; v++) {
+            histogram.add(v);
+        }
+        assertEquals(histogram.getCount(), 101);
+        assertEquals(histogram.quantile(0), -50);
+        assertEquals(histogram.quantile(0.5), 0);
+        assertEquals(histogram.quantile(1), 50);
+    }
+
+    @Test
+    public void relativeError() {
+        for (int v = 1; v <= 100000; v++) {
+            histogram.add(v);
+        }
+        //Checks that the quantiles are within the precision of the histogram (1/32)
+        for (double q = 0.1; q < 1; q += 0.1) {
+            double expected = q * 100000;
+            assertEquals(histogram.quantile(q), expected, expected / 32 + 1);
+        }
+    }
+
+    @Test
+    public void merge() {
+        LogHistogram other = new LogHistogram();
+        for (int v = 0; v < 1000; v++) {
+            (v % 2 == 0 ? histogram : other).add(v * 7);
+        }
+        histogram.merge(other);
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getMin(), 0);
+        assertEquals(histogram.getMax(), 999 * 7);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
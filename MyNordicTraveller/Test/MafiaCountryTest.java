@@ -116,6 +116,21 @@ public class MafiaCountryTest {
         }
     }
 
+    @Test
+    public void robberyOfNothing() {
+        //Checks that a robbery is counted even when nothing is taken
+        game.getSettings().setPersistent(false);
+        game.getSettings().setRisk(100);
+        game.getSettings().setMinMaxRobbery(0, 0);
+        Player robbed = new Player(new Position(cityE, cityF, 2), 250);
+        assertEquals(cityF.arrive(robbed), 0);
+        assertEquals(robbed.getRobberies(), 1);
+        assertEquals(cityF.getValue(), 90);
+        game.getSettings().setRisk(0);
+        cityF.arrive(robbed);
+        assertEquals(robbed.getRobberies(), 1);
+    }
+
     /**
      * Tears down the test fixture.
      * <p>
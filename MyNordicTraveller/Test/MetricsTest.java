@@ -0,0 +1,72 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class MetricsTest {
+    private Metrics.Counter counter;
+    private Metrics.Histogram histogram;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        Metrics.reset();
+        counter = Metrics.counter("test.counter");
+        histogram = Metrics.histogram("test.histogram");
+    }
+
+    @Test
+    public void counter() {
+        //Checks that the same counter is returned for the same name
+        assertSame(counter, Metrics.counter("test.counter"));
+        counter.increment();
+        counter.add(41);
+        assertEquals(counter.get(), 42);
+    }
+
+    @Test
+    public void buckets() {
+        //Checks that every value lies within the bounds of its bucket
+        long previous = -1;
+        for (long v = 0; v < 100000; v++) {
+            int b = Metrics.Histogram.bucketOf(v);
+            assertTrue(v <= Metrics.Histogram.upperBound(b));
+            assertTrue(b == 0 || v > Metrics.Histogram.upperBound(b - 1));
+            assertTrue(b >= previous);
+            previous = b;
+        }
+        //Checks that the largest value still fits
+        assertEquals(Metrics.Histogram.bucketOf(Long.MAX_VALUE), Metrics.Histogram.BUCKETS - 1);
+    }
+
+    @Test
+    public void snapshot() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+        Metrics.Snapshot s = histogram.snapshot();
+        assertEquals(s.count, 100);
+        assertEquals(s.max, 100000);
+        assertEquals(s.mean(), 50500, 0.001);
+        //Checks that the percentiles are within the 25% bucket error
+        assertTrue(s.p50 >= 50000 && s.p50 <= 50000 * 1.25);
+        assertTrue(s.p99 >= 99000 && s.p99 <= 100000);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
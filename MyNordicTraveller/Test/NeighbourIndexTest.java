@@ -0,0 +1,138 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class NeighbourIndexTest {
+    private Game game;
+    private Country country;
+    private City[] cities;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = new Game(0);
+        game.getRandom().setSeed(0);
+        Map<City, List<Road>> network = new HashMap<>();
+        country = new Country("Neighbours", network);
+        game.addCountry(country);
+
+        // Create a ring of cities where every city also has a road to the city opposite
+        int[] values = {20, 80, 10, 60, 30, 90, 40, 50};
+        cities = new City[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cities[i] = new City("Neighbour " + i, values[i], country);
+            network.put(cities[i], new ArrayList<>());
+        }
+        for (int i = 0; i < cities.length; i++) {
+            game.addRoads(cities[i], cities[(i + 1) % cities.length], 1 + i % 3);
+        }
+        for (int i = 0; i < cities.length / 2; i++) {
+            game.addRoads(cities[i], cities[i + cities.length / 2], 2);
+        }
+    }
+
+    /**
+     * Finds the best neighbour the way the GreedyPlayer used to, by scanning all roads.
+     */
+    private City scan(City city) {
+        double best = 0;
+        City bestCity = null;
+        for (Road road : country.getRoads(city)) {
+            double value = road.getTo().getValue() / (double) road.getLength();
+            if (value > best) {
+                bestCity = road.getTo();
+                best = value;
+            }
+        }
+        return bestCity;
+    }
+
+    @Test
+    public void getBest() {
+        //Checks that the index agrees with a full scan while values change in every possible way
+        NeighbourIndex index = game.getNeighbourIndex();
+        Random random = new Random(1);
+        for (int round = 0; round < 500; round++) {
+            City c = cities[random.nextInt(cities.length)];
+            switch (random.nextInt(4)) {
+                case 0:
+                    c.arrive();
+                    break;
+                case 1:
+                    c.changeValue(random.nextInt(40) - 20);
+                    break;
+                case 2:
+                    c.reset();
+                    break;
+                default:
+                    country.reset();
+            }
+            for (City city : cities) {
+                assertEquals(scan(city), index.getBest(city));
+            }
+        }
+    }
+
+    @Test
+    public void ties() {
+        //Checks that the first road wins a tie, and that no neighbour is chosen when nothing has a positive value
+        for (City c : cities) {
+            c.changeValue(-c.getValue());
+        }
+        NeighbourIndex index = game.getNeighbourIndex();
+        assertNull(index.getBest(cities[0]));
+        cities[1].changeValue(10);
+        cities[4].changeValue(20);
+        assertEquals(index.getBest(cities[0]), cities[1]);
+        assertEquals(scan(cities[0]), cities[1]);
+    }
+
+    @Test
+    public void noTopology() {
+        //Greedy lookups and change tracking only need the ids of the cities, not the distances between them
+        boolean enabled = Metrics.isEnabled();
+        Metrics.setEnabled(true);
+        try {
+            Metrics.Histogram builds = Metrics.histogram("topology.build");
+            long before = builds.snapshot().count;
+            Game fresh = new Game(0);
+            Map<City, List<Road>> network = new HashMap<>();
+            Country c = new Country("Fresh " + System.nanoTime(), network);
+            fresh.addCountry(c);
+            City a = new City("Fresh A " + System.nanoTime(), 10, c), b = new City("Fresh B", 20, c);
+            network.put(a, new ArrayList<>());
+            network.put(b, new ArrayList<>());
+            fresh.addRoads(a, b, 1);
+            assertEquals(fresh.getNeighbourIndex().getBest(a), b);
+            CityChanges changes = fresh.getCityChanges();
+            b.changeValue(5);
+            assertTrue(changes.isDirty(b.getId()));
+            changes.flush();
+            assertEquals(builds.snapshot().count, before);
+            fresh.getTopology();
+            assertEquals(builds.snapshot().count, before + 1);
+        } finally {
+            Metrics.setEnabled(enabled);
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
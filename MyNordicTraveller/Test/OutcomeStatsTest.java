@@ -0,0 +1,36 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class OutcomeStatsTest {
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+    }
+
+    @Test
+    public void json() {
+        assertEquals(OutcomeStats.json("Smart Player"), "\"Smart Player\"");
+        //Checks that quotes, backslashes and control characters are escaped
+        assertEquals(OutcomeStats.json("\"Bot\" \\ 1\n2\t\u0001"), "\"\\\"Bot\\\" \\\\ 1\\n2\\t\\u0001\"");
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
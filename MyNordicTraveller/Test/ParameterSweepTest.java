@@ -0,0 +1,81 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class ParameterSweepTest {
+    private ParameterSweep sweep;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        sweep = new ParameterSweep(new String[0]);
+        sweep.setToll(new ParameterSweep.Range(0, 50, 10));
+        sweep.setRisk(new ParameterSweep.Range(0, 20, 10));
+        sweep.setMinLoss(new ParameterSweep.Range(0, 60, 30));
+        sweep.setMaxLoss(new ParameterSweep.Range(50, 50, 1));
+    }
+
+    @Test
+    public void range() {
+        ParameterSweep.Range r = ParameterSweep.Range.parse("0:50:20");
+        assertEquals(r.size(), 3);
+        assertEquals(r.get(0), 0);
+        assertEquals(r.get(2), 40);
+        assertEquals(ParameterSweep.Range.parse("7").size(), 1);
+    }
+
+    @Test
+    public void grid() {
+        List<Settings> points = sweep.grid();
+        //6 tolls, 3 risks and 2 of the 3 minimum losses (60 > 50 is left out)
+        assertEquals(points.size(), 6 * 3 * 2);
+        for (Settings s : points) {
+            assertTrue(s.getMinRobbery() <= s.getMaxRobbery());
+            assertFalse(s.isPersistent());
+        }
+    }
+
+    @Test
+    public void latinHypercube() {
+        sweep.setMinLoss(new ParameterSweep.Range(0, 50, 1));
+        List<Settings> points = sweep.latinHypercube(6, 0);
+        assertEquals(points.size(), 6);
+        //Checks that every toll is used exactly once, as there are as many samples as tolls
+        Set<Integer> tolls = new HashSet<>();
+        for (Settings s : points) {
+            tolls.add(s.getTollToBePaid());
+        }
+        assertEquals(tolls.size(), 6);
+    }
+
+    @Test
+    public void latinHypercubeKeepsEverySample() {
+        sweep.setMinLoss(new ParameterSweep.Range(0, 100, 1));
+        sweep.setMaxLoss(new ParameterSweep.Range(0, 100, 1));
+        List<Settings> points = sweep.latinHypercube(50, 3);
+        assertEquals(points.size(), 50);
+        for (Settings s : points) {
+            assertTrue(s.getMinRobbery() <= s.getMaxRobbery());
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,114 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class PlayerSchedulerTest {
+    private Game game;
+    private Settings settings;
+
+    /**
+     * A kind of player which is not an AI player of the original game.
+     */
+    static class IdlePlayer extends Player {
+        IdlePlayer(Position pos) {
+            super(pos);
+        }
+
+        @Override
+        public String getName() {
+            return "Idle Player";
+        }
+    }
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        settings = new Settings();
+        settings.setPersistent(false);
+        game = new Game(0, settings);
+        Generator.loadNetwork(game, Generator.readNetwork("network.dat"));
+        game.getPlayers().add(new SmartPlayer(game.getRandomStartingPosition()));
+        game.getPlayers().add(new RandomPlayer(game.getRandomStartingPosition()));
+        game.getPlayers().add(new GreedyPlayer(game.getRandomStartingPosition()));
+        game.reset(true, false);
+    }
+
+    @Test
+    public void sorted() {
+        assertEquals(game.getPlayers().get(0).getClass(), GreedyPlayer.class);
+        assertEquals(game.getPlayers().get(1).getClass(), RandomPlayer.class);
+        assertEquals(game.getPlayers().get(2).getClass(), SmartPlayer.class);
+        game.getPlayers().add(new IdlePlayer(game.getRandomStartingPosition()));
+        game.step();
+        assertEquals(game.getPlayers().get(1).getClass(), IdlePlayer.class);
+    }
+
+    @Test
+    public void settingsChange() {
+        Player greedy = game.getPlayers().get(0);
+        String before = greedy.getPosition().getFrom().getName() + greedy.getPosition().getDistance();
+        settings.setActive(1, false);
+        game.step();
+        game.step();
+        for (Player p : game.getPlayers()) {
+            assertEquals(game.isActive(p), !(p instanceof GreedyPlayer));
+        }
+        //The greedy player has not moved
+        assertEquals(greedy.getPosition().getFrom().getName() + greedy.getPosition().getDistance(), before);
+        settings.setActive(1, true);
+        assertTrue(game.isActive(greedy));
+    }
+
+    @Test
+    public void registered() {
+        Player idle = new IdlePlayer(game.getRandomStartingPosition());
+        assertEquals(PlayerScheduler.getCategory(idle), -1);
+        assertTrue(game.isActive(idle));
+        PlayerScheduler.register(IdlePlayer.class, 2);
+        try {
+            settings.setActive(2, false);
+            assertFalse(game.isActive(idle));
+            //Subclasses do not inherit the category
+            assertEquals(PlayerScheduler.getCategory(new Player(game.getRandomStartingPosition())), -1);
+        } finally {
+            PlayerScheduler.register(IdlePlayer.class, -1);
+        }
+        assertTrue(game.isActive(idle));
+    }
+
+    @Test
+    public void replaced() {
+        PlayerScheduler players = (PlayerScheduler) game.getPlayers();
+        Player[] before = players.active();
+        //Replacing a player does not change the modification count, but must still be seen
+        Player idle = new IdlePlayer(game.getRandomStartingPosition());
+        players.set(2, idle);
+        Player[] after = players.active();
+        assertNotSame(before, after);
+        assertSame(after[1], idle);
+        //Swapping players goes through set, and is sorted back
+        Collections.swap(players, 0, 2);
+        assertEquals(players.sorted().get(0).getClass(), GreedyPlayer.class);
+        assertSame(players.active()[1], idle);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,125 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class PolicyTableTest {
+    private CompiledNetwork network;
+    private Game game;
+    private PolicyTable table;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        Settings settings = new Settings();
+        settings.setPersistent(false);
+        game = Generator.generateGame(1, network, settings, Collections.emptyList());
+        table = PolicyTable.compile(game, 8, 2, 2);
+    }
+
+    @Test
+    public void sameAsSearch() {
+        //The last bucket is the start of a game
+        for (int c = 0; c < game.getCityCount(); c++) {
+            for (int s = 0; s <= 8; s++) {
+                Path best = new SmartSearch(0).search(game.getCity(c), s);
+                assertEquals(table.get(c, s, 1), best.isEmpty() ? -1 : best.getRoad().getTo().getId());
+            }
+        }
+    }
+
+    @Test
+    public void buckets() {
+        assertEquals(table.bucket(1000, 1000), 1);
+        assertEquals(table.bucket(1200, 1000), 1);
+        assertEquals(table.bucket(501, 1000), 1);
+        assertEquals(table.bucket(500, 1000), 0);
+        assertEquals(table.bucket(0, 1000), 0);
+    }
+
+    @Test
+    public void roundTrip() {
+        PolicyTable copy = PolicyTable.fromBytes(table.toBytes());
+        assertArrayEquals(copy.toBytes(), table.toBytes());
+        assertTrue(copy.fits(game));
+        byte[] data = table.toBytes();
+        try {
+            PolicyTable.fromBytes(java.util.Arrays.copyOf(data, data.length - 1));
+            fail("Expected a truncated table to be rejected");
+        } catch (PolicyTableException e) {
+            assertNotNull(e.getMessage());
+        }
+        data[0] = 0;
+        try {
+            PolicyTable.fromBytes(data);
+            fail("Expected a table without the magic number to be rejected");
+        } catch (PolicyTableException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void play() {
+        Settings settings = new Settings();
+        settings.setPersistent(false);
+        Game g = Generator.generateGame(2, network, settings,
+                Collections.singletonList(pos -> new TablePlayer(pos, table)));
+        while (g.ongoing()) {
+            g.step();
+        }
+        assertTrue(g.getPlayers().get(0).getMoney() >= 0);
+        //The total value is kept up to date as the player drains the cities
+        long total = 0;
+        for (int i = 0; i < g.getCityCount(); i++) {
+            total += g.getCity(i).getValue();
+        }
+        assertEquals(g.getTotalValue(), total);
+        //Other settings, which the table was not compiled for
+        settings.setRisk(settings.getRisk() + 1);
+        assertFalse(table.fits(g));
+    }
+
+    @Test
+    public void tooManyCities() {
+        //Checks that a network whose city ids do not fit in a short is rejected
+        Settings settings = new Settings();
+        settings.setPersistent(false);
+        Game big = new Game(0, settings);
+        Map<City, List<Road>> roads = new HashMap<>();
+        Country country = new Country("Big", roads);
+        for (int i = 0; i <= Short.MAX_VALUE; i++) {
+            roads.put(new City("City " + i, 10, country), new ArrayList<>());
+        }
+        big.addCountry(country);
+        try {
+            PolicyTable.compile(big, 1, 1, 1);
+            fail("Expected the network to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("cities"));
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -82,6 +82,24 @@ public class PositionTest
         assertEquals(pos.getDistance(),0);
         assertEquals(pos.getTotal(),3);
     }
+    @Test
+    public void set() {
+        //Checks that a copy keeps how far the player has moved, and that set starts a new road
+        pos.move();
+        Position copy = new Position(pos);
+        assertEquals(copy.getFrom(), cityA);
+        assertEquals(copy.getDistance(), 2);
+        assertEquals(copy.getTotal(), 3);
+        pos.set(cityB, cityA, 5);
+        assertEquals(pos.getFrom(), cityB);
+        assertEquals(pos.getTo(), cityA);
+        assertEquals(pos.getDistance(), 5);
+        assertEquals(pos.getTotal(), 5);
+        pos.set(copy);
+        assertEquals(pos.getFrom(), cityA);
+        assertEquals(pos.getDistance(), 2);
+        assertEquals(pos.getTotal(), 3);
+    }
     @After
     public void tearDown()
     {
@@ -0,0 +1,100 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class RatingTest {
+    private Rating a, b;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        a = new Rating("A");
+        b = new Rating("B");
+    }
+
+    @Test
+    public void constructor() {
+        assertEquals(a.getName(), "A");
+        assertEquals(a.getRating(), Rating.INITIAL_RATING, 0);
+        assertEquals(a.getDeviation(), Rating.INITIAL_DEVIATION, 0);
+        assertEquals(a.getGames(), 0);
+    }
+
+    @Test
+    public void winnerGainsWhatLoserLoses() {
+        a.accumulate(b, 1);
+        b.accumulate(a, 0);
+        a.apply();
+        b.apply();
+        //Checks that the ratings move in opposite directions by the same amount
+        assertTrue(a.getRating() > Rating.INITIAL_RATING);
+        assertEquals(a.getRating() - Rating.INITIAL_RATING, Rating.INITIAL_RATING - b.getRating(), 1e-9);
+        //Checks that the confidence interval shrinks
+        assertTrue(a.getDeviation() < Rating.INITIAL_DEVIATION);
+        assertTrue(a.getLower() < a.getRating() && a.getRating() < a.getUpper());
+    }
+
+    @Test
+    public void draws() {
+        for (int i = 0; i < 100; i++) {
+            a.accumulate(b, 0.5);
+            b.accumulate(a, 0.5);
+            a.apply();
+            b.apply();
+        }
+        //Checks that evenly matched strategies stay at the same rating
+        assertEquals(a.getRating(), Rating.INITIAL_RATING, 1e-9);
+        assertTrue(a.getDeviation() < 50);
+    }
+
+    @Test
+    public void money() {
+        a.addGame(100, true);
+        a.addGame(200, false);
+        a.addGame(300, false);
+        assertEquals(a.getGames(), 3);
+        assertEquals(a.getWins(), 1);
+        assertEquals(a.getMeanMoney(), 200, 1e-9);
+        assertEquals(a.getMoneyDeviation(), 100, 1e-9);
+    }
+
+    @Test
+    public void sameStrategyTwice() {
+        Settings settings = new Settings();
+        settings.setPersistent(false);
+        Tournament t = new Tournament(new String[0], settings, new ArrayList<>());
+        t.record(new GameResult(0, new String[]{"A", "A", "B"}, new int[]{300, 100, 200}));
+        //Checks that a strategy in two slots is rated once, with its best slot
+        Rating r = t.getRating("A");
+        assertEquals(r.getGames(), 1);
+        assertEquals(r.getWins(), 1);
+        assertEquals(r.getMeanMoney(), 300, 1e-9);
+        //Checks that both of its matches went into one update
+        a.accumulate(b, 1);
+        a.accumulate(b, 0);
+        a.apply();
+        assertEquals(r.getRating(), a.getRating(), 1e-9);
+        assertEquals(r.getDeviation(), a.getDeviation(), 1e-9);
+        assertEquals(t.getRating("B").getGames(), 1);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class RunningStatsTest {
+    private RunningStats all, first, second;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        all = new RunningStats();
+        first = new RunningStats();
+        second = new RunningStats();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            double x = random.nextGaussian() * 10 + 100;
+            all.add(x);
+            (i < 300 ? first : second).add(x);
+        }
+    }
+
+    @Test
+    public void add() {
+        RunningStats s = new RunningStats();
+        s.add(2);
+        s.add(4);
+        s.add(9);
+        assertEquals(s.getCount(), 3);
+        assertEquals(s.getMean(), 5, 1e-12);
+        assertEquals(s.getVariance(), 13, 1e-12);
+        assertEquals(s.getMin(), 2, 0);
+        assertEquals(s.getMax(), 9, 0);
+    }
+
+    @Test
+    public void merge() {
+        //Checks that merging two halves gives the same as adding everything to one
+        first.merge(second);
+        assertEquals(first.getCount(), all.getCount());
+        assertEquals(first.getMean(), all.getMean(), 1e-9);
+        assertEquals(first.getVariance(), all.getVariance(), 1e-9);
+        assertEquals(first.getMin(), all.getMin(), 0);
+        assertEquals(first.getMax(), all.getMax(), 0);
+        //Checks that merging into an empty instance copies it
+        RunningStats empty = new RunningStats();
+        empty.merge(all);
+        assertEquals(empty.getVariance(), all.getVariance(), 0);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,197 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class SmartSearchTest {
+    private Game game;
+    private Country country;
+    private City[] cities;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = new Game(0);
+        game.getRandom().setSeed(0);
+        Map<City, List<Road>> network = new HashMap<>();
+        country = new Country("Country", network);
+        country.setGame(game);
+        game.addCountry(country);
+
+        // Create a ring of cities with a few shortcuts
+        int[] values = {20, 80, 10, 60, 30, 90, 40, 50};
+        cities = new City[values.length];
+        for (int i = 0; i < values.length; i++) {
+            cities[i] = new City("City " + i, values[i], country);
+            network.put(cities[i], new ArrayList<>());
+        }
+        for (int i = 0; i < cities.length; i++) {
+            country.addRoads(cities[i], cities[(i + 1) % cities.length], 1 + i % 3);
+        }
+        country.addRoads(cities[0], cities[4], 2);
+        country.addRoads(cities[2], cities[6], 3);
+    }
+
+    @Test
+    public void deepening() {
+        //Checks that iterative deepening with enough time finds the same path as the full search
+        for (int n = 0; n <= 10; n++) {
+            for (City c : cities) {
+                Path full = new SmartSearch(100).search(c, n);
+                SmartSearch search = new SmartSearch(100);
+                Path deepened = search.search(c, n, Long.MAX_VALUE);
+                assertEquals(full.toString(), deepened.toString());
+                assertEquals(full.getValue(), deepened.getValue(), 0);
+                assertEquals(search.getDepth(), n);
+                assertFalse(search.isTimedOut());
+            }
+        }
+    }
+
+    @Test
+    public void deadline() {
+        //Checks that a search past its deadline returns a path no longer than the deepest completed iteration
+        SmartSearch search = new SmartSearch(100);
+        Path p = search.search(cities[0], 20, System.nanoTime());
+        assertTrue(search.isTimedOut() || search.getDepth() == 20);
+        assertTrue(p.getLength() <= search.getDepth());
+    }
+
+    @Test
+    public void interrupted() {
+        //Checks that only an interruptible search stops soon after its thread is interrupted
+        SmartSearch search = new SmartSearch(100);
+        Thread.currentThread().interrupt();
+        try {
+            Path full = search.search(cities[0], 8);
+            assertFalse(search.isTimedOut());
+            assertFalse(full.isEmpty());
+            search.setInterruptible(true);
+            assertTrue(search.search(cities[0], 26).isEmpty());
+            assertTrue(search.isTimedOut());
+            Path p = search.search(cities[0], 26, Long.MAX_VALUE);
+            assertTrue(search.isTimedOut());
+            assertTrue(p.getLength() <= search.getDepth());
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+        search.search(cities[0], 3);
+        assertFalse(search.isTimedOut());
+    }
+
+    @Test
+    public void transpositions() {
+        //Checks that reusing subtrees does not change the result
+        TranspositionTable table = new TranspositionTable(1 << 12, TranspositionTable.Policy.DEPTH_PREFERRED);
+        for (int n = 0; n <= 10; n++) {
+            for (City c : cities) {
+                Path full = new SmartSearch(100).search(c, n);
+                Path reused = new SmartSearch(100, null, table).search(c, n);
+                assertEquals(full.toString(), reused.toString());
+                assertEquals(full.getValue(), reused.getValue(), 0);
+            }
+        }
+        assertTrue(table.getHits() > 0);
+
+        //Checks that an unchanged world is answered from the table, and a changed one is not
+        SmartSearch again = new SmartSearch(100, null, table);
+        again.search(cities[0], 10);
+        assertEquals(again.getNodes(), 1);
+        int before = cities[5].getValue();
+        while (cities[5].getValue() == before) {
+            cities[5].arrive();
+        }
+        SmartSearch changed = new SmartSearch(100, null, table);
+        assertEquals(new SmartSearch(100).search(cities[0], 10).toString(), changed.search(cities[0], 10).toString());
+        assertTrue(changed.getNodes() > 1);
+    }
+
+    @Test
+    public void replacement() {
+        //Checks that a depth-preferred table keeps the deeper entry, and an always-replace table does not
+        for (TranspositionTable.Policy policy : TranspositionTable.Policy.values()) {
+            TranspositionTable table = new TranspositionTable(4, policy);
+            Path deep = new SmartSearch(100).search(cities[0], 4);
+            for (long key = 1; key <= 4; key++) {
+                table.put(key, 9, deep);
+            }
+            table.put(5, 1, new Path(new SmartSearch(100)));
+            int found = 0;
+            for (long key = 1; key <= 4; key++) {
+                if (table.get(key) != null) {
+                    found++;
+                }
+            }
+            assertEquals(found, policy == TranspositionTable.Policy.DEPTH_PREFERRED ? 4 : 3);
+            assertEquals(table.get(5) == null, policy == TranspositionTable.Policy.DEPTH_PREFERRED);
+        }
+    }
+
+    @Test
+    public void snapshot() {
+        //Checks that the snapshot holds exactly the cities within reach
+        int[] values = SmartSearch.snapshot(cities[0], 2);
+        Set<City> within = new HashSet<>(Arrays.asList(cities[0], cities[1], cities[4], cities[7]));
+        for (City c : cities) {
+            assertEquals(values[c.getId()], within.contains(c) ? c.getValue() : 0);
+        }
+
+        //Checks that a search on the snapshot ignores later changes of the live values
+        SmartSearch search = new SmartSearch(100, values);
+        Path before = search.search(cities[0], 2);
+        cities[1].arrive();
+        cities[4].arrive();
+        assertEquals(before.toString(), search.search(cities[0], 2).toString());
+    }
+
+    @Test
+    public void prePlanned() {
+        //Checks that a pre-planning player finishes a game, using its plans
+        Metrics.Counter hits = Metrics.counter("smart.preplan.hits");
+        long before = hits.get();
+        Settings settings = new Settings();
+        settings.setPersistent(false);
+        CompiledNetwork network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        Game g = Generator.generateGame(3, network, settings, Collections.singletonList(pos -> {
+            SmartPlayer p = new SmartPlayer(pos);
+            p.setPrePlanning(true);
+            return p;
+        }));
+        BatchRunner.play(g);
+        assertFalse(g.ongoing());
+        assertTrue(hits.get() > before);
+    }
+
+    @Test
+    public void lazyTable() {
+        //Checks that a player makes its transposition table on its first decision, unless it was told not to use one
+        SmartPlayer player = new SmartPlayer(new Position(cities[0], cities[0], 0));
+        assertNull(player.getTranspositionTable());
+        player.step();
+        assertNotNull(player.getTranspositionTable());
+        SmartPlayer without = new SmartPlayer(new Position(cities[0], cities[0], 0));
+        without.setTimeBudget(1000);
+        without.setTranspositionTable(null);
+        without.step();
+        assertNull(without.getTranspositionTable());
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,80 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class StateHashTest {
+    private Game game;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = Generator.generateGame(3, "network.dat");
+    }
+
+    @Test
+    public void incremental() {
+        //Checks after every step that the incrementally updated hash equals one computed from scratch
+        long first = game.getStateHash();
+        while (game.ongoing()) {
+            game.step();
+            assertEquals(game.getStateHash(), new StateHash(game).get());
+        }
+        assertNotEquals(game.getStateHash(), first);
+        game.reset(true, false);
+        assertEquals(game.getStateHash(), first);
+    }
+
+    @Test
+    public void divergence() {
+        //Changes a single city halfway through one of two equal games, and finds the tick
+        StateTrace reference = StateTrace.play(Generator.generateGame(3, "network.dat"));
+        assertEquals(reference.size(), 51);
+        StateTrace trace = new StateTrace();
+        trace.record(game);
+        while (game.ongoing()) {
+            game.step();
+            if (game.getStepsLeft() == 30) {
+                game.getCity(0).changeValue(1);
+            }
+            trace.record(game);
+        }
+        assertEquals(trace.firstDifference(reference), 20);
+        assertEquals(reference.firstDifference(StateTrace.play(Generator.generateGame(3, "network.dat"))), -1);
+    }
+
+    @Test
+    public void file() throws Exception {
+        StateTrace trace = StateTrace.play(game);
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            trace.write(file);
+            assertEquals(Files.size(file), 8 + 8 * trace.size());
+            StateTrace read = StateTrace.read(file);
+            assertEquals(read.firstDifference(trace), -1);
+            assertEquals(read.get(50), trace.get(50));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
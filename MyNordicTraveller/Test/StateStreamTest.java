@@ -0,0 +1,167 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class StateStreamTest {
+    private Game game;
+    private StateStream stream;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() throws IOException {
+        game = Generator.generateGame(5, "network.dat");
+        stream = new StateStream(game, 0, 8);
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    /**
+     * Reads frames until the client has caught up with the game, and checks its copy of the state.
+     */
+    private void assertFollows(StateStream.Client client, int tick) throws IOException {
+        while (client.getTick() < tick) {
+            client.next();
+        }
+        assertEquals(client.getStepsLeft(), game.getStepsLeft());
+        for (int i = 0; i < game.getCityCount(); i++) {
+            assertEquals(client.getCityName(i), game.getCity(i).getName());
+            assertEquals(client.getValue(i), game.getCity(i).getValue());
+        }
+        assertEquals(client.getPlayerCount(), game.getPlayers().size());
+        for (int i = 0; i < client.getPlayerCount(); i++) {
+            Player p = null;
+            for (Player q : game.getPlayers()) {
+                if (q.getName().equals(client.getPlayerName(i))) {
+                    p = q;
+                }
+            }
+            assertEquals(client.getMoney(i), p.getMoney());
+            int[] pos = client.getPosition(i);
+            assertEquals(pos[0], p.getPosition().getFrom().getId());
+            assertEquals(pos[1], p.getPosition().getTo().getId());
+            assertEquals(pos[2], p.getPosition().getDistance());
+            assertEquals(pos[3], p.getPosition().getTotal());
+        }
+    }
+
+    @Test
+    public void follow() throws IOException {
+        //One client follows from the start, and another joins halfway through
+        try (StateStream.Client early = new StateStream.Client(stream.getPort())) {
+            assertEquals(early.next(), StateStream.HELLO);
+            int tick = 0;
+            stream.publish();
+            assertFollows(early, tick);
+            while (game.getStepsLeft() > 25) {
+                game.step();
+                stream.publish();
+                tick++;
+            }
+            try (StateStream.Client late = new StateStream.Client(stream.getPort())) {
+                assertFollows(late, tick);
+                while (game.ongoing()) {
+                    game.step();
+                    stream.publish();
+                    tick++;
+                }
+                assertFollows(late, tick);
+                assertFollows(early, tick);
+                assertEquals(stream.getObserverCount(), 2);
+            }
+        }
+    }
+
+    @Test
+    public void dropBacklog() {
+        ByteBuffer hello = ByteBuffer.allocate(8).putInt(4).put(StateStream.HELLO), partial = ByteBuffer.allocate(8),
+                frame = ByteBuffer.allocate(8).putInt(4).put(StateStream.DELTA);
+        hello.rewind();
+        frame.rewind();
+        partial.putInt(4).put(StateStream.DELTA).rewind();
+        partial.position(3);
+        //A frame that was partly written is kept
+        ArrayDeque<ByteBuffer> queue = new ArrayDeque<>(Arrays.asList(partial, frame.duplicate(), frame.duplicate()));
+        StateStream.dropBacklog(queue);
+        assertEquals(queue.size(), 1);
+        assertSame(queue.peek(), partial);
+        //So is a hello frame that has not been written yet
+        queue = new ArrayDeque<>(Arrays.asList(hello, frame.duplicate()));
+        StateStream.dropBacklog(queue);
+        assertEquals(queue.size(), 1);
+        assertSame(queue.peek(), hello);
+        //Frames that have not been started are dropped
+        queue = new ArrayDeque<>(Arrays.asList(frame.duplicate(), frame.duplicate()));
+        StateStream.dropBacklog(queue);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void slowObserver() throws IOException, InterruptedException {
+        //An observer that does not read has its backlog dropped, and then catches up from a keyframe
+        Metrics.Counter dropped = Metrics.counter("stream.dropped");
+        try (StateStream.Client slow = new StateStream.Client(stream.getPort())) {
+            long before = dropped.get();
+            int tick = 0;
+            while (dropped.get() == before && tick < 2000000) {
+                if (game.ongoing() && tick % 1000 == 0) {
+                    game.step();
+                }
+                stream.publish();
+                tick++;
+                if (tick % 200 == 0) {
+                    //Lets the stream write until the socket is full, so the frame it is writing is only partly sent
+                    sleep(1);
+                }
+            }
+            assertTrue(dropped.get() > before);
+            //Some more frames, so the observer resyncs on a keyframe and the frames after it
+            for (int i = 0; i < 20; i++) {
+                stream.publish();
+                tick++;
+            }
+            assertEquals(slow.next(), StateStream.HELLO);
+            assertFollows(slow, tick - 1);
+        }
+    }
+
+    @Test
+    public void tooManyPlayers() throws IOException {
+        //Checks that a game whose player indices do not fit in a byte is rejected
+        Game crowded = Generator.generateGame(5, "network.dat");
+        while (crowded.getPlayers().size() <= Byte.MAX_VALUE) {
+            crowded.getPlayers().add(new GreedyPlayer(crowded.getRandomStartingPosition()));
+        }
+        try {
+            new StateStream(crowded, 0, 8).close();
+            fail("Expected the game to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("players"));
+        }
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() throws IOException {
+        stream.close();
+    }
+}
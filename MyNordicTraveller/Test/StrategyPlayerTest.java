@@ -0,0 +1,245 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class StrategyPlayerTest {
+    private CompiledNetwork network;
+    private Settings settings;
+
+    /**
+     * A strategy which takes longer than its budget.
+     */
+    static class SlowStrategy extends GreedyStrategy {
+        @Override
+        public String getName() {
+            return "Slow Bot";
+        }
+
+        @Override
+        public int decide(WorldView view) {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                return -1;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * A strategy which takes longer than its budget, ignores interrupts and counts how many of its decisions run at
+     * once.
+     */
+    static class StubbornStrategy extends GreedyStrategy {
+        final AtomicInteger running = new AtomicInteger(), most = new AtomicInteger(), calls = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "Stubborn Bot";
+        }
+
+        @Override
+        public int decide(WorldView view) {
+            calls.incrementAndGet();
+            most.accumulateAndGet(running.incrementAndGet(), Math::max);
+            long end = System.nanoTime() + 20_000_000L;
+            while (System.nanoTime() < end) {
+                //Busy, so an interrupt does not end the decision
+            }
+            running.decrementAndGet();
+            return -1;
+        }
+    }
+
+    /**
+     * A strategy which allocates more than its budget.
+     */
+    static class WastefulStrategy extends GreedyStrategy {
+        static byte[] waste;
+
+        @Override
+        public String getName() {
+            return "Wasteful Bot";
+        }
+
+        @Override
+        public int decide(WorldView view) {
+            waste = new byte[4 << 20];
+            return -1;
+        }
+    }
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        network = new CompiledNetwork(CompiledNetwork.compile(Generator.readNetwork("network.dat")));
+        settings = new Settings();
+        settings.setPersistent(false);
+    }
+
+    /**
+     * Plays a game with a single player, and returns its money.
+     */
+    private int play(int seed, Function<Position, ? extends Player> factory) {
+        Game g = Generator.generateGame(seed, network, settings, Collections.singletonList(factory));
+        while (g.ongoing()) {
+            g.step();
+        }
+        return g.getPlayers().get(0).getMoney();
+    }
+
+    @Test
+    public void discovered() {
+        List<String> names = new ArrayList<>();
+        for (Strategy s : Strategies.load()) {
+            names.add(s.getName());
+        }
+        assertTrue(names.contains("Greedy Bot"));
+        assertNotNull(Strategies.find("greedystrategy"));
+        assertNotNull(Tournament.strategy("greedy bot"));
+        assertNull(Strategies.find("no such bot"));
+    }
+
+    @Test
+    public void sameAsGreedy() {
+        for (int seed = 0; seed < 20; seed++) {
+            assertEquals(play(seed, pos -> new StrategyPlayer(pos, new GreedyStrategy())), play(seed, GreedyPlayer::new));
+            assertEquals(play(seed, Tournament.strategy("greedy bot")), play(seed, GreedyPlayer::new));
+        }
+    }
+
+    @Test
+    public void timeout() {
+        Metrics.Counter timeouts = Metrics.counter("strategy.slow-bot.timeouts");
+        long before = timeouts.get();
+        int money = play(1, pos -> {
+            StrategyPlayer p = new StrategyPlayer(pos, new SlowStrategy());
+            p.setTimeBudget(5);
+            return p;
+        });
+        //Every decision fell back to the greedy move
+        assertEquals(money, play(1, GreedyPlayer::new));
+        assertTrue(timeouts.get() > before);
+    }
+
+    @Test
+    public void oneDecisionAtOnce() {
+        //Decisions arrive every step, but a decision that overran must end before the strategy is asked again
+        StubbornStrategy stubborn = new StubbornStrategy();
+        Metrics.Counter timeouts = Metrics.counter("strategy.stubborn-bot.timeouts");
+        long before = timeouts.get();
+        //With a budget this short a decision may be given up before a thread starts it, so plays until one did
+        for (int seed = 4; stubborn.calls.get() == 0 && seed < 24; seed++) {
+            play(seed, pos -> {
+                StrategyPlayer p = new StrategyPlayer(pos, stubborn);
+                p.setTimeBudget(1);
+                return p;
+            });
+        }
+        assertEquals(stubborn.most.get(), 1);
+        assertTrue(timeouts.get() - before >= stubborn.calls.get());
+    }
+
+    @Test
+    public void notNeighbour() {
+        //A city that cannot be reached by a single road is replaced by the greedy move
+        Metrics.Counter errors = Metrics.counter("strategy.far-bot.errors");
+        long before = errors.get();
+        int money = play(5, pos -> new StrategyPlayer(pos, new GreedyStrategy() {
+            @Override
+            public String getName() {
+                return "Far Bot";
+            }
+
+            @Override
+            public int decide(WorldView view) {
+                for (int c = 0; c < view.getCityCount(); c++) {
+                    boolean neighbour = c == view.getCity();
+                    for (int r = 0; r < view.getRoadCount(view.getCity()); r++) {
+                        neighbour |= view.getRoadTo(view.getCity(), r) == c;
+                    }
+                    if (!neighbour) {
+                        return c;
+                    }
+                }
+                return -1;
+            }
+        }));
+        assertEquals(money, play(5, GreedyPlayer::new));
+        assertTrue(errors.get() > before);
+    }
+
+    @Test
+    public void overBudget() {
+        if (!StrategyPlayer.isAllocationMeasured()) {
+            return;
+        }
+        int money = play(2, pos -> {
+            StrategyPlayer p = new StrategyPlayer(pos, new WastefulStrategy());
+            p.setTimeBudget(0);
+            p.setAllocationBudget(1 << 20);
+            return p;
+        });
+        assertEquals(money, play(2, GreedyPlayer::new));
+    }
+
+    @Test
+    public void closedView() {
+        WorldView[] kept = new WorldView[1];
+        play(3, pos -> new StrategyPlayer(pos, new GreedyStrategy() {
+            @Override
+            public int decide(WorldView view) {
+                kept[0] = view;
+                return super.decide(view);
+            }
+        }));
+        try {
+            kept[0].getMoney();
+            fail("Expected the view to be closed");
+        } catch (IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void snapshot() {
+        //A view keeps the values it was made with, and its random numbers do not advance the game's generator
+        Game g = Generator.generateGame(5, network, settings, Collections.singletonList(GreedyPlayer::new));
+        City city = g.getCity(0);
+        long state = g.getRandomState();
+        WorldView view = new WorldView(g, city, 10), same = new WorldView(g, city, 10);
+        int value = city.getValue();
+        city.changeValue(7);
+        assertEquals(view.getValue(0), value);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(view.nextInt(1000), same.nextInt(1000));
+        }
+        assertEquals(g.getRandomState(), state);
+        view.close();
+        same.close();
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class TDigestTest {
+    private TDigest digest;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        digest = new TDigest();
+    }
+
+    @Test
+    public void empty() {
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        digest.add(42);
+        assertEquals(digest.quantile(0.5), 42, 0);
+    }
+
+    @Test
+    public void uniform() {
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            digest.add(random.nextDouble() * 1000);
+        }
+        //Checks the quantiles of a uniform distribution on [0,1000]
+        assertEquals(digest.quantile(0.5), 500, 10);
+        assertEquals(digest.quantile(0.01), 10, 2);
+        assertEquals(digest.quantile(0.99), 990, 2);
+    }
+
+    @Test
+    public void merge() {
+        TDigest other = new TDigest();
+        Random random = new Random(1);
+        for (int i = 0; i < 50000; i++) {
+            digest.add(random.nextDouble() * 1000);
+            other.add(1000 + random.nextDouble() * 1000);
+        }
+        digest.merge(other);
+        //Checks the quantiles of a uniform distribution on [0,2000]
+        assertEquals(digest.getCount(), 100000, 0);
+        assertEquals(digest.quantile(0.5), 1000, 20);
+        assertEquals(digest.quantile(0.9), 1800, 20);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
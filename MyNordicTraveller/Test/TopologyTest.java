@@ -0,0 +1,147 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version v1.0
+ */
+public class TopologyTest {
+    private Game game;
+    private Country country1, country2;
+    private City cityA, cityB, cityC, cityD, cityE;
+
+    /**
+     * Sets up the test fixture.
+     * <p>
+     * Called before every test case method.
+     */
+    @Before
+    public void setUp() {
+        game = new Game(0);
+        Map<City, List<Road>> network1 = new HashMap<>();
+        Map<City, List<Road>> network2 = new HashMap<>();
+
+        // Create countries
+        country1 = new Country("Topology 1", network1);
+        country2 = new Country("Topology 2", network2);
+        game.addCountry(country1);
+        game.addCountry(country2);
+
+        // Create Cities
+        cityA = new City("Topology A", 80, country1);
+        cityB = new City("Topology B", 60, country1);
+        cityC = new City("Topology C", 40, country1);
+        cityD = new City("Topology D", 100, country2);
+        cityE = new City("Topology E", 50, country2);
+        network1.put(cityA, new ArrayList<>());
+        network1.put(cityB, new ArrayList<>());
+        network1.put(cityC, new ArrayList<>());
+        network2.put(cityD, new ArrayList<>());
+        network2.put(cityE, new ArrayList<>());
+
+        // Create roads; E is not connected to anything
+        game.addRoads(cityA, cityB, 4);
+        game.addRoads(cityB, cityC, 3);
+        game.addRoads(cityA, cityC, 9);
+        game.addRoads(cityC, cityD, 2);
+    }
+
+    @Test
+    public void distances() {
+        Topology t = game.getTopology();
+        assertEquals(t.size(), 5);
+        //Checks the shortest routes, which may pass through other cities and countries
+        assertEquals(t.getDistance(cityA, cityA), 0);
+        assertEquals(t.getDistance(cityA, cityC), 7);
+        assertEquals(t.getDistance(cityC, cityA), 7);
+        assertEquals(t.getDistance(cityA, cityD), 9);
+        assertEquals(t.getDistance(cityA, cityE), Topology.INFINITY);
+        //Checks that indices map back to the cities of the game
+        for (int i = 0; i < t.size(); i++) {
+            assertEquals(t.indexOf(game.getCity(i)), i);
+        }
+    }
+
+    @Test
+    public void reachable() {
+        Topology t = game.getTopology();
+        assertTrue(t.isReachable(cityA, cityB, 4));
+        assertFalse(t.isReachable(cityA, cityB, 3));
+        assertEquals(new HashSet<>(t.getReachable(game, cityA, 7)), new HashSet<>(Arrays.asList(cityA, cityB, cityC)));
+        assertEquals(t.getReachable(cityA, 100).cardinality(), 4);
+        assertEquals(t.getReachable(cityE, 100).cardinality(), 1);
+    }
+
+    @Test
+    public void shared() {
+        //Checks that a second game on the same network reuses the topology
+        Topology t = game.getTopology();
+        assertSame(t, Topology.of(game));
+        Game other = new Game(1);
+        Map<City, List<Road>> network = new HashMap<>();
+        Country country = new Country("Topology 1", network);
+        other.addCountry(country);
+        City a = new City("Topology A", 80, country);
+        network.put(a, new ArrayList<>());
+        assertNotSame(t, other.getTopology());
+    }
+
+    @Test
+    public void bounded() {
+        //Checks that only the topologies of the most recently used networks are kept
+        Topology t = Topology.of(game);
+        for (int i = 0; i < Topology.CACHE_SIZE; i++) {
+            Game other = new Game(1);
+            Map<City, List<Road>> network = new HashMap<>();
+            Country country = new Country("Bounded " + i, network);
+            other.addCountry(country);
+            network.put(new City("Bounded " + i, 10, country), new ArrayList<>());
+            Topology.of(other);
+        }
+        assertNotSame(t, Topology.of(game));
+        assertSame(Topology.of(game), Topology.of(game));
+    }
+
+    @Test
+    public void concurrent() throws Exception {
+        //Checks that games starting together on a new network share a single build
+        Game other = new Game(1);
+        Map<City, List<Road>> network = new HashMap<>();
+        Country country = new Country("Concurrent", network);
+        other.addCountry(country);
+        network.put(new City("Concurrent " + System.nanoTime(), 10, country), new ArrayList<>());
+        long builds = Metrics.histogram("topology.build").snapshot().count;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Topology>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return Topology.of(other);
+            }));
+        }
+        start.countDown();
+        for (Future<Topology> f : results) {
+            assertSame(results.get(0).get(), f.get());
+        }
+        pool.shutdown();
+        assertEquals(Metrics.histogram("topology.build").snapshot().count, builds + 1);
+    }
+
+    /**
+     * Tears down the test fixture.
+     * <p>
+     * Called after every test case method.
+     */
+    @After
+    public void tearDown() {
+    }
+}
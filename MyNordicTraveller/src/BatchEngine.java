@@ -0,0 +1,441 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Simulates many games on the same network in lock-step, with all state in flat arrays instead of objects.
+ * City values are kept in one int[games * cities] and every player attribute in one int[games * players], and each
+ * step moves one player through all games before moving on to the next player, so the same code runs over
+ * consecutive memory for every game. Games are independent, so this gives exactly the same result as stepping each
+ * game on its own: the rules of City, BorderCity, CapitalCity and MafiaCountry are reproduced, including the order in
+ * which the random generator of each game (the same generator as GameRandom) is used.
+ * Game k with seed s ends exactly like Generator.generateGame(s, network, settings, lineUp) played to the end.
+ * Only players whose decisions are cheap are supported: greedy, random and idle (GUI) players.
+ * @version v1.0
+ */
+public class BatchEngine {
+
+    /** The kinds of players the batch engine can play (built in, unlike the pluggable Strategy of a StrategyPlayer) */
+    public enum Kind {
+        /** As GreedyPlayer */
+        GREEDY("Greedy Player", 1),
+        /** As RandomPlayer */
+        RANDOM("Random Player", 0),
+        /** As a Player without a GUI, which never moves */
+        IDLE("GUI Player", -1);
+
+        private final String name;
+        private final int setting;
+
+        Kind(String name, int setting) {
+            this.name = name;
+            this.setting = setting;
+        }
+
+        /**
+         * Returns the display name of players of this strategy.
+         *
+         * @return String
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the strategy with the given short name (greedy, random or gui), as used by Tournament.strategy.
+         *
+         * @param name //The short name
+         * @return Kind
+         * @throws IllegalArgumentException if the strategy is unknown or not supported by the batch engine
+         */
+        public static Kind of(String name) {
+            switch (name.trim().toLowerCase()) {
+                case "greedy":
+                    return GREEDY;
+                case "random":
+                    return RANDOM;
+                case "gui":
+                    return IDLE;
+                default:
+                    throw new IllegalArgumentException("The batch engine cannot play '" + name + "'.");
+            }
+        }
+    }
+
+    private static final long MULTIPLIER = 0x5DEECE66DL, ADDEND = 0xBL, MASK = (1L << 48) - 1;
+
+    /** The kinds of cities */
+    private static final byte CITY = 0, BORDER = 1, CAPITAL = 2;
+
+    private static final Metrics.Histogram STEP_TIME = Metrics.histogram("batch.step");
+    private static final Metrics.Counter GAMES = Metrics.counter("batch.games");
+
+    //The network
+    private final int cities, countries, totalTime;
+    private final int[] initialValue, country, rowStart, roadTo, roadLength, firstLength, countryStart, countryCities;
+    private final byte[] kind;
+    private final boolean[] mafia;
+
+    //The rules
+    private final int toll, risk, minLoss, maxLoss;
+
+    //The players, in the order they move (sorted by name, as Game does)
+    private final Kind[] lineUp, order;
+    private final boolean[] active;
+    private final int players;
+
+    //The state of all games
+    private int games, timeLeft;
+    private int[] seeds = new int[0];
+    private long[] random = new long[0];
+    private int[] values = new int[0];
+    private int[] from = new int[0], to = new int[0], distance = new int[0], money = new int[0],
+            robberies = new int[0], tolls = new int[0];
+
+    /**
+     * Creates a batch engine.
+     *
+     * @param network  //A game holding the network, whose cities have ids.
+     * @param settings //The settings of all games.
+     * @param lineUp   //The strategy of each player, in the order the players are added to a game.
+     */
+    public BatchEngine(Game network, Settings settings, List<Kind> lineUp) {
+        cities = network.getCityCount();
+        List<Country> countryList = network.getCountries();
+        countries = countryList.size();
+        totalTime = network.getTotalTimeLeft();
+        initialValue = new int[cities];
+        country = new int[cities];
+        kind = new byte[cities];
+        rowStart = new int[cities + 1];
+        mafia = new boolean[countries];
+        countryStart = new int[countries + 1];
+        countryCities = new int[cities];
+
+        int k = 0;
+        for (int c = 0; c < countries; c++) {
+            Country ct = countryList.get(c);
+            mafia[c] = ct instanceof MafiaCountry;
+            countryStart[c] = k;
+            for (City city : ct.getCities()) {
+                countryCities[k++] = city.getId();
+            }
+        }
+        countryStart[countries] = k;
+
+        List<Road> roads = new ArrayList<>();
+        for (int i = 0; i < cities; i++) {
+            City city = network.getCity(i);
+            initialValue[i] = city.getInitialValue();
+            country[i] = countryList.indexOf(city.getCountry());
+            kind[i] = city instanceof CapitalCity ? CAPITAL : city instanceof BorderCity ? BORDER : CITY;
+            rowStart[i] = roads.size();
+            roads.addAll(city.getCountry().getRoads(city));
+        }
+        rowStart[cities] = roads.size();
+        roadTo = new int[roads.size()];
+        roadLength = new int[roads.size()];
+        firstLength = new int[roads.size()];
+        for (int r = 0; r < roads.size(); r++) {
+            roadTo[r] = roads.get(r).getTo().getId();
+            roadLength[r] = roads.get(r).getLength();
+        }
+        //Travelling to a city takes the first road to it, as Country.getRoad does
+        for (int i = 0; i < cities; i++) {
+            for (int r = rowStart[i]; r < rowStart[i + 1]; r++) {
+                int first = r;
+                for (int q = rowStart[i]; q < r; q++) {
+                    if (roadTo[q] == roadTo[r]) {
+                        first = q;
+                        break;
+                    }
+                }
+                firstLength[r] = roadLength[first];
+            }
+        }
+
+        toll = settings.getTollToBePaid();
+        risk = settings.getRisk();
+        minLoss = settings.getMinRobbery();
+        maxLoss = settings.getMaxRobbery();
+
+        this.lineUp = lineUp.toArray(new Kind[0]);
+        players = this.lineUp.length;
+        List<Kind> sorted = new ArrayList<>(lineUp);
+        Collections.sort(sorted, Comparator.comparing(Kind::getName));
+        order = sorted.toArray(new Kind[0]);
+        active = new boolean[players];
+        for (int p = 0; p < players; p++) {
+            active[p] = order[p].setting < 0 || settings.isActive(order[p].setting);
+        }
+    }
+
+    /**
+     * Starts a new game for every seed, replacing the games being played.
+     *
+     * @param seeds //The seeds, one per game.
+     */
+    public void reset(int[] seeds) {
+        games = seeds.length;
+        this.seeds = seeds.clone();
+        timeLeft = totalTime;
+        if (random.length != games) {
+            random = new long[games];
+            values = new int[games * cities];
+            from = new int[games * players];
+            to = new int[games * players];
+            distance = new int[games * players];
+            money = new int[games * players];
+            robberies = new int[games * players];
+            tolls = new int[games * players];
+        }
+        for (int k = 0; k < games; k++) {
+            //As Generator: every player gets a starting position when it is added, then the game is reset
+            random[k] = (seeds[k] ^ MULTIPLIER) & MASK;
+            for (int p = 0; p < players; p++) {
+                startingCity(k);
+            }
+            random[k] = (nextInt(k, Integer.MAX_VALUE) ^ MULTIPLIER) & MASK;
+            System.arraycopy(initialValue, 0, values, k * cities, cities);
+            for (int p = 0; p < players; p++) {
+                int i = k * players + p;
+                from[i] = to[i] = startingCity(k);
+                distance[i] = money[i] = robberies[i] = tolls[i] = 0;
+            }
+        }
+        GAMES.add(games);
+    }
+
+    private int startingCity(int k) {
+        int c = nextInt(k, countries);
+        return countryCities[countryStart[c] + nextInt(k, countryStart[c + 1] - countryStart[c])];
+    }
+
+    /**
+     * Advances all games one step.
+     */
+    public void step() {
+        if (timeLeft == 0) {
+            return;
+        }
+        long start = Metrics.start();
+        for (int p = 0; p < players; p++) {
+            if (!active[p]) {
+                continue;
+            }
+            Kind s = order[p];
+            for (int k = 0, i = p; k < games; k++, i += players) {
+                if (distance[i] > 0 && --distance[i] == 0) {
+                    int m = money[i];
+                    money[i] = m + arrive(k, i);
+                }
+                if (distance[i] == 0) {
+                    if (s == Kind.GREEDY) {
+                        greedy(k, i);
+                    } else if (s == Kind.RANDOM) {
+                        randomRoad(k, i);
+                    }
+                }
+                if (money[i] < 0) {
+                    money[i] = 0;
+                }
+            }
+        }
+        timeLeft--;
+        STEP_TIME.recordSince(start);
+    }
+
+    /**
+     * Plays new games for all seeds to the end.
+     *
+     * @param seeds //The seeds, one per game.
+     * @return GameResult[] //The result of each game.
+     */
+    public GameResult[] run(int[] seeds) {
+        reset(seeds);
+        while (timeLeft > 0) {
+            step();
+        }
+        GameResult[] results = new GameResult[games];
+        for (int k = 0; k < games; k++) {
+            results[k] = getResult(k);
+        }
+        return results;
+    }
+
+    /**
+     * A player arrives in the city at the end of its road: the rules of City.arrive(Player) and its subclasses.
+     *
+     * @return The money the player gains (or loses).
+     */
+    private int arrive(int k, int i) {
+        int city = to[i];
+        if (kind[city] == CITY) {
+            return arriveCity(k, i, city);
+        }
+        int bonus;
+        if (country[from[i]] != country[city]) {
+            //BorderCity: toll on the money from before the arrival
+            int t = money[i] * toll / 100;
+            bonus = arriveCity(k, i, city) - t;
+            values[k * cities + city] += t;
+            tolls[i] += t;
+        } else {
+            bonus = arriveCity(k, i, city);
+        }
+        if (kind[city] == CAPITAL) {
+            int m = money[i] + bonus;
+            int desires = m < 0 ? 0 : nextInt(k, m + 1);
+            values[k * cities + city] += desires;
+            bonus -= desires;
+        }
+        return bonus;
+    }
+
+    /**
+     * The rules of City.arrive(Player), with the bonus of Country or MafiaCountry.
+     */
+    private int arriveCity(int k, int i, int city) {
+        int at = k * cities + city;
+        int v;
+        if (mafia[country[city]] && nextInt(k, 100) + 1 <= risk) {
+            v = -(minLoss + nextInt(k, maxLoss - minLoss + 1));
+            robberies[i]++;
+        } else {
+            v = values[at] > 0 ? nextInt(k, values[at] + 1) : 0;
+        }
+        if (v > 0) {
+            values[at] -= v;
+        }
+        return v;
+    }
+
+    /**
+     * As GreedyPlayer: travels to the neighbour with the highest positive value per step, the first one on ties.
+     */
+    private void greedy(int k, int i) {
+        int city = to[i], base = k * cities;
+        double best = 0;
+        int choice = -1;
+        for (int r = rowStart[city]; r < rowStart[city + 1]; r++) {
+            double v = values[base + roadTo[r]] / (double) roadLength[r];
+            if (v > best) {
+                best = v;
+                choice = r;
+            }
+        }
+        if (choice >= 0) {
+            travel(i, city, choice);
+        }
+    }
+
+    /**
+     * As RandomPlayer: travels along a random road.
+     */
+    private void randomRoad(int k, int i) {
+        int city = to[i];
+        travel(i, city, rowStart[city] + nextInt(k, rowStart[city + 1] - rowStart[city]));
+    }
+
+    /**
+     * As Player.travel: starts travelling along the first road to the destination of the given road.
+     */
+    private void travel(int i, int city, int road) {
+        from[i] = city;
+        if (roadTo[road] == city) {
+            to[i] = city;
+            distance[i] = 0;
+        } else {
+            to[i] = roadTo[road];
+            distance[i] = firstLength[road];
+        }
+    }
+
+    /**
+     * The next number of the generator of game k, as Random.nextInt(bound).
+     */
+    private int nextInt(int k, int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+        int r = next(k, 31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        for (int u = r; u - (r = u % bound) + m < 0; u = next(k, 31)) {
+        }
+        return r;
+    }
+
+    private int next(int k, int bits) {
+        long s = (random[k] * MULTIPLIER + ADDEND) & MASK;
+        random[k] = s;
+        return (int) (s >>> (48 - bits));
+    }
+
+    /**
+     * Returns the number of games being played.
+     *
+     * @return int
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of steps left, which is the same for all games.
+     *
+     * @return int
+     */
+    public int getStepsLeft() {
+        return timeLeft;
+    }
+
+    /**
+     * Returns the value of a city in a game.
+     *
+     * @param k    //The game.
+     * @param city //The id of the city.
+     * @return int
+     */
+    public int getValue(int k, int city) {
+        return values[k * cities + city];
+    }
+
+    /**
+     * Returns the money of a player in a game.
+     *
+     * @param k //The game.
+     * @param p //The player, in the order the players move (sorted by name).
+     * @return int
+     */
+    public int getMoney(int k, int p) {
+        return money[k * players + p];
+    }
+
+    /**
+     * Returns the standings of a game, as GameResult(seed, game) would for the same game.
+     *
+     * @param k //The game.
+     * @return GameResult
+     */
+    public GameResult getResult(int k) {
+        int n = 0;
+        for (int p = 0; p < players; p++) {
+            if (active[p]) {
+                n++;
+            }
+        }
+        String[] names = new String[n];
+        int[] m = new int[n];
+        for (int p = 0, j = 0; p < players; p++) {
+            if (active[p]) {
+                names[j] = order[p].getName();
+                m[j++] = money[k * players + p];
+            }
+        }
+        return new GameResult(seeds[k], names, m);
+    }
+}
@@ -0,0 +1,96 @@
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs many headless games in parallel.
+ * Only a bounded number of tasks is in flight at a time, and results are handed to a sink on the calling thread
+ * as soon as they complete, so nothing needs to be kept in memory and the sink needs no locking.
+ *
+ * @version v1.0
+ */
+public class BatchRunner {
+    /**
+     * The number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * Creates a runner with one worker thread per available core.
+     */
+    public BatchRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner with the given number of worker threads.
+     *
+     * @param threads //The number of worker threads
+     */
+    public BatchRunner(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Returns the number of worker threads.
+     *
+     * @return int
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Runs every task, passing each result to the sink in order of completion.
+     * At most two tasks per thread are queued at any time, so the tasks may be generated lazily.
+     *
+     * @param tasks //The tasks to run
+     * @param sink  //Receives the results, on the calling thread
+     * @param <T>   //The type of the results
+     * @throws InterruptedException If the calling thread is interrupted while waiting
+     * @throws ExecutionException   If a task throws an exception; the remaining tasks are cancelled
+     */
+    public <T> void run(Iterator<? extends Callable<T>> tasks, Consumer<? super T> sink)
+            throws InterruptedException, ExecutionException {
+        AtomicInteger count = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "batch-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<T> completion = new ExecutorCompletionService<>(pool);
+            int inFlight = 0;
+            while (inFlight > 0 || tasks.hasNext()) {
+                while (inFlight < 2 * threads && tasks.hasNext()) {
+                    completion.submit(tasks.next());
+                    inFlight++;
+                }
+                T result = completion.take().get();
+                inFlight--;
+                sink.accept(result);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Steps a game until it is no longer ongoing.
+     *
+     * @param game //The game to play
+     * @return The same game, now finished
+     */
+    public static Game play(Game game) {
+        while (game.ongoing()) {
+            game.step();
+        }
+        return game;
+    }
+}
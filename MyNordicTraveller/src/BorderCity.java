@@ -29,6 +29,7 @@ public class BorderCity extends City {
             int toll = p.getMoney() * getCountry().getGame().getSettings().getTollToBePaid() / 100;
             int bonus = super.arrive(p);
             changeValue(toll);
+            p.addToll(toll);
             return bonus - toll;
         }
         return super.arrive(p);
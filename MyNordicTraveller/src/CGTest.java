@@ -11,7 +11,7 @@ import java.util.*;
  * This class provides a test fixture to use for the 'Computer Game' project, dIntProg.
  * It creates a simple network of two countries and seven cities, which can be used for automated testing using JUnit.
  *
- * Alleviates the problem of creating a Map<City, List<Road>> yourself.
+ * Alleviates the problem of creating a Map<City, List<Road>> yourself, by letting a GameBuilder do it.
  *
  * Simply drag this file into your BlueJ-project. 
  * You can then right-click on this class and choose 'Test Fixture to Object Bench' to create the necessary test objects.
@@ -34,14 +34,11 @@ public class CGTest
     public void setUp() {
         game = new Game(0);
         game.getRandom().setSeed(0);
-        Map<City, List<Road>> network1 = new HashMap<>();
-        Map<City, List<Road>> network2 = new HashMap<>();
+        GameBuilder builder = new GameBuilder(game);
 
         // Create countries
-        country1 = new Country("Country 1", network1);
-        country2 = new Country("Country 2", network2);
-        country1.setGame(game);
-        country2.setGame(game);
+        country1 = builder.country("Country 1", false);
+        country2 = builder.country("Country 2", false);
 
         // Create Cities
         cityA = new City("City A", 80, country1);
@@ -51,37 +48,21 @@ public class CGTest
         cityE = new City("City E", 50, country2);
         cityF = new City("City F", 90, country2);
         cityG = new City("City G", 70, country2);
-
-        // Create road lists
-        List<Road> roadsA = new ArrayList<Road>(),
-        roadsB = new ArrayList<>(),
-        roadsC = new ArrayList<>(),
-        roadsD = new ArrayList<>(),
-        roadsE = new ArrayList<>(),
-        roadsF = new ArrayList<>(),
-        roadsG = new ArrayList<>();
-
-        network1.put(cityA, roadsA);
-        network1.put(cityB, roadsB);
-        network1.put(cityC, roadsC);
-        network1.put(cityD, roadsD);
-        network2.put(cityE, roadsE);
-        network2.put(cityF, roadsF);
-        network2.put(cityG, roadsG);
+        builder.addCity(cityA).addCity(cityB).addCity(cityC).addCity(cityD)
+               .addCity(cityE).addCity(cityF).addCity(cityG);
 
         // Create roads
-        country1.addRoads(cityA, cityB, 4);
-        country1.addRoads(cityA, cityC, 3);
-        country1.addRoads(cityA, cityD, 5);
-        country1.addRoads(cityB, cityD, 2);
-        country1.addRoads(cityC, cityD, 2);
-        country1.addRoads(cityC, cityE, 4);
-        country1.addRoads(cityD, cityF, 3);
-        country2.addRoads(cityE, cityC, 4);
-        country2.addRoads(cityE, cityF, 2);
-        country2.addRoads(cityE, cityG, 5);
-        country2.addRoads(cityF, cityD, 3);
-        country2.addRoads(cityF, cityG, 6);
+        builder.addRoads(cityA, cityB, 4);
+        builder.addRoads(cityA, cityC, 3);
+        builder.addRoads(cityA, cityD, 5);
+        builder.addRoads(cityB, cityD, 2);
+        builder.addRoads(cityC, cityD, 2);
+        builder.addRoads(cityC, cityE, 4);
+        builder.addRoads(cityD, cityF, 3);
+        builder.addRoads(cityE, cityF, 2);
+        builder.addRoads(cityE, cityG, 5);
+        builder.addRoads(cityF, cityG, 6);
+        builder.build();
     }
 
     /**
@@ -24,7 +24,8 @@ public class CapitalCity extends BorderCity {
     public int arrive(Player p){
             int bonus = super.arrive(p);
             int pMoney = p.getMoney() + bonus;
-            int desires = getCountry().getGame().getRandom().nextInt(pMoney+1);
+            //A player who was robbed of everything has no money to spend on desires
+            int desires = pMoney < 0 ? 0 : getCountry().getGame().getRandom().nextInt(pMoney+1);
             changeValue(desires);
             return bonus - desires;
     }
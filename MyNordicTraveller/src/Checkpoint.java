@@ -0,0 +1,261 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A compact binary snapshot of a running game, from which the game can be continued exactly.
+ * It holds the seed, the time left, whether the game was aborted, the state of the random generator, the settings,
+ * the value and visits of every city, and the money, statistics, position and pending position of every player.
+ * The network and the players themselves are not included: a checkpoint is restored into a game created the same
+ * way as the one it was captured from, which is checked through the network hash and the player names.
+ * The agents of a Crowd are not included either, so games with a crowd can neither be captured nor restored.
+ * Capturing only copies the state into a byte array, so it can be done between two steps without pausing the game;
+ * the bytes are written to disk by a background thread.
+ * <p>
+ * The format is (all numbers big-endian): the magic number "NTCP", the format version, the network hash, the seed,
+ * the total time, the time left, aborted (byte), the random state (long), the settings (short length + UTF-8 of
+ * Settings.toString()), the number of cities followed by the value and visits of each by id, and the number of
+ * players followed by, for each, its name (short length + UTF-8), money, robberies, toll paid, its position
+ * (from id, to id, distance, total) and a byte telling whether a pending position of the same form follows.
+ * @version v1.0
+ */
+public class Checkpoint {
+
+    /** The first four bytes of a checkpoint ("NTCP") */
+    static final int MAGIC = 0x4E544350;
+
+    /** The version of the format */
+    static final int VERSION = 1;
+
+    private static final Metrics.Histogram CAPTURE_TIME = Metrics.histogram("checkpoint.capture"),
+                                           RESTORE_TIME = Metrics.histogram("checkpoint.restore"),
+                                           WRITE_TIME = Metrics.histogram("checkpoint.write");
+
+    /** Writes checkpoints to disk, one at a time, in the order they were requested */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "checkpoint-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final byte[] data;
+
+    private Checkpoint(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Captures the state of a game. Must be called by the thread stepping the game, between two steps.
+     *
+     * @param g //The game.
+     * @return Checkpoint
+     * @throws CheckpointException if the game has a crowd
+     */
+    public static Checkpoint capture(Game g) {
+        if (g.getCrowd() != null) {
+            throw new CheckpointException("A game with a crowd cannot be captured.");
+        }
+        long start = Metrics.start();
+        byte[] settings = g.getSettings().toString().getBytes(StandardCharsets.UTF_8);
+        List<Player> players = g.getPlayers();
+        byte[][] names = new byte[players.size()][];
+        int n = g.getCityCount();
+        int size = 4 + 4 + 8 + 4 + 4 + 4 + 1 + 8 + 2 + settings.length + 4 + 8 * n + 4;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = players.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            size += 2 + names[i].length + 12 + 16 + 1 + (players.get(i).getPendingPosition() == null ? 0 : 16);
+        }
+
+        ByteBuffer b = ByteBuffer.allocate(size);
+        b.putInt(MAGIC).putInt(VERSION).putLong(g.getNetworkHash());
+        b.putInt(g.getSeed()).putInt(g.getTotalTimeLeft()).putInt(g.getStepsLeft());
+        b.put((byte) (g.isAborted() ? 1 : 0)).putLong(g.getRandomState());
+        b.putShort((short) settings.length).put(settings);
+        b.putInt(n);
+        for (int i = 0; i < n; i++) {
+            City c = g.getCity(i);
+            b.putInt(c.getValue()).putInt(c.getVisits());
+        }
+        b.putInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            Player p = players.get(i);
+            b.putShort((short) names[i].length).put(names[i]);
+            b.putInt(p.getMoney()).putInt(p.getRobberies()).putInt(p.getTollsPaid());
+            put(b, p.getPosition());
+            Position pending = p.getPendingPosition();
+            b.put((byte) (pending == null ? 0 : 1));
+            if (pending != null) {
+                put(b, pending);
+            }
+        }
+        CAPTURE_TIME.recordSince(start);
+        return new Checkpoint(b.array());
+    }
+
+    private static void put(ByteBuffer b, Position p) {
+        b.putInt(p.getFrom().getId()).putInt(p.getTo().getId()).putInt(p.getDistance()).putInt(p.getTotal());
+    }
+
+    private static Position position(ByteBuffer b, Game g) {
+        City from = city(g, b.getInt()), to = city(g, b.getInt());
+        Position p = new Position(from, to, 0);
+        p.set(from, to, b.getInt(), b.getInt());
+        return p;
+    }
+
+    private static City city(Game g, int id) {
+        if (id < 0 || id >= g.getCityCount()) {
+            throw new CheckpointException("No city has id " + id + ".");
+        }
+        return g.getCity(id);
+    }
+
+    /**
+     * Restores the state of a game, which must have the same network and players (by name, in the same order) as
+     * the game the checkpoint was captured from. Must be called by the thread stepping the game.
+     *
+     * @param g //The game.
+     * @throws CheckpointException if the checkpoint is invalid, or does not fit the game (or the game has a crowd)
+     */
+    public void restore(Game g) {
+        if (g.getCrowd() != null) {
+            throw new CheckpointException("A game with a crowd cannot be restored.");
+        }
+        long start = Metrics.start();
+        ByteBuffer b = ByteBuffer.wrap(data);
+        try {
+            if (b.getInt() != MAGIC) {
+                throw new CheckpointException("Not a checkpoint.");
+            }
+            if (b.getInt() != VERSION) {
+                throw new CheckpointException("Unsupported version of checkpoint.");
+            }
+            if (b.getLong() != g.getNetworkHash()) {
+                throw new CheckpointException("The checkpoint is of a game on another network.");
+            }
+            int seed = b.getInt(), totalTimeLeft = b.getInt(), timeLeft = b.getInt();
+            boolean aborted = b.get() != 0;
+            long randomState = b.getLong();
+            byte[] settings = new byte[b.getShort()];
+            b.get(settings);
+            Settings s = Settings.parse(new String(settings, StandardCharsets.UTF_8));
+            int n = b.getInt();
+            if (n != g.getCityCount()) {
+                throw new CheckpointException("The checkpoint has " + n + " cities, but the game has "
+                        + g.getCityCount() + ".");
+            }
+            int[] cities = new int[2 * n];
+            for (int i = 0; i < cities.length; i++) {
+                cities[i] = b.getInt();
+            }
+            List<Player> players = g.getPlayers();
+            int m = b.getInt();
+            if (m != players.size()) {
+                throw new CheckpointException("The checkpoint has " + m + " players, but the game has "
+                        + players.size() + ".");
+            }
+
+            //Read all players before changing anything, so an invalid checkpoint leaves the game untouched
+            int[][] stats = new int[m][];
+            Position[][] positions = new Position[m][];
+            for (int i = 0; i < m; i++) {
+                byte[] name = new byte[b.getShort()];
+                b.get(name);
+                if (!new String(name, StandardCharsets.UTF_8).equals(players.get(i).getName())) {
+                    throw new CheckpointException("Expected player " + i + " to be '"
+                            + new String(name, StandardCharsets.UTF_8) + "', but it is '"
+                            + players.get(i).getName() + "'.");
+                }
+                stats[i] = new int[]{b.getInt(), b.getInt(), b.getInt()};
+                Position pos = position(b, g);
+                positions[i] = new Position[]{pos, b.get() != 0 ? position(b, g) : null};
+            }
+
+            g.restore(seed, totalTimeLeft, timeLeft, aborted, randomState);
+            g.getSettings().set(s);
+            for (int i = 0; i < n; i++) {
+                g.getCity(i).restore(cities[2 * i], cities[2 * i + 1]);
+            }
+            for (int i = 0; i < m; i++) {
+                players.get(i).restore(stats[i][0], stats[i][1], stats[i][2], positions[i][0], positions[i][1]);
+            }
+            g.getCityChanges().flush();
+        } catch (BufferUnderflowException e) {
+            throw new CheckpointException("The checkpoint is truncated.");
+        } catch (SettingsException e) {
+            throw new CheckpointException("The checkpoint has invalid settings: " + e.getMessage());
+        }
+        RESTORE_TIME.recordSince(start);
+    }
+
+    /**
+     * Returns the encoded checkpoint.
+     *
+     * @return byte[] //A copy of the bytes.
+     */
+    public byte[] toBytes() {
+        return data.clone();
+    }
+
+    /**
+     * Reads a checkpoint from its encoded form. It is validated when it is restored.
+     *
+     * @param data //The bytes, as returned by toBytes().
+     * @return Checkpoint
+     */
+    public static Checkpoint fromBytes(byte[] data) {
+        return new Checkpoint(data.clone());
+    }
+
+    /**
+     * Returns the size of the encoded checkpoint.
+     *
+     * @return int //The size in bytes.
+     */
+    public int size() {
+        return data.length;
+    }
+
+    /**
+     * Writes the checkpoint to a file in the background. The file is replaced atomically, so it always holds a
+     * complete checkpoint.
+     *
+     * @param file //The file.
+     * @return CompletableFuture //Completes when the file has been written, or with the IOException if it failed.
+     */
+    public CompletableFuture<Path> writeAsync(Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = Metrics.start();
+            try {
+                Path dir = file.toAbsolutePath().getParent();
+                Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+                Files.write(tmp, data);
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            WRITE_TIME.recordSince(start);
+            return file;
+        }, WRITER);
+    }
+
+    /**
+     * Reads a checkpoint from a file.
+     *
+     * @param file //The file.
+     * @return Checkpoint
+     * @throws IOException if the file cannot be read
+     */
+    public static Checkpoint read(Path file) throws IOException {
+        return new Checkpoint(Files.readAllBytes(file));
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Thrown when a checkpoint is invalid, or does not fit the game it is restored into.
+ */
+class CheckpointException extends RuntimeException {
+
+    public CheckpointException(String string) {
+        super(string);
+    }
+
+    private static final long serialVersionUID = 6216030434185473108L;
+
+}
@@ -23,6 +23,18 @@ public class City implements Comparable<City> {
      * The country the City is in.
      */
     private Country country;
+    /**
+     * The number of times a player has arrived at the City since the last reset.
+     */
+    private int visits;
+    /**
+     * The index of the City among all cities of its game (ordered by name), or -1 until the game is loaded.
+     */
+    private int id = -1;
+    /**
+     * The hash code of the City, which never changes.
+     */
+    private final int hash;
 
     /**
      * This is the constructor which creates the City object.
@@ -36,7 +48,26 @@ public class City implements Comparable<City> {
         this.value = value;
         this.initialValue = value;
         this.country = country;
+        this.hash = Objects.hash(name, country);
+    }
+
+    /**
+     * Returns the index of the city among all cities of its game, ordered by name, or -1 if the game is not loaded yet.
+     * Ids are dense, so they can be used to index arrays.
+     *
+     * @return int
+     */
+    public int getId() {
+        return id;
+    }
 
+    /**
+     * Sets the index of the city, when its game is loaded.
+     *
+     * @param id //The index of the city
+     */
+    void setId(int id) {
+        this.id = id;
     }
 
     /**
@@ -57,20 +88,67 @@ public class City implements Comparable<City> {
         return value;
     }
 
+    /**
+     * Returns the value the city had when it was created, and gets back to when reset.
+     *
+     * @return int
+     */
+    public int getInitialValue() {
+        return initialValue;
+    }
+
     /**
      * Adds the amount to the value of the city.
      *
      * @param amount The amount to be added.
      */
     public void changeValue(int amount) {
+        int old = value;
         this.value += amount;
+        changed(old);
     }
 
     /**
      * This resets the value of the city back to the initial value.
      */
     public void reset() {
+        int old = value;
         this.value = initialValue;
+        this.visits = 0;
+        changed(old);
+    }
+
+    /**
+     * Restores the value and the number of visits of the city, as recorded by a Checkpoint.
+     *
+     * @param value  //The value.
+     * @param visits //The number of visits.
+     */
+    void restore(int value, int visits) {
+        int old = this.value;
+        this.value = value;
+        this.visits = visits;
+        changed(old);
+    }
+
+    /**
+     * Tells the game that the value of the city has changed, so anything derived from it can be updated.
+     *
+     * @param old //The value before the change.
+     */
+    private void changed(int old) {
+        if (country != null && country.getGame() != null) {
+            country.getGame().cityChanged(this, old);
+        }
+    }
+
+    /**
+     * Returns the number of times a player has arrived at the city since the last reset.
+     *
+     * @return int
+     */
+    public int getVisits() {
+        return visits;
     }
 
     /**
@@ -99,9 +177,16 @@ public class City implements Comparable<City> {
      * @return int
      */
     public int arrive() {
-        int v = country.bonus(value);
+        return collect(country.bonus(value));
+    }
+
+    /**
+     * Reduces the value of the city by a bonus, if it is positive, and then returns the bonus.
+     */
+    private int collect(int v) {
         if (v > 0) {
             value -= v;
+            changed(value + v);
             return v;
         } else {
             return v;
@@ -115,27 +200,30 @@ public class City implements Comparable<City> {
      * @return int
      */
     public int arrive(Player p) {
-        return arrive();
+        visits++;
+        //A robbery is counted by the country, as a robbery of 0 gives the same bonus as an empty city
+        return collect(country.bonus(value, p));
     }
 
     /**
      * Looks to see if the city objects are the same.
      *
-     * @param city //The city that you are comparing
+     * @param otherObject //The city that you are comparing
      * @return boolean
      */
-    public boolean equals(City city) {
-        if (this == city) {
+    @Override
+    public boolean equals(Object otherObject) {
+        if (this == otherObject) {
             return true;
         }
-        if (city == null) {
+        if (otherObject == null) {
             return false;
         }
-        if (getClass() != city.getClass()) {
+        if (getClass() != otherObject.getClass()) {
             return false;
         }
-        City other = (City) city;
-        return name.equals(city.getName()) && country.equals(city.getCountry());
+        City other = (City) otherObject;
+        return hash == other.hash && name.equals(other.name) && Objects.equals(country, other.country);
     }
 
     /**
@@ -143,7 +231,8 @@ public class City implements Comparable<City> {
      *
      * @return int
      */
+    @Override
     public int hashCode() {
-        return Objects.hash(this.name, this.country);
+        return hash;
     }
 }
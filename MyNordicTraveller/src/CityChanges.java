@@ -0,0 +1,210 @@
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps track of which cities of a game have changed value.
+ * Every city has a version, which increases each time its value changes, so a cache can tell whether a city has
+ * changed since it last looked by comparing versions. Cities that changed since the last flush are also marked in a
+ * dirty bitset, and listeners are told about all of them at once when the game flushes, once per step.
+ * Recording a change does not allocate. Cities are identified by their id in the game (see Game.getCity(int)), so
+ * the Topology of the game is not needed.
+ * When the network of the game changes the tracking follows it, keeping its listeners: the versions are carried over
+ * by city, and as indices may have moved, every city then counts as changed.
+ * @version v1.0
+ */
+public class CityChanges {
+
+    /**
+     * Is told about the cities that changed value during a step.
+     */
+    public interface Listener {
+        /**
+         * Is called once per step in which at least one city changed value.
+         *
+         * @param changes //The changes, whose dirty cities are those that changed since the last call.
+         */
+        void citiesChanged(CityChanges changes);
+    }
+
+    private final Game game;
+    //The cities by id when the versions were last laid out
+    private City[] cities;
+    private long[] versions;
+    private long[] dirty;
+    private boolean anyDirty, stale;
+    private final List<Listener> listeners = new ArrayList<Listener>();
+
+    /**
+     * Creates the change tracking of a game. All versions start at 0.
+     *
+     * @param game //The game, whose countries and roads are complete.
+     */
+    public CityChanges(Game game) {
+        this.game = game;
+        cities = cities();
+        versions = new long[cities.length];
+        dirty = new long[(cities.length + 63) / 64];
+    }
+
+    /**
+     * Is called by the game when a country or road is added. The ids are only looked up again when the tracking is
+     * next used, once the network is complete.
+     */
+    void networkChanged() {
+        stale = true;
+    }
+
+    private City[] cities() {
+        City[] c = new City[game.getCityCount()];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = game.getCity(i);
+        }
+        return c;
+    }
+
+    /**
+     * Moves the versions to the current ids of the cities, and marks every city dirty.
+     */
+    private void sync() {
+        if (!stale) {
+            return;
+        }
+        stale = false;
+        Map<City, Integer> old = new IdentityHashMap<City, Integer>();
+        for (int i = 0; i < cities.length; i++) {
+            old.put(cities[i], i);
+        }
+        cities = cities();
+        long[] v = new long[cities.length];
+        for (int i = 0; i < v.length; i++) {
+            Integer j = old.get(cities[i]);
+            v[i] = (j == null ? 0 : versions[j]) + 1;
+        }
+        versions = v;
+        dirty = new long[(v.length + 63) / 64];
+        for (int i = 0; i < v.length; i++) {
+            dirty[i >>> 6] |= 1L << i;
+        }
+        anyDirty = v.length > 0;
+    }
+
+    /**
+     * Records that the value of a city has changed.
+     *
+     * @param city //The city.
+     */
+    public void changed(City city) {
+        sync();
+        int i = game.indexOf(city);
+        if (i < 0) {
+            return;
+        }
+        versions[i]++;
+        dirty[i >>> 6] |= 1L << i;
+        anyDirty = true;
+    }
+
+    /**
+     * Returns the version of a city, which increases every time its value changes.
+     *
+     * @param index //The index of the city.
+     * @return long
+     */
+    public long getVersion(int index) {
+        sync();
+        return versions[index];
+    }
+
+    /**
+     * Returns the version of a city, which increases every time its value changes.
+     *
+     * @param city //The city.
+     * @return long
+     */
+    public long getVersion(City city) {
+        sync();
+        return versions[game.indexOf(city)];
+    }
+
+    /**
+     * Determines whether a city has changed since the last flush.
+     *
+     * @param index //The index of the city.
+     * @return boolean
+     */
+    public boolean isDirty(int index) {
+        sync();
+        return (dirty[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the index of the first city from a given index which has changed since the last flush,
+     * or -1 if there is none. Iterate with: for(int i = nextDirty(0); i >= 0; i = nextDirty(i + 1))
+     *
+     * @param from //The index to start from.
+     * @return int
+     */
+    public int nextDirty(int from) {
+        sync();
+        int w = from >>> 6;
+        if (w >= dirty.length) {
+            return -1;
+        }
+        long bits = dirty[w] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return w * 64 + Long.numberOfTrailingZeros(bits);
+            }
+            if (++w == dirty.length) {
+                return -1;
+            }
+            bits = dirty[w];
+        }
+    }
+
+    /**
+     * Tells all listeners about the cities that changed since the last flush, if any, and clears the dirty bitset.
+     */
+    public void flush() {
+        sync();
+        if (!anyDirty) {
+            return;
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).citiesChanged(this);
+        }
+        for (int w = 0; w < dirty.length; w++) {
+            dirty[w] = 0;
+        }
+        anyDirty = false;
+    }
+
+    /**
+     * Adds a listener, which is told about changes from the next flush on.
+     *
+     * @param l //The listener.
+     */
+    public void addListener(Listener l) {
+        listeners.add(l);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param l //The listener.
+     */
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * Returns the game whose cities are tracked.
+     *
+     * @return Game
+     */
+    public Game getGame() {
+        return game;
+    }
+}
@@ -0,0 +1,362 @@
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A network in a compiled binary format, which is loaded by mapping the file into memory instead of parsing text.
+ * The file consists of (all numbers big-endian):
+ *  * A header: the magic number "NTNW", the format version, the number of strings, countries, cities and roads, and a
+ *    64-bit FNV-1a hash of the four counts followed by everything after the header.
+ *  * A string table: the end offset of every string, followed by the UTF-8 bytes of all strings.
+ *  * Country records: name (string index) and kind (0 = normal, 1 = mafia), ordered by name.
+ *  * City records: name, kind (0 = city, 1 = capital, 2 = border), country index, value, x and y, ordered by name,
+ *    so the record index is the id of the city.
+ *  * Roads in compressed sparse row form: for every city the index of its first road (plus one final entry), followed
+ *    by the destination and length of every road, in the order the game holds them.
+ * One CompiledNetwork can be shared by any number of threads, each loading its own games from it.
+ * @version v1.0
+ */
+public class CompiledNetwork {
+
+    /** The first four bytes of a compiled network ("NTNW") */
+    static final int MAGIC = 0x4E544E57;
+
+    /** The version of the format */
+    static final int VERSION = 2;
+
+    /** The size of the header, in bytes */
+    private static final int HEADER = 4 * 6 + 8;
+
+    /** Time spent loading games from compiled networks */
+    private static final Metrics.Histogram LOAD_TIME = Metrics.histogram("network.load");
+
+    private final ByteBuffer buffer;
+    private final int strings, countries, cities, roads;
+    private final long hash;
+
+    /** Offsets of the sections within the buffer */
+    private final int stringEnds, stringData, countryData, cityData, rowData, roadData;
+
+    /** The decoded string table, which is small and used by every load */
+    private final String[] table;
+
+    /**
+     * Reads a compiled network from a buffer, checking its header and content hash.
+     *
+     * @param buffer //The bytes of the compiled network.
+     * @throws NetworkParseException if the buffer is not a valid compiled network
+     */
+    public CompiledNetwork(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+        if (buffer.remaining() < HEADER || buffer.getInt(0) != MAGIC) {
+            throw new NetworkParseException("Not a compiled network.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new NetworkParseException("Unsupported version of compiled network: " + buffer.getInt(4) + ".");
+        }
+        strings = buffer.getInt(8);
+        countries = buffer.getInt(12);
+        cities = buffer.getInt(16);
+        roads = buffer.getInt(20);
+        hash = buffer.getLong(24);
+        if (strings < 0 || countries < 0 || cities < 0 || roads < 0) {
+            throw new NetworkParseException("The compiled network has a negative count.");
+        }
+        if (hash(buffer) != hash) {
+            throw new NetworkParseException("The compiled network is corrupt (content hash mismatch).");
+        }
+        //The sections are laid out in longs, so huge counts cannot overflow into a size that happens to fit
+        stringEnds = HEADER;
+        if (stringEnds + 4L * strings > buffer.limit()) {
+            throw new NetworkParseException("The compiled network has the wrong size.");
+        }
+        stringData = stringEnds + 4 * strings;
+        int stringBytes = strings == 0 ? 0 : buffer.getInt(stringData - 4);
+        if (stringBytes < 0 || stringData + (long) stringBytes + 8L * countries + 24L * cities + 4L * (cities + 1)
+                + 8L * roads != buffer.limit()) {
+            throw new NetworkParseException("The compiled network has the wrong size.");
+        }
+        countryData = stringData + stringBytes;
+        cityData = countryData + 8 * countries;
+        rowData = cityData + 24 * cities;
+        roadData = rowData + 4 * (cities + 1);
+        table = new String[strings];
+        byte[] bytes = new byte[stringBytes];
+        ByteBuffer b = buffer.duplicate();
+        b.position(stringData);
+        b.get(bytes);
+        int start = 0;
+        for (int i = 0; i < strings; i++) {
+            int end = buffer.getInt(stringEnds + 4 * i);
+            if (end < start || end > stringBytes) {
+                throw new NetworkParseException("The string table of the compiled network is malformed.");
+            }
+            table[i] = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            start = end;
+        }
+    }
+
+    /**
+     * Maps a compiled network file into memory.
+     *
+     * @param file //The compiled network file.
+     * @return CompiledNetwork
+     * @throws IOException if the file cannot be read
+     */
+    public static CompiledNetwork open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CompiledNetwork(map);
+        }
+    }
+
+    /**
+     * Compiles the lines of a text network file.
+     *
+     * @param data //The lines of the network file, as read by Generator.readNetwork.
+     * @return ByteBuffer //The compiled network, ready to be written.
+     */
+    public static ByteBuffer compile(String[] data) {
+        Game g = new Game(0, new Settings());
+        Generator.loadNetwork(g, data);
+        return compile(g);
+    }
+
+    /**
+     * Compiles the network of a game.
+     *
+     * @param g //The game, whose network is complete.
+     * @return ByteBuffer //The compiled network, ready to be written.
+     */
+    public static ByteBuffer compile(Game g) {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<Country> countryList = g.getCountries();
+        int n = g.getCityCount();
+        int roadCount = 0;
+        for (Country country : countryList) {
+            intern(strings, country.getName());
+        }
+        for (int i = 0; i < n; i++) {
+            City c = g.getCity(i);
+            intern(strings, c.getName());
+            roadCount += c.getCountry().getRoads(c).size();
+        }
+        byte[][] encoded = new byte[strings.size()][];
+        int stringBytes = 0, k = 0;
+        for (String s : strings.keySet()) {
+            encoded[k] = s.getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[k++].length;
+        }
+
+        int size = HEADER + 4 * strings.size() + stringBytes + 8 * countryList.size() + 24 * n + 4 * (n + 1)
+                + 8 * roadCount;
+        ByteBuffer b = ByteBuffer.allocate(size);
+        b.putInt(MAGIC).putInt(VERSION).putInt(strings.size()).putInt(countryList.size()).putInt(n).putInt(roadCount);
+        b.putLong(0);
+        int end = 0;
+        for (byte[] e : encoded) {
+            end += e.length;
+            b.putInt(end);
+        }
+        for (byte[] e : encoded) {
+            b.put(e);
+        }
+        for (Country country : countryList) {
+            b.putInt(strings.get(country.getName())).putInt(country instanceof MafiaCountry ? 1 : 0);
+        }
+        for (int i = 0; i < n; i++) {
+            City c = g.getCity(i);
+            Point p = g.getPosition(c);
+            b.putInt(strings.get(c.getName()));
+            b.putInt(c instanceof CapitalCity ? 1 : c instanceof BorderCity ? 2 : 0);
+            b.putInt(c.getCountry().getId());
+            b.putInt(c.getInitialValue());
+            b.putInt(p == null ? 0 : p.x).putInt(p == null ? 0 : p.y);
+        }
+        int row = 0;
+        for (int i = 0; i < n; i++) {
+            b.putInt(row);
+            row += g.getCity(i).getCountry().getRoads(g.getCity(i)).size();
+        }
+        b.putInt(row);
+        for (int i = 0; i < n; i++) {
+            City c = g.getCity(i);
+            for (Road r : c.getCountry().getRoads(c)) {
+                b.putInt(r.getTo().getId()).putInt(r.getLength());
+            }
+        }
+        b.putLong(24, hash(b));
+        b.flip();
+        return b;
+    }
+
+    private static void intern(Map<String, Integer> strings, String s) {
+        strings.putIfAbsent(s, strings.size());
+    }
+
+    /**
+     * Compiles a text network file, and writes the result to another file.
+     *
+     * @param source //The text network file.
+     * @param target //The compiled network file to write.
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void compile(Path source, Path target) throws IOException {
+        String[] data = Generator.readNetwork(source.toString());
+        if (data == null) {
+            throw new IOException("Cannot read '" + source + "'.");
+        }
+        ByteBuffer b = compile(data);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (b.hasRemaining()) {
+                channel.write(b);
+            }
+        }
+    }
+
+    /**
+     * Loads the network into a game, which must not have any countries yet.
+     * The game ends up exactly as if the text network had been loaded into it.
+     *
+     * @param g //The game.
+     * @throws NetworkParseException if the network refers to a string, country, city or road that does not exist
+     */
+    public void load(Game g) {
+        long start = Metrics.start();
+        List<Country> countryList = new ArrayList<>(countries);
+        List<Map<City, List<Road>>> networks = new ArrayList<>(countries);
+        for (int i = 0; i < countries; i++) {
+            Map<City, List<Road>> network = new HashMap<>();
+            String name = table[index(countryData + 8 * i, strings, "string")];
+            countryList.add(buffer.getInt(countryData + 8 * i + 4) == 1 ? new MafiaCountry(name, network)
+                    : new Country(name, network));
+            networks.add(network);
+        }
+        City[] cityArray = new City[cities];
+        int[] cityCountry = new int[cities];
+        for (int i = 0; i < cities; i++) {
+            int at = cityData + 24 * i;
+            String name = table[index(at, strings, "string")];
+            cityCountry[i] = index(at + 8, countries, "country");
+            Country country = countryList.get(cityCountry[i]);
+            int value = buffer.getInt(at + 12);
+            switch (buffer.getInt(at + 4)) {
+                case 1:
+                    cityArray[i] = new CapitalCity(name, value, country);
+                    break;
+                case 2:
+                    cityArray[i] = new BorderCity(name, value, country);
+                    break;
+                default:
+                    cityArray[i] = new City(name, value, country);
+            }
+            g.putPosition(cityArray[i], new Point(buffer.getInt(at + 16), buffer.getInt(at + 20)));
+        }
+        for (int i = 0; i < cities; i++) {
+            int first = buffer.getInt(rowData + 4 * i), last = buffer.getInt(rowData + 4 * i + 4);
+            if (first < 0 || first > last || last > roads) {
+                throw new NetworkParseException("The compiled network has malformed roads for city " + i + ".");
+            }
+            List<Road> list = new ArrayList<>(last - first);
+            for (int r = first; r < last; r++) {
+                list.add(new Road(cityArray[i], cityArray[index(roadData + 8 * r, cities, "city")],
+                        buffer.getInt(roadData + 8 * r + 4)));
+            }
+            networks.get(cityCountry[i]).put(cityArray[i], list);
+        }
+        g.addCountries(countryList);
+        g.indexCities();
+        LOAD_TIME.recordSince(start);
+    }
+
+    /**
+     * Reads an index from the buffer, and checks that it refers to one of 'bound' strings, countries or cities.
+     */
+    private int index(int at, int bound, String what) {
+        int i = buffer.getInt(at);
+        if (i < 0 || i >= bound) {
+            throw new NetworkParseException("The compiled network refers to " + what + " " + i
+                    + ", which does not exist.");
+        }
+        return i;
+    }
+
+    /**
+     * Returns the 64-bit content hash stored in the header.
+     *
+     * @return long
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the number of cities.
+     *
+     * @return int
+     */
+    public int getCityCount() {
+        return cities;
+    }
+
+    /**
+     * Returns the number of (one-way) roads.
+     *
+     * @return int
+     */
+    public int getRoadCount() {
+        return roads;
+    }
+
+    /**
+     * Computes the content hash of a compiled network: the FNV-1a hash of the counts in the header, followed by
+     * everything after the header up to the limit of the buffer.
+     *
+     * @param b //The compiled network.
+     * @return long
+     */
+    static long hash(ByteBuffer b) {
+        return hash(b, HEADER, b.limit(), hash(b, 8, 24, 0xcbf29ce484222325L));
+    }
+
+    /**
+     * Continues an FNV-1a hash over a range of a buffer.
+     */
+    private static long hash(ByteBuffer b, int from, int to, long h) {
+        for (int i = from; i < to; i++) {
+            h ^= b.get(i) & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Compiles 'network.dat' (or the file given as first argument) to 'network.bin' (or the second argument).
+     *
+     * @param args //The source and target files (optional).
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path source = Paths.get(args.length > 0 ? args[0] : "network.dat");
+        Path target = Paths.get(args.length > 1 ? args[1] : "network.bin");
+        long start = System.nanoTime();
+        compile(source, target);
+        CompiledNetwork network = open(target);
+        System.out.printf("Compiled %s to %s: %d cities, %d roads, %d bytes, hash %016x (%.1f ms)%n", source, target,
+                network.getCityCount(), network.getRoadCount(), Files.size(target), network.getHash(),
+                (System.nanoTime() - start) / 1e6);
+    }
+}
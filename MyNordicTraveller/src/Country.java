@@ -19,6 +19,18 @@ public class Country {
      * The game that the country is connected to.
      */
     private Game game;
+    /**
+     * The roads from every city, by the city they lead to (built when needed).
+     */
+    private Map<City, RoadIndex> roadIndex;
+    /**
+     * The index of the country among the countries of its game, or -1 until the game is loaded.
+     */
+    private int id = -1;
+    /**
+     * The hash code of the country, which never changes.
+     */
+    private final int hash;
 
     /**
      * Creates a country object.
@@ -29,6 +41,26 @@ public class Country {
     public Country(String name, Map<City, List<Road>> network) {
         this.name = name;
         this.network = network;
+        this.hash = Objects.hash(name);
+    }
+
+    /**
+     * Returns the index of the country among the countries of its game, ordered by name,
+     * or -1 if the game is not loaded yet.
+     *
+     * @return int
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the index of the country, when its game is loaded.
+     *
+     * @param id //The index of the country
+     */
+    void setId(int id) {
+        this.id = id;
     }
 
     /**
@@ -110,6 +142,17 @@ public class Country {
         return 0;
     }
 
+    /**
+     * Returns the bonus of a player arriving in a city, and tells the player if it was robbed (even of nothing).
+     *
+     * @param value //The value of the city
+     * @param p     //The player arriving, or null
+     * @return int
+     */
+    int bonus(int value, Player p) {
+        return bonus(value);
+    }
+
     /**
      * Creates a road from two cities if they are in the same country, with a given length.
      * If none of the cities are in the country nothing will be done.
@@ -125,6 +168,14 @@ public class Country {
         if (network.containsKey(b)) {
             network.get(b).add(new Road(b, a, length));
         }
+        roadsChanged();
+    }
+
+    /**
+     * Forgets the index of the roads, after roads have been added or reordered.
+     */
+    void roadsChanged() {
+        roadIndex = null;
     }
 
     /**
@@ -147,19 +198,61 @@ public class Country {
      * @return Position
      */
     public Position readyToTravel(City from, City to) {
-        if (from.equals(to)) {
-            return position(from);
+        Position p = position(from);
+        readyToTravel(p, from, to);
+        return p;
+    }
+
+    /**
+     * Does the same as readyToTravel(from, to), but moves an existing position instead of creating a new one.
+     *
+     * @param p    //The position to move
+     * @param from //The city you're traveling from
+     * @param to   //The city you're traveling to
+     */
+    public void readyToTravel(Position p, City from, City to) {
+        int length = from.equals(to) ? -1 : getRoadLength(from, to);
+        if (length < 0) {
+            p.set(from, from, 0);
+        } else {
+            p.set(from, to, length);
         }
+    }
 
-        List<Road> roadFrom = getRoads(from);
+    /**
+     * Returns the length of the first road from one city to another, or -1 if there is no such road.
+     *
+     * @param from //The city the road starts in
+     * @param to   //The city the road leads to
+     * @return int
+     */
+    public int getRoadLength(City from, City to) {
+        Road r = getRoad(from, to);
+        return r == null ? -1 : r.getLength();
+    }
 
-        for (Road r : roadFrom
-                ) {
-            if (r.getTo().equals(to)) {
-                return new Position(from, to, r.getLength());
+    /**
+     * Returns the first road from one city to another, or null if there is no such road.
+     * Takes constant time, as the roads of every city are indexed by the city they lead to.
+     *
+     * @param from //The city the road starts in
+     * @param to   //The city the road leads to
+     * @return Road
+     */
+    public Road getRoad(City from, City to) {
+        if (roadIndex == null) {
+            roadIndex = new HashMap<>();
+        }
+        RoadIndex index = roadIndex.get(from);
+        if (index == null) {
+            List<Road> roads = network.get(from);
+            if (roads == null) {
+                return null;
             }
+            index = new RoadIndex(roads);
+            roadIndex.put(from, index);
         }
-        return position(from);
+        return index.get(to);
     }
 
     /**
@@ -186,6 +279,7 @@ public class Country {
      * @param otherObject // The country that you want to test.
      * @return boolean
      */
+    @Override
     public boolean equals(Object otherObject) {
         if (this == otherObject) {
             return true;
@@ -197,7 +291,7 @@ public class Country {
             return false;
         }
         Country other = (Country) otherObject;
-        return name.equals(other.getName());
+        return hash == other.hash && name.equals(other.getName());
     }
 
     /**
@@ -205,7 +299,49 @@ public class Country {
      *
      * @return int
      */
+    @Override
     public int hashCode() {
-        return Objects.hash(this.name);
+        return hash;
+    }
+
+    /**
+     * The roads from a single city in a small open-addressed table, keyed by the city they lead to.
+     * If there are several roads to the same city, the first one is kept.
+     */
+    private static class RoadIndex {
+        private final City[] keys;
+        private final Road[] roads;
+        private final int mask;
+
+        private RoadIndex(List<Road> list) {
+            int capacity = Integer.highestOneBit(Math.max(list.size(), 1) * 2 - 1) << 1;
+            keys = new City[capacity];
+            roads = new Road[capacity];
+            mask = capacity - 1;
+            for (Road r : list) {
+                int i = slot(r.getTo());
+                while (keys[i] != null && !keys[i].equals(r.getTo())) {
+                    i = (i + 1) & mask;
+                }
+                if (keys[i] == null) {
+                    keys[i] = r.getTo();
+                    roads[i] = r;
+                }
+            }
+        }
+
+        private int slot(City c) {
+            int h = c.hashCode();
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private Road get(City to) {
+            for (int i = slot(to); keys[i] != null; i = (i + 1) & mask) {
+                if (keys[i].equals(to)) {
+                    return roads[i];
+                }
+            }
+            return null;
+        }
     }
 }
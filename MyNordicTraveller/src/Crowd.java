@@ -0,0 +1,442 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A large population of AI travellers sharing the cities of one game, to study how crowds drain their values.
+ * The agents are not Player objects: the state of agent i is kept in flat arrays indexed by i, so a crowd of
+ * 10^4 or more agents takes a few hundred kilobytes. Every agent is scheduled on the step it will arrive in, in a
+ * timing wheel with a slot per step up to the longest road, so a step only touches the agents arriving in it and the
+ * agents on the road cost nothing.
+ * On arrival the city is entered with the same rules as for a Player (through one reused Player, which is given the
+ * state of the agent), so tolls, robberies and capital desires work as usual, and the agent then chooses where to go
+ * as a RandomPlayer, GreedyPlayer or SmartPlayer would. Smart agents arriving in the same city on the same step
+ * share one search, made with the money of the first of them, as a full search per agent would not scale. The shared
+ * searches deepen iteratively until the search budget runs out, and an agent whose search did not complete a single
+ * step makes the greedy move instead.
+ * The crowd is stepped and reset by the game it is attached to (see Game.setCrowd), after its players. Kinds of agents
+ * deactivated in the Settings wait in the next city they arrive in: they are parked there, costing nothing per step,
+ * until the Settings change and their kind is active again.
+ * @version v1.0
+ */
+public class Crowd {
+
+    /** The kinds of agents, which are also their categories in Settings.isActive(int) */
+    public static final int RANDOM = 0, GREEDY = 1, SMART = 2;
+
+    /** The names of the kinds of agents */
+    private static final String[] NAMES = {"Random", "Greedy", "Smart"};
+
+    private static final Metrics.Histogram STEP_TIME = Metrics.histogram("crowd.step");
+    private static final Metrics.Counter ARRIVALS = Metrics.counter("crowd.arrivals");
+    private static final Metrics.Counter TIMEOUTS = Metrics.counter("crowd.timeouts");
+
+    /** The default wall-clock time allowed per shared search (in ms) */
+    public static final long DEFAULT_SEARCH_BUDGET = 5;
+
+    private final Game game;
+    private final City[] cities;
+    private final int[] population;
+
+    //The state of every agent
+    private final int size;
+    private final byte[] kind;
+    private final int[] from, to, money, robberies, tolls;
+
+    //The number of agents heading for, or waiting in, every city
+    private final int[] density;
+
+    //The agents arriving in each of the next steps, by step modulo the number of slots
+    private final int[][] due;
+    private final int[] dueCount;
+    private int tick;
+
+    //The agents waiting for their kind to be active again, by kind, and the version of the settings last checked
+    private final int[][] parked = new int[NAMES.length][16];
+    private final int[] parkedCount = new int[NAMES.length];
+    private int settingsVersion;
+
+    //Enters cities on behalf of the agents
+    private final Player cursor;
+
+    //The destination chosen by the smart agents in every city, and the step it was chosen in
+    private final City[] plan;
+    private final int[] planTick;
+    private long searchBudget = DEFAULT_SEARCH_BUDGET;
+
+    /**
+     * Creates a crowd on the network of a game, with every agent in a random city.
+     *
+     * @param game     //The game, which must have its network loaded.
+     * @param randoms  //The number of random agents.
+     * @param greedies //The number of greedy agents.
+     * @param smarts   //The number of smart agents.
+     */
+    public Crowd(Game game, int randoms, int greedies, int smarts) {
+        if (randoms < 0 || greedies < 0 || smarts < 0) {
+            throw new IllegalArgumentException("Populations must not be negative.");
+        }
+        this.game = game;
+        cities = new City[game.getCityCount()];
+        int longest = 1;
+        for (int c = 0; c < cities.length; c++) {
+            cities[c] = game.getCity(c);
+            for (Road r : cities[c].getCountry().getRoads(cities[c])) {
+                longest = Math.max(longest, r.getLength());
+            }
+        }
+        population = new int[]{randoms, greedies, smarts};
+        size = randoms + greedies + smarts;
+        kind = new byte[size];
+        for (int i = 0; i < size; i++) {
+            kind[i] = (byte) (i < randoms ? RANDOM : i < randoms + greedies ? GREEDY : SMART);
+        }
+        from = new int[size];
+        to = new int[size];
+        money = new int[size];
+        robberies = new int[size];
+        tolls = new int[size];
+        density = new int[cities.length];
+        due = new int[longest + 1][16];
+        dueCount = new int[longest + 1];
+        cursor = new Player(new Position(cities[0], cities[0], 0));
+        plan = new City[cities.length];
+        planTick = new int[cities.length];
+        reset();
+    }
+
+    /**
+     * Puts every agent in a random city with no money, as Game.reset does for its players.
+     */
+    public void reset() {
+        tick = 0;
+        Arrays.fill(dueCount, 0);
+        Arrays.fill(parkedCount, 0);
+        settingsVersion = game.getSettings().getVersion();
+        Arrays.fill(density, 0);
+        Arrays.fill(planTick, -1);
+        for (int i = 0; i < size; i++) {
+            int c = game.getRandomStartingPosition().getTo().getId();
+            from[i] = c;
+            to[i] = c;
+            money[i] = 0;
+            robberies[i] = 0;
+            tolls[i] = 0;
+            density[c]++;
+            schedule(i, 0);
+        }
+    }
+
+    private void schedule(int i, int at) {
+        int slot = at % due.length;
+        if (dueCount[slot] == due[slot].length) {
+            due[slot] = Arrays.copyOf(due[slot], 2 * dueCount[slot]);
+        }
+        due[slot][dueCount[slot]++] = i;
+    }
+
+    private void park(int i) {
+        int k = kind[i];
+        if (parkedCount[k] == parked[k].length) {
+            parked[k] = Arrays.copyOf(parked[k], 2 * parkedCount[k]);
+        }
+        parked[k][parkedCount[k]++] = i;
+    }
+
+    /**
+     * Schedules the parked agents of the kinds that are active again on the current step.
+     */
+    private void unpark() {
+        Settings settings = game.getSettings();
+        if (settingsVersion == settings.getVersion()) {
+            return;
+        }
+        settingsVersion = settings.getVersion();
+        for (int k = 0; k < NAMES.length; k++) {
+            if (settings.isActive(k)) {
+                for (int j = 0; j < parkedCount[k]; j++) {
+                    schedule(parked[k][j], tick);
+                }
+                parkedCount[k] = 0;
+            }
+        }
+    }
+
+    /**
+     * Advances every agent one step: agents arriving in a city collect its bonus and choose where to go next.
+     * Is called by the game, before its steps left are counted down.
+     */
+    public void step() {
+        long start = Metrics.start();
+        unpark();
+        int slot = tick % due.length;
+        int[] arriving = due[slot];
+        int n = dueCount[slot];
+        //Agents are only ever scheduled on later steps, which have other slots
+        for (int j = 0; j < n; j++) {
+            int i = arriving[j];
+            if (!game.getSettings().isActive(kind[i])) {
+                park(i);
+                continue;
+            }
+            City city = cities[to[i]];
+            if (from[i] != to[i]) {
+                arrive(i, city);
+            }
+            from[i] = to[i];
+            City next = choose(i, city);
+            int length = next == null ? -1 : city.getCountry().getRoadLength(city, next);
+            if (length <= 0) {
+                //No road, so the agent stays and chooses again on the next step
+                schedule(i, tick + 1);
+            } else {
+                density[to[i]]--;
+                to[i] = next.getId();
+                density[to[i]]++;
+                schedule(i, tick + length);
+            }
+        }
+        dueCount[slot] = 0;
+        tick++;
+        ARRIVALS.add(n);
+        STEP_TIME.recordSince(start);
+    }
+
+    /**
+     * Enters a city with the rules for players, and keeps the money of the agent from becoming negative.
+     */
+    private void arrive(int i, City city) {
+        Position pos = cursor.getPosition();
+        pos.set(cities[from[i]], city, 0, 1);
+        cursor.restore(money[i], robberies[i], tolls[i], pos, null);
+        int m = money[i] + city.arrive(cursor);
+        money[i] = m < 0 ? 0 : m;
+        robberies[i] = cursor.getRobberies();
+        tolls[i] = cursor.getTollsPaid();
+    }
+
+    /**
+     * Chooses where an agent goes from the city it is in.
+     *
+     * @return City //The destination, or null to stay.
+     */
+    private City choose(int i, City city) {
+        switch (kind[i]) {
+            case RANDOM:
+                List<Road> roads = city.getCountry().getRoads(city);
+                return roads.get(game.getRandom().nextInt(roads.size())).getTo();
+            case GREEDY:
+                return game.getNeighbourIndex().getBest(city);
+            default:
+                int c = city.getId();
+                if (planTick[c] != tick) {
+                    SmartSearch search = new SmartSearch(money[i]);
+                    Path best = search.search(city, game.getStepsLeft(), System.nanoTime() + searchBudget * 1000000);
+                    if (search.isTimedOut()) {
+                        TIMEOUTS.increment();
+                    }
+                    if (search.isTimedOut() && search.getDepth() == 0) {
+                        plan[c] = game.getNeighbourIndex().getBest(city);
+                    } else {
+                        plan[c] = best.isEmpty() ? null : best.getRoad().getTo();
+                    }
+                    planTick[c] = tick;
+                }
+                return plan[c];
+        }
+    }
+
+    /**
+     * Returns the wall-clock time allowed per shared search of the smart agents.
+     *
+     * @return long //The budget, in ms.
+     */
+    public long getSearchBudget() {
+        return searchBudget;
+    }
+
+    /**
+     * Sets the wall-clock time allowed per shared search of the smart agents. Searches that run out of it follow the
+     * deepest search they completed, so the moves of smart agents then depend on the speed of the machine.
+     *
+     * @param searchBudget //The budget, in ms, which must be positive.
+     */
+    public void setSearchBudget(long searchBudget) {
+        if (searchBudget <= 0) {
+            throw new IllegalArgumentException("The search budget must be positive: " + searchBudget);
+        }
+        this.searchBudget = searchBudget;
+    }
+
+    /**
+     * Returns a hash of the state of every agent, to detect when two runs of the same crowd diverge.
+     *
+     * @return long
+     */
+    long hash() {
+        long h = TranspositionTable.mix(tick);
+        for (int i = 0; i < size; i++) {
+            long t = TranspositionTable.mix((long) i << 32 ^ money[i]);
+            h ^= TranspositionTable.mix(t ^ ((long) from[i] << 32 | to[i]));
+        }
+        return h;
+    }
+
+    /**
+     * Returns the number of agents.
+     *
+     * @return int
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of agents of a kind.
+     *
+     * @param kind //RANDOM, GREEDY or SMART.
+     * @return int
+     */
+    public int getPopulation(int kind) {
+        return population[kind];
+    }
+
+    /**
+     * Returns the name of a kind of agents.
+     *
+     * @param kind //RANDOM, GREEDY or SMART.
+     * @return String
+     */
+    public static String getName(int kind) {
+        return NAMES[kind];
+    }
+
+    /**
+     * Returns the kind of an agent.
+     *
+     * @param i //The agent.
+     * @return int //RANDOM, GREEDY or SMART.
+     */
+    public int getKind(int i) {
+        return kind[i];
+    }
+
+    /**
+     * Returns the money of an agent.
+     *
+     * @param i //The agent.
+     * @return int
+     */
+    public int getMoney(int i) {
+        return money[i];
+    }
+
+    /**
+     * Returns how many times an agent has been robbed.
+     *
+     * @param i //The agent.
+     * @return int
+     */
+    public int getRobberies(int i) {
+        return robberies[i];
+    }
+
+    /**
+     * Returns how much toll an agent has paid.
+     *
+     * @param i //The agent.
+     * @return int
+     */
+    public int getTollsPaid(int i) {
+        return tolls[i];
+    }
+
+    /**
+     * Returns the city an agent is heading for, or waiting in.
+     *
+     * @param i //The agent.
+     * @return City
+     */
+    public City getDestination(int i) {
+        return cities[to[i]];
+    }
+
+    /**
+     * Returns the number of agents heading for, or waiting in, a city.
+     *
+     * @param c //The city.
+     * @return int
+     */
+    public int getDensity(City c) {
+        return density[c.getId()];
+    }
+
+    /**
+     * Returns the largest number of agents heading for, or waiting in, any one city.
+     *
+     * @return int
+     */
+    public int getMaxDensity() {
+        int max = 0;
+        for (int d : density) {
+            max = Math.max(max, d);
+        }
+        return max;
+    }
+
+    /**
+     * Returns statistics of the money of the agents of a kind.
+     *
+     * @param kind //RANDOM, GREEDY or SMART.
+     * @return RunningStats
+     */
+    public RunningStats getStats(int kind) {
+        RunningStats stats = new RunningStats();
+        for (int i = 0; i < size; i++) {
+            if (this.kind[i] == kind) {
+                stats.add(money[i]);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the agents with the most money, richest first (the lowest index first on ties).
+     *
+     * @param n //The number of agents.
+     * @return int[] //The agents, at most n.
+     */
+    public int[] getLeaders(int n) {
+        int[] leaders = new int[Math.min(n, size)];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            //Insert into the sorted leaders, if the agent is richer than the last of them
+            int j = count < leaders.length ? count++ : leaders.length;
+            while (j > 0 && money[leaders[j - 1]] < money[i]) {
+                if (j < leaders.length) {
+                    leaders[j] = leaders[j - 1];
+                }
+                j--;
+            }
+            if (j < leaders.length) {
+                leaders[j] = i;
+            }
+        }
+        return leaders;
+    }
+
+    /**
+     * Returns one line per kind of agents present, with statistics of their money.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < NAMES.length; k++) {
+            if (population[k] > 0) {
+                sb.append(NAMES[k]).append('\t').append(getStats(k)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,13 @@
 public class Driver {
     public static void main(String[] args) {
-        GUI g = new GUI();
-        GUI.createGameBoard();
+        //A crowd of random, greedy and smart agents can be given as three numbers
+        if(args.length == 3){
+            int[] population = new int[3];
+            for(int i=0; i<3; i++)
+                population[i] = Integer.parseInt(args[i]);
+            GUI.createGameBoard(population);
+        } else {
+            GUI.createGameBoard();
+        }
     }
 }
@@ -14,6 +14,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A GUI written in Java Swing which wraps around a Game instance.
@@ -64,25 +65,34 @@ public class GUI {
     private boolean paused = false;
     
     /** Reference to the City which is currently under the mouse */
-    public static City hover;
+    private City hover;
     
     /** The current game speed (0 = stop, 1 = slow, .. ) */
-    public static int speed = 2;
+    private int speed = 2;
     
     /**
      * Constructor for the GUI class.
-     * Creates a Game instance autonomously.
+     * Creates a Game instance autonomously, and loads the map before returning.
      */
     public GUI(){
-        //Initialize Game
-        game = Generator.generateGame((int)(Math.random()*Integer.MAX_VALUE), "network.dat");
+        this(Generator.generateGame((int)(Math.random()*Integer.MAX_VALUE), "network.dat"));
+        panel.setMap(loadMap());
+    }
+    
+    /**
+     * Creates a GUI for a game, whose map is set later on.
+     * Must be invoked on the event dispatch thread.
+     * @param game The game to show.
+     */
+    private GUI(Game game){
+        this.game = game;
         
         //Initialize buttons
         buttons = createButtonPanel();      
         options = createOptionsDialogBox();
         
         //Initialize ActorPanel
-        panel = new WorldPanel(game, WIDTH, HEIGHT);
+        panel = new WorldPanel(this, game, WIDTH, HEIGHT);
         panel.setPreferredSize(new Dimension(WIDTH, HEIGHT));
         
         //Handle mouse click events in the inner window
@@ -147,6 +157,23 @@ public class GUI {
             
         });
         
+        //Toggle the metrics overlay with 'M', and export the metrics with 'E'
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_M, 0), "toggleMetrics");
+        panel.getActionMap().put("toggleMetrics", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                panel.setMetricsOverlay(!panel.isMetricsOverlay());
+                mainFrame.repaint();
+            }
+        });
+        panel.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_E, 0), "exportMetrics");
+        panel.getActionMap().put("exportMetrics", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                exportMetrics();
+            }
+        });
+        
         //Initialize file chooser
         fileChooser = new JFileChooser();
         FileNameExtensionFilter filter = new FileNameExtensionFilter("Log files", "log");
@@ -203,6 +230,22 @@ public class GUI {
         
     }
     
+    /**
+     * Gets the City which is currently under the mouse.
+     * @return The city, or null if the mouse is not over a city.
+     */
+    public City getHover(){
+        return hover;
+    }
+    
+    /**
+     * Gets the current game speed.
+     * @return The speed (0 = stop, 1 = slow, .. ).
+     */
+    public int getSpeed(){
+        return speed;
+    }
+    
     /**
      * Changes the game speed
      * @param speed The new speed of the game. 0 <= speed <= 4
@@ -509,6 +552,19 @@ public class GUI {
         return frame;
     }
     
+    /**
+     * Exports the current metrics to 'metrics.csv' and 'metrics.json' in the working directory.
+     */
+    private void exportMetrics(){
+        try{
+            Metrics.exportCsv("metrics.csv");
+            Metrics.exportJson("metrics.json");
+            JOptionPane.showMessageDialog(mainFrame, "Metrics exported to 'metrics.csv' and 'metrics.json'.", "Information", JOptionPane.INFORMATION_MESSAGE);
+        } catch(IOException e){
+            JOptionPane.showMessageDialog(mainFrame, "Unable to export metrics: "+e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
     /**
      * Tests the Save button.
      * This method is invoked when testing the functionality of the Save button.
@@ -538,10 +594,46 @@ public class GUI {
         mainFrame.repaint();
     }
     
+    /**
+     * Reads 'map.png', and converts it to the image type of the screen, so it is drawn without conversion in every
+     * frame.
+     * @return The map, or null if it could not be read.
+     */
+    private static BufferedImage loadMap(){
+        try {
+            BufferedImage img = ImageIO.read(new File("map.png"));
+            if(img == null || GraphicsEnvironment.isHeadless())
+                return img;
+            GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            if(img.getColorModel().equals(gc.getColorModel(img.getTransparency())))
+                return img;
+            BufferedImage compatible = gc.createCompatibleImage(img.getWidth(), img.getHeight(), img.getTransparency());
+            Graphics2D g = compatible.createGraphics();
+            g.drawImage(img, 0, 0, null);
+            g.dispose();
+            return compatible;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
     /**
      * Starts the game.
+     * The network and the map are loaded in parallel behind a progress window. The main window is built as soon as
+     * the network is loaded, and the map is filled in when it has been decoded. The time until the first frame is
+     * painted is recorded as 'gui.startup', which the metrics overlay shows.
      */
     public static void createGameBoard() {
+        createGameBoard(null);
+    }
+    
+    /**
+     * Starts the game with a crowd of AI agents travelling alongside the players, whose density is shown as a heat
+     * overlay on the map.
+     * @param population The number of random, greedy and smart agents, or null for no crowd.
+     */
+    public static void createGameBoard(int[] population) {
         if(!Files.exists(Paths.get("network.dat"))){
             JOptionPane.showMessageDialog(null, "'network.dat' does not exist in the current project. Game closing.", "Unable to start NordicTraveller", JOptionPane.ERROR_MESSAGE);
             return;
@@ -550,7 +642,46 @@ public class GUI {
             JOptionPane.showMessageDialog(null, "'map.png' does not exist in the current project. Game closing.", "Unable to start NordicTraveller", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        new GUI().startGUI();
+        long started = System.nanoTime();
+        
+        //Show the progress window, then load the network and the map in the background
+        JWindow splash = new JWindow();
+        JProgressBar progress = new JProgressBar(0, 2);
+        progress.setStringPainted(true);
+        progress.setString("Loading network and map...");
+        progress.setBorder(new EmptyBorder(10, 10, 10, 10));
+        SwingUtilities.invokeLater(() -> {
+            splash.add(progress);
+            splash.setSize(300, 60);
+            splash.setLocationRelativeTo(null);
+            splash.setVisible(true);
+        });
+        int seed = (int)(Math.random()*Integer.MAX_VALUE);
+        CompletableFuture<Game> game = CompletableFuture.supplyAsync(() -> {
+            Game g = Generator.generateGame(seed, "network.dat");
+            if(population != null)
+                g.setCrowd(new Crowd(g, population[0], population[1], population[2]));
+            return g;
+        });
+        CompletableFuture<BufferedImage> map = CompletableFuture.supplyAsync(GUI::loadMap);
+        map.thenRun(() -> SwingUtilities.invokeLater(() -> progress.setValue(progress.getValue()+1)));
+        
+        game.whenComplete((g, error) -> SwingUtilities.invokeLater(() -> {
+            if(error != null){
+                splash.dispose();
+                JOptionPane.showMessageDialog(null, "'network.dat' could not be loaded: "+error.getCause().getMessage(), "Unable to start NordicTraveller", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            progress.setValue(progress.getValue()+1);
+            GUI gui = new GUI(g);
+            gui.panel.reportFirstFrame(started);
+            map.thenAccept(img -> SwingUtilities.invokeLater(() -> {
+                gui.panel.setMap(img);
+                gui.panel.repaint();
+            }));
+            gui.startGUI();
+            splash.dispose();
+        }));
     }
 
 }
@@ -578,27 +709,72 @@ class WorldPanel extends JPanel {
                               FONT_HEADER = new Font("SansSerif", Font.BOLD, 16),
                               FONT_SC     = new Font("SansSerif", Font.BOLD, 10);
     
+    private final static Color COLOR_OVERLAY = new Color(255, 255, 255, 200);
+    
+    /** The colour of the heat overlay where the crowd is densest, and its largest radius */
+    private final static Color COLOR_HEAT = new Color(255, 40, 0);
+    private final static int HEAT_RADIUS = 28;
+    
+    private final static Metrics.Histogram PAINT_TIME = Metrics.histogram("gui.paint"),
+                                           STARTUP_TIME = Metrics.histogram("gui.startup");
+    
     private final static Stroke STROKE_DEFAULT = new BasicStroke(0.9f,BasicStroke.CAP_ROUND,BasicStroke.JOIN_ROUND),
                                 STROKE_THICK   = new BasicStroke(1.1f,BasicStroke.CAP_ROUND,BasicStroke.JOIN_ROUND);
     
     private int width, height;
+    private GUI gui;
     private Game game;
     
     private BufferedImage img;
     
-    public WorldPanel(Game game, int width, int height){
+    /** Whether or not to draw the metrics on top of the map */
+    private boolean metricsOverlay;
+    
+    /** When the GUI started loading (in nanoseconds), until the first frame has been painted, otherwise 0 */
+    private long startedAt;
+    
+    public WorldPanel(GUI gui, Game game, int width, int height){
+        this.gui = gui;
         this.game = game;
         this.width = width;
         this.height = height;
-        try {
-            this.img = ImageIO.read(new File("map.png"));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    }
+    
+    /**
+     * Sets the background map. Until it is set, only the background color is drawn.
+     * @param img The map, or null.
+     */
+    public void setMap(BufferedImage img){
+        this.img = img;
+    }
+    
+    /**
+     * Records the time from the given moment until the first frame is painted, as shown in the metrics overlay.
+     * @param startedAt When loading started, from System.nanoTime().
+     */
+    public void reportFirstFrame(long startedAt){
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * Determines whether or not the metrics overlay is shown.
+     * @return True if the metrics are drawn on top of the map.
+     */
+    public boolean isMetricsOverlay(){
+        return metricsOverlay;
+    }
+    
+    /**
+     * Shows or hides the metrics overlay.
+     * @param metricsOverlay Whether or not to draw the metrics on top of the map.
+     */
+    public void setMetricsOverlay(boolean metricsOverlay){
+        this.metricsOverlay = metricsOverlay;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long start = Metrics.start();
         //Clear the screen
         super.paintComponent(g);
         
@@ -613,7 +789,8 @@ class WorldPanel extends JPanel {
         g2d.fillRect(0, 0, width, height);
         
         //Draw map
-        g2d.drawImage(img, 0, 0, null);
+        if(img != null)
+            g2d.drawImage(img, 0, 0, null);
 
         //Time bar
         //Draw text
@@ -653,6 +830,27 @@ class WorldPanel extends JPanel {
             g2d.drawRect(15, y, 130, 10);
         }
         
+        //Crowd leaderboard, by kind of agents
+        Crowd crowd = game.getCrowd();
+        if(crowd != null){
+            for(int k=Crowd.RANDOM; k<=Crowd.SMART; k++){
+                if(crowd.getPopulation(k) == 0 || !game.getSettings().isActive(k))
+                    continue;
+                RunningStats stats = crowd.getStats(k);
+                int y = 75+33*i++;
+                g2d.setColor(COLOR_TEXT);
+                g2d.setFont(FONT_BODY);
+                g2d.drawString(Crowd.getName(k)+" x"+crowd.getPopulation(k)+":", 15, y-5);
+                g2d.drawString(String.format("%.0f €", stats.getMean()), 150, y+10);
+                g2d.setColor(COLOR_BAR_BACKGROUND);
+                g2d.fillRect(15, y, 130, 10);
+                g2d.setColor(COLOR_HEAT);
+                g2d.fillRect(15, y, (int)(130 * stats.getMean() / 1400.0), 10);
+                g2d.setColor(COLOR_BAR_OUTLINE);
+                g2d.drawRect(15, y, 130, 10);
+            }
+        }
+        
         //Speed
         g2d.setFont(FONT_HEADER);
         g2d.drawString("Game speed", 280, 580);
@@ -660,7 +858,7 @@ class WorldPanel extends JPanel {
         g2d.fillRect(280, 590, 160, 20);
 
         g2d.setColor(COLOR_BAR_SPEED_FILL);
-        g2d.fillRect(280+(GUI.speed-1)*39, 590, 39+(GUI.speed==4?6:0), 20);
+        g2d.fillRect(280+(gui.getSpeed()-1)*39, 590, 39+(gui.getSpeed()==4?6:0), 20);
         
         g2d.setColor(COLOR_BAR_OUTLINE);
         g2d.drawRect(280, 590, 160, 20);
@@ -674,16 +872,17 @@ class WorldPanel extends JPanel {
         g2d.drawString("SONIC", 403, 605);
         
         //City info
-        if(GUI.hover != null){
+        City hover = gui.getHover();
+        if(hover != null){
             g2d.setFont(FONT_SC);
-            if(GUI.hover.getClass() == CapitalCity.class)
-                g2d.drawString("Capital of "+GUI.hover.getCountry().getName().toUpperCase(), 350, 470);
+            if(hover.getClass() == CapitalCity.class)
+                g2d.drawString("Capital of "+hover.getCountry().getName().toUpperCase(), 350, 470);
             else
-                g2d.drawString(GUI.hover.getCountry().getName().toUpperCase(), 350, 470);
+                g2d.drawString(hover.getCountry().getName().toUpperCase(), 350, 470);
             g2d.setFont(FONT_BODY);
-            g2d.drawString(GUI.hover.getValue()+" €", 350, 486);
+            g2d.drawString(hover.getValue()+" €", 350, 486);
             g2d.setFont(FONT_HEADER);
-            g2d.drawString(GUI.hover.getName(), 350, 458);
+            g2d.drawString(hover.getName(), 350, 458);
         }
         g2d.setStroke(STROKE_THICK);
         for(Country country : game.getCountries()){
@@ -695,6 +894,10 @@ class WorldPanel extends JPanel {
             }
         }
 
+        //Draw the density of the crowd under the cities, instead of every agent
+        if(crowd != null)
+            drawHeat(g2d, crowd);
+
         for(Country country : game.getCountries()){
             //Then draw all cities
             for(City city : country.getCities()){
@@ -707,6 +910,25 @@ class WorldPanel extends JPanel {
         for(Player player : game.getPlayers()){
             drawPlayer(g2d, player, true);
         }
+        
+        if(metricsOverlay)
+            drawMetrics(g2d);
+        PAINT_TIME.recordSince(start);
+        if(startedAt != 0){
+            STARTUP_TIME.recordSince(startedAt);
+            startedAt = 0;
+        }
+    }
+    
+    private void drawMetrics(Graphics2D g2d){
+        List<String> lines = Metrics.summary();
+        int x = 250, y = 10, h = 14*lines.size()+10;
+        g2d.setColor(COLOR_OVERLAY);
+        g2d.fillRect(x, y, width-x-10, h);
+        g2d.setColor(COLOR_TEXT);
+        g2d.setFont(FONT_SC);
+        for(int i=0; i<lines.size(); i++)
+            g2d.drawString(lines.get(i), x+5, y+18+14*i);
     }
         
     private Point getPosition(City c){
@@ -728,13 +950,7 @@ class WorldPanel extends JPanel {
     }
     
     private boolean isEnabled(Player p){
-        if(p.getClass() == RandomPlayer.class)
-            return game.getSettings().isActive(0);
-        if(p.getClass() == GreedyPlayer.class)
-            return game.getSettings().isActive(1);
-        if(p.getClass() == SmartPlayer.class)
-            return game.getSettings().isActive(2);
-        return true;
+        return game.isActive(p);
     }
     
     private void drawPlayer(Graphics2D g2d, Player p, boolean ai){
@@ -755,6 +971,26 @@ class WorldPanel extends JPanel {
         g2d.draw(shape);
     }
     
+    private void drawHeat(Graphics2D g2d, Crowd crowd){
+        int max = crowd.getMaxDensity();
+        if(max == 0)
+            return;
+        Color clear = new Color(COLOR_HEAT.getRed(), COLOR_HEAT.getGreen(), COLOR_HEAT.getBlue(), 0);
+        for(Country country : game.getCountries()){
+            for(City city : country.getCities()){
+                int density = crowd.getDensity(city);
+                if(density == 0)
+                    continue;
+                double f = Math.sqrt(density / (double)max);
+                Point pos = getPosition(city);
+                float radius = (float)(MIN_CIRCLE_RADIUS + f * HEAT_RADIUS);
+                Color hot = new Color(COLOR_HEAT.getRed(), COLOR_HEAT.getGreen(), COLOR_HEAT.getBlue(), (int)(60 + 160 * f));
+                g2d.setPaint(new RadialGradientPaint(pos, radius, new float[]{0f, 1f}, new Color[]{hot, clear}));
+                g2d.fillOval((int)(pos.x - radius), (int)(pos.y - radius), (int)(2*radius), (int)(2*radius));
+            }
+        }
+    }
+    
     private void drawRoadDot(Graphics2D g2d, Road r, int i){
         Point from = getPosition(r.getFrom()),
               to = getPosition(r.getTo());
@@ -800,7 +1036,7 @@ class WorldPanel extends JPanel {
     private void drawCity(Graphics2D g2d, City c){
         Point pos = getPosition(c);
         int radius = MIN_CIRCLE_RADIUS;
-        if(c.equals(GUI.hover))
+        if(c.equals(gui.getHover()))
             radius=radius + 2;
         
         if(c.getClass() == CapitalCity.class){
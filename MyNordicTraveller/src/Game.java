@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * A Game object is an instance of NordicTraveller.
@@ -24,14 +25,14 @@ public class Game {
 	/** Set of all countries in the game */
 	private List<Country> countries;
 	
-	/** List of all players */
-	private List<Player>  players;
+	/** List of all players, in the order they move */
+	private PlayerScheduler players;
 	
 	/** Reference to the GUI Player */
 	private Player guiPlayer;
 	
-	/** The random generator */
-	private Random random;
+	/** The random generator, whose state can be checkpointed */
+	private GameRandom random;
 	
 	/** Whether or not to log this game */
 	private boolean logging;
@@ -51,6 +52,34 @@ public class Game {
     /** Whether or not this Game is forcefully aborted */
     private boolean aborted=false;
     
+    /** Hash of the countries, cities and roads of this Game (0 until computed) */
+    private long networkHash;
+    
+    /** Shortest distances of the network (null until computed), and the cities by their index in it */
+    private Topology topology;
+    private City[] cityIndex;
+    
+    /** The best neighbour of every city (null until needed) */
+    private NeighbourIndex neighbours;
+    
+    /** The cities that changed value, and their versions (null until needed) */
+    private CityChanges changes;
+    
+    /** The incremental hash of the state (null until needed) */
+    private StateHash stateHash;
+    
+    /** The sum of the values of all cities, kept up to date once computed (Long.MIN_VALUE until needed) */
+    private long totalValue = Long.MIN_VALUE;
+    
+    /** The crowd of agents travelling alongside the players (null if there is none) */
+    private Crowd crowd;
+    
+    /** Time spent per call to step() */
+    private static final Metrics.Histogram STEP_TIME = Metrics.histogram("game.step");
+    
+    /** Number of steps taken across all games */
+    private static final Metrics.Counter STEPS = Metrics.counter("game.steps");
+    
     /**
      * Instantiates a new Game object with a random seed.
      */
@@ -63,26 +92,43 @@ public class Game {
      * @param seed
      */
 	public Game(int seed){
+		this(seed, loadSettings());
+	}
+	
+	/**
+	 * Instantiates a new Game object with a given seed and Settings object.
+	 * Does not touch 'settings.dat', so many games can be run side by side.
+	 * @param seed The seed of the game.
+	 * @param settings The settings to use for this game.
+	 */
+	public Game(int seed, Settings settings){
 		//Create random
 		this.seed = seed;
-		random = new Random(seed);
+		random = new GameRandom(seed);
 		
 		//Instantiate collections
 		countries = new ArrayList<Country>();
-		players   = new ArrayList<Player>();
+		players   = new PlayerScheduler(settings);
 		guiPosition = new HashMap<City, Point>();
 		
-		//Try to load Settings from file, otherwise default to normal settings
+		this.settings = settings;
+
+		//Logging
+		logging = false;
+	}
+	
+	/**
+	 * Tries to load Settings from file, otherwise defaults to normal settings.
+	 * @return The Settings stored in 'settings.dat', or the default Settings.
+	 */
+	static Settings loadSettings(){
 		try{
-			settings = new Settings(new String(Files.readAllBytes(Paths.get("settings.dat"))));
+			return new Settings(new String(Files.readAllBytes(Paths.get("settings.dat"))));
 		} catch(IOException e){
-			settings = new Settings();
+			return new Settings();
 		} catch(SettingsException e){
-			settings = new Settings();
+			return new Settings();
 		}
-
-		//Logging
-		logging = false;
 	}
 	
 	public void abort(){
@@ -105,6 +151,46 @@ public class Game {
 		return random;
 	}
 	
+	/**
+	 * Gets the seed this Game was last reset with.
+	 * @return The seed.
+	 */
+	int getSeed(){
+		return seed;
+	}
+	
+	/**
+	 * Determines whether or not this Game has been aborted.
+	 * @return True if abort() has been called since the last reset.
+	 */
+	boolean isAborted(){
+		return aborted;
+	}
+	
+	/**
+	 * Gets the state of the random generator.
+	 * @return The 48-bit state.
+	 */
+	long getRandomState(){
+		return random.getState();
+	}
+	
+	/**
+	 * Restores the seed, the time and the random generator of this Game, as recorded by a Checkpoint.
+	 * @param seed The seed.
+	 * @param totalTimeLeft The number of steps of the game.
+	 * @param timeLeft The number of steps left.
+	 * @param aborted Whether or not the game has been aborted.
+	 * @param randomState The state of the random generator.
+	 */
+	void restore(int seed, int totalTimeLeft, int timeLeft, boolean aborted, long randomState){
+		this.seed = seed;
+		this.totalTimeLeft = totalTimeLeft;
+		this.timeLeft = timeLeft;
+		this.aborted = aborted;
+		random.setState(randomState);
+	}
+	
 	/**
 	 * Get the Settings object.
 	 * @return A reference to the current Settings object.
@@ -165,7 +251,7 @@ public class Game {
 		if(!repeat){
 			seed = random.nextInt(Integer.MAX_VALUE);
 		}
-		random = new Random(seed);
+		random = new GameRandom(seed);
 		timeLeft = totalTimeLeft;
 		aborted=false;
 		
@@ -173,11 +259,15 @@ public class Game {
 		
 		for(Country c : countries)
 			c.reset();
-		Collections.sort(players);
-		for(Player p : players){
+		for(Player p : players.sorted()){
 			p.reset();
+			p.resetStatistics();
 			p.setPosition(getRandomStartingPosition());
 		}
+		if(crowd != null)
+			crowd.reset();
+		if(changes != null)
+			changes.flush();
 	}
 	
 	/**
@@ -216,11 +306,25 @@ public class Game {
 	 * @param c The country to add.
 	 */
 	public void addCountry(Country c){
+		networkChanged();
 		countries.add(c);
 		c.setGame(this);
 		Collections.sort(countries, Comparator.comparing(k -> k.getName()));
 	}
 	
+	/**
+	 * Adds several countries to this Game instance at once, sorting the countries only once.
+	 * @param cs The countries to add.
+	 */
+	void addCountries(Collection<Country> cs){
+		networkChanged();
+		for(Country c : cs){
+			countries.add(c);
+			c.setGame(this);
+		}
+		Collections.sort(countries, Comparator.comparing(k -> k.getName()));
+	}
+	
 	/**
 	 * Gets the GUI Player (the one controlled by the GUI).
 	 * @return A reference to the GUI Player.
@@ -262,19 +366,44 @@ public class Game {
 	public void step(){
 		if(timeLeft==0 || aborted)
 			return;
-		Collections.sort(players);
-		for(Player p : players){
-			if(p.getClass()==RandomPlayer.class && !settings.isActive(0))
-				continue;
-			if(p.getClass()==GreedyPlayer.class && !settings.isActive(1))
-				continue;
-			if(p.getClass()==SmartPlayer.class && !settings.isActive(2))
-				continue;
+		long start = Metrics.start();
+		for(Player p : players.active()){
 			p.step();
 			if(p.getMoney()<0)p.reset();
 		}
+		if(crowd != null)
+			crowd.step();
 		--timeLeft;
+		if(changes != null)
+			changes.flush();
+		STEPS.increment();
+		STEP_TIME.recordSince(start);
+	}
+	/**
+	 * Determines whether or not a given player takes part in this game, according to the current Settings.
+	 * @param p The player.
+	 * @return False if the player is of a category (see PlayerScheduler) which has been deactivated, true otherwise.
+	 */
+	public boolean isActive(Player p){
+		return players.isActive(p);
+	}
+	
+	/**
+	 * Gets the crowd of agents travelling alongside the players.
+	 * @return The crowd, or null if there is none.
+	 */
+	public Crowd getCrowd(){
+		return crowd;
+	}
+	
+	/**
+	 * Attaches a crowd of agents, which is then stepped after the players and reset with the game.
+	 * @param crowd The crowd, created on the network of this game, or null to remove it.
+	 */
+	public void setCrowd(Crowd crowd){
+		this.crowd = crowd;
 	}
+	
 	/**
 	 * Gets the number of steps remaining in this Game instance.
 	 * @return An integer representing how many steps this Game object can take before reaching the end.
@@ -326,6 +455,7 @@ public class Game {
 	 * @param i The length of the road to construct.
 	 */
 	public void addRoads(City a, City b, int i) {
+		networkChanged();
 		for(Country country : countries){
 			country.addRoads(a, b, i);
 			if(country.getNetwork().containsKey(a)){
@@ -336,9 +466,182 @@ public class Game {
 				Collections.sort(country.getNetwork().get(b), Comparator.comparing(r -> r.getFrom().getName()));
 				Collections.sort(country.getNetwork().get(b), Comparator.comparing(r -> r.getTo().getName()));
 			}
+			country.roadsChanged();
 		}
 	}
 
+	/**
+	 * Gets a 64-bit hash of the network of this Game: the countries, their cities (kind, name and initial value) and all roads.
+	 * Two games loaded from the same network have the same hash, so results can be matched to the network they came from.
+	 * @return A 64-bit FNV-1a hash of the network.
+	 */
+	public long getNetworkHash(){
+		if(networkHash == 0){
+			long h = 0xcbf29ce484222325L;
+			for(Country country : countries){
+				h = hash(h, (country instanceof MafiaCountry ? "M:" : "C:")+country.getName());
+				for(City city : country.getCities()){
+					h = hash(h, city.getClass().getName()+":"+city.getName()+":"+city.getInitialValue());
+					for(Road r : country.getRoads(city))
+						h = hash(h, r.getFrom().getName()+">"+r.getTo().getName()+":"+r.getLength());
+				}
+			}
+			networkHash = h;
+		}
+		return networkHash;
+	}
+	
+	/**
+	 * Gets the shortest distances between the cities of this Game, and the cities reachable within a given number of steps.
+	 * It is computed once the first time it is needed, and shared with all other games on the same network.
+	 * @return The Topology of the network of this Game.
+	 */
+	public Topology getTopology(){
+		if(topology == null){
+			indexCities();
+			topology = Topology.of(this);
+		}
+		return topology;
+	}
+	
+	/**
+	 * Gives every city and country of this Game its id: its index when ordered by name.
+	 * Is done when the network is loaded, and again whenever a country or road has been added since.
+	 */
+	void indexCities(){
+		if(cityIndex != null)
+			return;
+		TreeMap<String, City> cities = new TreeMap<String, City>();
+		for(Country country : countries)
+			for(City city : country.getCities())
+				cities.put(city.getName(), city);
+		City[] index = cities.values().toArray(new City[cities.size()]);
+		for(int i=0; i<index.length; i++)
+			index[i].setId(i);
+		for(int i=0; i<countries.size(); i++)
+			countries.get(i).setId(i);
+		cityIndex = index;
+	}
+	
+	/**
+	 * Gets the number of cities in this Game.
+	 * @return The number of cities, which is one more than the largest id.
+	 */
+	public int getCityCount(){
+		indexCities();
+		return cityIndex.length;
+	}
+	
+	/**
+	 * Gets a specific City object, based on its id (which is also its index in the Topology of this Game).
+	 * @param index The id of the city.
+	 * @return The City with the given id.
+	 */
+	public City getCity(int index){
+		indexCities();
+		return cityIndex[index];
+	}
+	
+	/**
+	 * Gets the id of a city of this Game, without computing the Topology.
+	 * @param c The city.
+	 * @return The id of the city, or -1 if it is not a city of this Game.
+	 */
+	int indexOf(City c){
+		indexCities();
+		int id = c.getId();
+		return id >= 0 && id < cityIndex.length && cityIndex[id] == c ? id : -1;
+	}
+	
+	/**
+	 * Gets the index of the best neighbour of every city, as used by the GreedyPlayer.
+	 * @return The NeighbourIndex of this Game.
+	 */
+	public NeighbourIndex getNeighbourIndex(){
+		if(neighbours == null)
+			neighbours = new NeighbourIndex(this);
+		return neighbours;
+	}
+	
+	/**
+	 * Is called by a City of this Game whenever its value changes.
+	 * @param c The city whose value has changed.
+	 * @param old The value of the city before the change.
+	 */
+	void cityChanged(City c, int old){
+		if(neighbours != null)
+			neighbours.invalidate(c);
+		if(changes != null)
+			changes.changed(c);
+		if(stateHash != null)
+			stateHash.cityChanged(c, old);
+		if(totalValue != Long.MIN_VALUE)
+			totalValue += c.getValue() - old;
+	}
+	
+	/**
+	 * Gets the sum of the values of all cities. It is updated whenever a value changes, so it takes constant time.
+	 * @return The total value.
+	 */
+	long getTotalValue(){
+		if(totalValue == Long.MIN_VALUE){
+			long sum = 0;
+			for(Country country : countries)
+				for(City city : country.getCities())
+					sum += city.getValue();
+			totalValue = sum;
+		}
+		return totalValue;
+	}
+	
+	/**
+	 * Gets a 64-bit hash of the current state of this Game: the values of all cities, the money and positions of all
+	 * players, the time left and the state of the random generator.
+	 * The part of the cities is updated incrementally whenever a value changes, so reading the hash after every step
+	 * is cheap. Two games in the same state have the same hash; a StateTrace records it once per step.
+	 * @return The hash of the state.
+	 */
+	public long getStateHash(){
+		if(stateHash == null)
+			stateHash = new StateHash(this);
+		return stateHash.get();
+	}
+	
+	/**
+	 * Gets the changes of the values of the cities of this Game.
+	 * Its listeners are told about the cities that changed at the end of every step, and after a reset.
+	 * @return The CityChanges of this Game.
+	 */
+	public CityChanges getCityChanges(){
+		if(changes == null)
+			changes = new CityChanges(this);
+		return changes;
+	}
+	
+	/**
+	 * Forgets everything derived from the network, when a country or road is added. The city changes are kept with
+	 * their listeners, and follow the new network.
+	 */
+	private void networkChanged(){
+		networkHash = 0;
+		topology = null;
+		cityIndex = null;
+		neighbours = null;
+		if(changes != null)
+			changes.networkChanged();
+		stateHash = null;
+		totalValue = Long.MIN_VALUE;
+	}
+	
+	private static long hash(long h, String s){
+		for(int i=0; i<s.length(); i++){
+			h ^= s.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= 0xff;
+		return h * 0x100000001b3L;
+	}
+	
 	/**
 	 * Gets how much time this game had at its conception.
 	 * @return An integer representing how many steps this Game had available when it was created.
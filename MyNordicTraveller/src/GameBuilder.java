@@ -0,0 +1,207 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the network of a Game in one go.
+ * Countries, cities and roads are collected first, and are validated, sorted and handed to the game only when
+ * build() is called. The result is the same as adding everything through Game.addCountry and Game.addRoads, which
+ * sort the countries or road lists again after every single addition:
+ * countries are ordered by name, and the roads of every city by the name of the city they lead to.
+ * @version v1.0
+ */
+public class GameBuilder {
+
+    /** The order of the roads of a city, as produced by Game.addRoads */
+    private static final Comparator<Road> ROAD_ORDER =
+            Comparator.comparing((Road r) -> r.getTo().getName()).thenComparing(r -> r.getFrom().getName());
+
+    private final Game game;
+    private final List<Country> countries = new ArrayList<>();
+    private final Map<Country, Boolean> added = new IdentityHashMap<>();
+    private final List<City> cities = new ArrayList<>();
+    private final Map<City, Point> positions = new HashMap<>();
+    private final List<Object[]> roads = new ArrayList<>();
+    private boolean built;
+
+    /**
+     * Creates a builder for the network of a game.
+     *
+     * @param game //The game, which should not have any countries yet.
+     */
+    public GameBuilder(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Creates a new country with an empty network, and adds it.
+     *
+     * @param name  //The name of the country
+     * @param mafia //Whether or not the country is a MafiaCountry
+     * @return Country
+     */
+    public Country country(String name, boolean mafia) {
+        Map<City, List<Road>> network = new HashMap<>();
+        Country c = mafia ? new MafiaCountry(name, network) : new Country(name, network);
+        addCountry(c);
+        return c;
+    }
+
+    /**
+     * Adds a country. Adding the same country again has no effect.
+     *
+     * @param c //The country
+     * @return GameBuilder
+     */
+    public GameBuilder addCountry(Country c) {
+        if (added.put(c, Boolean.TRUE) == null) {
+            countries.add(c);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a city to the network of its country.
+     *
+     * @param c //The city, whose country must be added to this builder as well
+     * @return GameBuilder
+     */
+    public GameBuilder addCity(City c) {
+        cities.add(c);
+        return this;
+    }
+
+    /**
+     * Adds a city to the network of its country, with its position on the map of the GUI.
+     *
+     * @param c        //The city, whose country must be added to this builder as well
+     * @param position //The position of the city (in pixels)
+     * @return GameBuilder
+     */
+    public GameBuilder addCity(City c, Point position) {
+        positions.put(c, position);
+        return addCity(c);
+    }
+
+    /**
+     * Adds roads in both directions between two cities, which are looked up by name when the game is built.
+     *
+     * @param a      //The name of the first city
+     * @param b      //The name of the second city
+     * @param length //The length of the roads
+     * @return GameBuilder
+     */
+    public GameBuilder addRoads(String a, String b, int length) {
+        roads.add(new Object[]{a, b, length});
+        return this;
+    }
+
+    /**
+     * Adds roads in both directions between two cities.
+     *
+     * @param a      //The first city
+     * @param b      //The second city
+     * @param length //The length of the roads
+     * @return GameBuilder
+     */
+    public GameBuilder addRoads(City a, City b, int length) {
+        roads.add(new Object[]{a, b, length});
+        return this;
+    }
+
+    /**
+     * Validates the network, and adds it to the game.
+     * Every city must belong to an added country and have a unique name, and every road must connect two known
+     * cities and have a positive length.
+     *
+     * @return Game //The game, with its countries, cities and roads in place.
+     * @throws IllegalStateException if the network is invalid, or the builder has already been used
+     */
+    public Game build() {
+        if (built) {
+            throw new IllegalStateException("The game has already been built.");
+        }
+        built = true;
+
+        //Validate cities
+        Map<String, City> byName = new HashMap<>();
+        for (City c : cities) {
+            if (!added.containsKey(c.getCountry())) {
+                throw new IllegalStateException("The country of '" + c.getName() + "' has not been added.");
+            }
+            City other = byName.put(c.getName(), c);
+            if (other != null && other != c) {
+                throw new IllegalStateException("Two cities are named '" + c.getName() + "'.");
+            }
+        }
+        for (Country country : countries) {
+            for (City c : country.getNetwork().keySet()) {
+                byName.putIfAbsent(c.getName(), c);
+            }
+        }
+
+        //Validate roads
+        List<City[]> ends = new ArrayList<>(roads.size());
+        for (Object[] road : roads) {
+            City a = resolve(road[0], byName), b = resolve(road[1], byName);
+            if ((Integer) road[2] <= 0) {
+                throw new IllegalStateException("The road between '" + a.getName() + "' and '" + b.getName()
+                        + "' must have a positive length.");
+            }
+            ends.add(new City[]{a, b});
+        }
+
+        //Countries, sorted once
+        List<Country> sorted = new ArrayList<>(countries);
+        Collections.sort(sorted, Comparator.comparing(Country::getName));
+        for (City c : cities) {
+            c.getCountry().getNetwork().putIfAbsent(c, new ArrayList<>());
+        }
+
+        //Roads, in every country whose network holds their start, then sorted once per city
+        Set<List<Road>> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < roads.size(); i++) {
+            City a = ends.get(i)[0], b = ends.get(i)[1];
+            int length = (Integer) roads.get(i)[2];
+            for (Country country : sorted) {
+                Map<City, List<Road>> network = country.getNetwork();
+                if (network.containsKey(a)) {
+                    network.get(a).add(new Road(a, b, length));
+                    touched.add(network.get(a));
+                }
+                if (network.containsKey(b)) {
+                    network.get(b).add(new Road(b, a, length));
+                    touched.add(network.get(b));
+                }
+            }
+        }
+        for (List<Road> list : touched) {
+            Collections.sort(list, ROAD_ORDER);
+        }
+
+        game.addCountries(sorted);
+        for (Map.Entry<City, Point> e : positions.entrySet()) {
+            game.putPosition(e.getKey(), e.getValue());
+        }
+        game.indexCities();
+        return game;
+    }
+
+    /**
+     * Finds the city a road refers to, by name or by reference.
+     */
+    private static City resolve(Object end, Map<String, City> byName) {
+        String name = end instanceof City ? ((City) end).getName() : (String) end;
+        City c = byName.get(name);
+        if (c == null || (end instanceof City && c != end)) {
+            throw new IllegalStateException("No such city: '" + name + "'.");
+        }
+        return c;
+    }
+}
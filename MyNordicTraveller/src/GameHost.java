@@ -0,0 +1,279 @@
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Hosts many isolated game sessions in one process, ticked by a shared scheduler.
+ * All sessions are created from one compiled network, so they share its bytes and (through Topology) its distance
+ * matrix, while every session gets its own cities, players and a private, non-persistent copy of its settings;
+ * nothing is read from or written to the working directory.
+ * A session only holds a Game while it is started and unfinished. Before it starts and after it finishes it keeps
+ * just its seed, settings and result, so idle sessions are cheap to keep around in large numbers.
+ * A session whose game throws while it is ticked stops there: it keeps the failure, which awaitResult() then throws,
+ * instead of the scheduler silently dropping its task.
+ * @version v1.0
+ */
+public class GameHost implements AutoCloseable {
+
+    /** Number of ticks across all hosts, and the time spent per tick */
+    private static final Metrics.Counter TICKS = Metrics.counter("host.ticks");
+    private static final Metrics.Histogram TICK_TIME = Metrics.histogram("host.tick");
+
+    private final CompiledNetwork network;
+    private final ScheduledExecutorService scheduler;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a host with one scheduler thread per available core.
+     *
+     * @param network //The network of every session.
+     */
+    public GameHost(CompiledNetwork network) {
+        this(network, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a host.
+     *
+     * @param network //The network of every session.
+     * @param threads //The number of scheduler threads, which tick all sessions.
+     */
+    public GameHost(CompiledNetwork network, int threads) {
+        this.network = network;
+        AtomicInteger count = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "game-host-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens a new session, which is idle until it is started.
+     *
+     * @param seed     //The seed of the game.
+     * @param settings //The settings of the game, which are copied.
+     * @param lineUp   //One factory per player, creating the player at its starting position. May be shared.
+     * @return Session
+     */
+    public Session open(int seed, Settings settings, List<Function<Position, ? extends Player>> lineUp) {
+        Settings own = new Settings(settings);
+        own.setPersistent(false);
+        Session s = new Session(seed, own, lineUp);
+        sessions.add(s);
+        return s;
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return int
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the number of sessions currently being ticked.
+     *
+     * @return int
+     */
+    public int getRunningCount() {
+        int n = 0;
+        for (Session s : sessions) {
+            if (s.isRunning()) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Closes every session, and stops the scheduler.
+     */
+    @Override
+    public void close() {
+        for (Session s : sessions) {
+            s.close();
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * A single game, ticked by the scheduler of its host at its own pace.
+     * Ticks of one session never overlap, while different sessions are ticked in parallel.
+     */
+    public final class Session {
+        private final int seed;
+        private final Settings settings;
+        private final List<Function<Position, ? extends Player>> lineUp;
+
+        /** The game, only while the session is started and unfinished */
+        private Game game;
+        private GameResult result;
+        private RuntimeException failure;
+        private ScheduledFuture<?> ticking;
+        private boolean closed;
+
+        private Session(int seed, Settings settings, List<Function<Position, ? extends Player>> lineUp) {
+            this.seed = seed;
+            this.settings = settings;
+            this.lineUp = lineUp;
+        }
+
+        /**
+         * Starts or resumes ticking the game. The game is created on the first start.
+         *
+         * @param periodMillis //The time between ticks, in milliseconds.
+         * @throws IllegalArgumentException if the period is not positive
+         * @throws IllegalStateException    if the session is closed, already finished or has failed
+         */
+        public synchronized void start(long periodMillis) {
+            if (periodMillis <= 0) {
+                throw new IllegalArgumentException("The period must be positive");
+            }
+            if (closed || result != null || failure != null) {
+                throw new IllegalStateException("The session is " + (closed ? "closed" : result != null ? "finished"
+                        : "failed"), failure);
+            }
+            if (game == null) {
+                game = Generator.generateGame(seed, network, settings, lineUp);
+            }
+            if (ticking != null) {
+                ticking.cancel(false);
+            }
+            ticking = scheduler.scheduleAtFixedRate(this::tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Stops ticking the game, which keeps its state until it is started again.
+         */
+        public synchronized void pause() {
+            if (ticking != null) {
+                ticking.cancel(false);
+                ticking = null;
+            }
+        }
+
+        private synchronized void tick() {
+            if (game == null) {
+                return;
+            }
+            long start = Metrics.start();
+            try {
+                game.step();
+            } catch (RuntimeException e) {
+                //Thrown out of the task, it would only stop the ticks without anyone waiting being told
+                failure = e;
+                game = null;
+                pause();
+                notifyAll();
+                return;
+            }
+            TICKS.increment();
+            if (!game.ongoing()) {
+                result = new GameResult(seed, game);
+                game = null;
+                pause();
+                notifyAll();
+            }
+            TICK_TIME.recordSince(start);
+        }
+
+        /**
+         * Closes the session, releasing its game, and removes it from the host.
+         */
+        public synchronized void close() {
+            pause();
+            game = null;
+            closed = true;
+            sessions.remove(this);
+            notifyAll();
+        }
+
+        /**
+         * Waits until the game has finished.
+         *
+         * @return GameResult //The final standings.
+         * @throws InterruptedException  if the calling thread is interrupted while waiting
+         * @throws IllegalStateException if the session is closed before it finishes, or its game threw an exception
+         *                               (which is then the cause)
+         */
+        public synchronized GameResult awaitResult() throws InterruptedException {
+            while (result == null) {
+                if (failure != null) {
+                    throw new IllegalStateException("The game of the session failed: " + failure, failure);
+                }
+                if (closed) {
+                    throw new IllegalStateException("The session was closed before it finished");
+                }
+                wait();
+            }
+            return result;
+        }
+
+        /**
+         * Returns the final standings.
+         *
+         * @return GameResult //The result, or null if the game has not finished.
+         */
+        public synchronized GameResult getResult() {
+            return result;
+        }
+
+        /**
+         * Returns the exception the game threw while it was ticked.
+         *
+         * @return RuntimeException //The failure, or null if the game has not failed.
+         */
+        public synchronized RuntimeException getFailure() {
+            return failure;
+        }
+
+        /**
+         * Returns the number of steps left, without creating the game.
+         *
+         * @return int //The steps left, 0 if the game has finished, or -1 if it has not been started.
+         */
+        public synchronized int getStepsLeft() {
+            if (result != null) {
+                return 0;
+            }
+            return game == null ? -1 : game.getStepsLeft();
+        }
+
+        /**
+         * Determines whether or not the session is currently being ticked.
+         *
+         * @return boolean
+         */
+        public synchronized boolean isRunning() {
+            return ticking != null;
+        }
+
+        /**
+         * Determines whether or not the session holds a game, which is only the case while it is started and
+         * unfinished.
+         *
+         * @return boolean
+         */
+        public synchronized boolean isLoaded() {
+            return game != null;
+        }
+
+        /**
+         * Returns the seed of the game.
+         *
+         * @return int
+         */
+        public int getSeed() {
+            return seed;
+        }
+    }
+}
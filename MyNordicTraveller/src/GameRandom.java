@@ -0,0 +1,58 @@
+import java.util.Random;
+
+/**
+ * The random generator of a Game.
+ * It is the same linear congruential generator as java.util.Random, and gives exactly the same numbers for the same
+ * seed, but its 48-bit state can be read and restored, so a running game can be checkpointed.
+ * Unlike java.util.Random it is not thread-safe, which a game, being stepped by one thread, does not need.
+ * The state does not include a second Gaussian kept back by nextGaussian(), which the game never uses.
+ * @version v1.0
+ */
+public class GameRandom extends Random {
+
+    private static final long serialVersionUID = 4113870367925128721L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL, ADDEND = 0xBL, MASK = (1L << 48) - 1;
+
+    /** The state of the generator, which is set by the constructor of Random through setSeed */
+    private long state;
+
+    /**
+     * Creates a generator with the given seed.
+     *
+     * @param seed //The seed, as for java.util.Random.
+     */
+    public GameRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * Returns the current state of the generator.
+     *
+     * @return long //The 48-bit state.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state returned by getState(), after which the generator continues with the same numbers.
+     *
+     * @param state //The 48-bit state.
+     */
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * The final standings of a finished game, small enough to stream without keeping the game around.
+ *
+ * @version v1.0
+ */
+public class GameResult {
+    /**
+     * The seed the game was created with.
+     */
+    private final int seed;
+    /**
+     * The display names of the players, in the order of the game.
+     */
+    private final String[] names;
+    /**
+     * The final amount of money of each player.
+     */
+    private final int[] money;
+
+    /**
+     * Creates a result from a game, typically after it has finished.
+     * Players deactivated by the settings of the game are left out.
+     *
+     * @param seed //The seed the game was created with
+     * @param game //The game to take the standings from
+     */
+    public GameResult(int seed, Game game) {
+        this.seed = seed;
+        int n = 0;
+        for (Player p : game.getPlayers()) {
+            if (game.isActive(p)) {
+                n++;
+            }
+        }
+        this.names = new String[n];
+        this.money = new int[n];
+        int i = 0;
+        for (Player p : game.getPlayers()) {
+            if (game.isActive(p)) {
+                names[i] = p.getName();
+                money[i++] = p.getMoney();
+            }
+        }
+    }
+
+    /**
+     * Creates a result from the standings of a game that was not played as a Game object, such as by the BatchEngine.
+     *
+     * @param seed  //The seed the game was created with
+     * @param names //The display names of the active players
+     * @param money //The final amount of money of each of them
+     */
+    GameResult(int seed, String[] names, int[] money) {
+        this.seed = seed;
+        this.names = names;
+        this.money = money;
+    }
+
+    /**
+     * Returns the seed the game was created with.
+     *
+     * @return int
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of players in the game.
+     *
+     * @return int
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the display name of the i'th player.
+     *
+     * @param i //The index of the player
+     * @return String
+     */
+    public String getName(int i) {
+        return names[i];
+    }
+
+    /**
+     * Returns the final amount of money of the i'th player.
+     *
+     * @param i //The index of the player
+     * @return int
+     */
+    public int getMoney(int i) {
+        return money[i];
+    }
+
+    /**
+     * Returns the result as a single tab separated line: the seed followed by name and money of every player.
+     *
+     * @return String
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(seed);
+        for (int i = 0; i < names.length; i++) {
+            sb.append('\t').append(names[i]).append('\t').append(money[i]);
+        }
+        return sb.toString();
+    }
+}
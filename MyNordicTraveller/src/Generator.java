@@ -2,12 +2,10 @@ import java.awt.Point;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * Creates an instance of NordicTraveller based on a String representation of the internal network.
@@ -18,20 +16,114 @@ import java.util.Set;
 public class Generator {
 
     public static Game generateGame(int seed, String filename){
+        String[] data = readNetwork(filename);
+        if(data == null)
+            return null;
+        return generateGame(seed, data);
+    }
+    
+    /**
+     * Reads the lines of a network file, so it can be used for many games without reading it again.
+     * @param filename The network file (windows-1252).
+     * @return The lines of the file, or null if it could not be read.
+     */
+    public static String[] readNetwork(String filename){
         String text;
         try {
             text = new String(Files.readAllBytes(Paths.get(filename)), "windows-1252");
         } catch (IOException e) {
             return null;
         }
-        return generateGame(seed, text.replace("\r", "").split("\n"));
+        return text.replace("\r", "").split("\n");
     }
     
     private static Game generateGame(int seed, String[] data){
         Game g = new Game(seed);
+        loadNetwork(g, data);
+        return addPlayers(g);
+    }
+    
+    /**
+     * Creates a game with the usual players from a compiled network, which is loaded without parsing.
+     * @param seed The seed of the game.
+     * @param network The compiled network.
+     * @return A new Game, identical to one generated from the text network it was compiled from.
+     */
+    public static Game generateGame(int seed, CompiledNetwork network){
+        Game g = new Game(seed);
+        network.load(g);
+        return addPlayers(g);
+    }
+    
+    private static Game addPlayers(Game g){
+        g.getPlayers().add(new SmartPlayer(g.getRandomStartingPosition()));
+        g.getPlayers().add(new GreedyPlayer(g.getRandomStartingPosition()));
+        g.getPlayers().add(new RandomPlayer(g.getRandomStartingPosition()));
+    
+        Player p = new Player(g.getRandomStartingPosition());
+        g.setGUIPlayer(p);
         
+        g.reset(false, false);
+        return g;
+    }
+    
+    /**
+     * Creates a game without a GUI Player, with an arbitrary line-up of players.
+     * @param seed The seed of the game.
+     * @param data The lines of the network file.
+     * @param settings The settings of the game (not saved to disk).
+     * @param lineUp One factory per player, creating the player at its starting position.
+     * @return A new Game, ready to be stepped.
+     */
+    public static Game generateGame(int seed, String[] data, Settings settings, List<Function<Position, ? extends Player>> lineUp){
+        Game g = new Game(seed, settings);
+        loadNetwork(g, data);
+        return addPlayers(g, lineUp);
+    }
+    
+    /**
+     * Creates a game without a GUI Player from a compiled network, which can be shared by many threads.
+     * @param seed The seed of the game.
+     * @param network The compiled network.
+     * @param settings The settings of the game (not saved to disk).
+     * @param lineUp One factory per player, creating the player at its starting position.
+     * @return A new Game, ready to be stepped.
+     */
+    public static Game generateGame(int seed, CompiledNetwork network, Settings settings, List<Function<Position, ? extends Player>> lineUp){
+        Game g = new Game(seed, settings);
+        network.load(g);
+        return addPlayers(g, lineUp);
+    }
+    
+    /**
+     * Creates a game without players from a compiled network, with a crowd of AI agents travelling in it.
+     * @param seed The seed of the game.
+     * @param network The compiled network.
+     * @param settings The settings of the game (not saved to disk).
+     * @param randoms The number of random agents.
+     * @param greedies The number of greedy agents.
+     * @param smarts The number of smart agents.
+     * @return A new Game, ready to be stepped, whose agents are given by getCrowd().
+     */
+    public static Game generateCrowd(int seed, CompiledNetwork network, Settings settings, int randoms, int greedies, int smarts){
+        Game g = new Game(seed, settings);
+        network.load(g);
+        g.reset(false, false);
+        g.setCrowd(new Crowd(g, randoms, greedies, smarts));
+        return g;
+    }
+    
+    private static Game addPlayers(Game g, List<Function<Position, ? extends Player>> lineUp){
+        for(Function<Position, ? extends Player> factory : lineUp)
+            g.getPlayers().add(factory.apply(g.getRandomStartingPosition()));
+        
+        g.reset(false, false);
+        return g;
+    }
+    
+    static void loadNetwork(Game g, String[] data){
+        GameBuilder builder = new GameBuilder(g);
         Country country = null;
-        Map<City, List<Road>> network = null;
         boolean roads = false;
         for(String line : data){
             if(line.startsWith("\t") && roads){
@@ -39,7 +131,7 @@ public class Generator {
                 String[] road = line.substring(1).replace(" ","").split(",");
                 if(road.length!=3)
                     throw new NetworkParseException("Invalid argument count on line '"+line+"'. Expected 3, received "+road.length+".");
-                g.addRoads(road[0], road[1], Integer.parseInt(road[2]));
+                builder.addRoads(road[0], road[1], Integer.parseInt(road[2]));
                 
             } else if(line.startsWith("\t")){
                 if(country == null) throw new NetworkParseException("No country defined.");
@@ -52,46 +144,21 @@ public class Generator {
                     c = new BorderCity(city[0].substring(1), value, country);
                 else
                     c = new City(city[0].replace("#", "").replace("|", ""), value, country);
-                network.put(c, new ArrayList<Road>());
                 int x = Integer.parseInt(city[2]), y = Integer.parseInt(city[3]);
-                g.putPosition(c, new Point(x,y));
+                builder.addCity(c, new Point(x,y));
             } else {
-                if(country!=null)
-                    g.addCountry(country);
                 if(line.equals("Roads")){
                     roads = true;
                     continue;
                 }
-                network = new HashMap<City, List<Road>>();
-                if(line.equalsIgnoreCase("sweden"))
-                    country = new MafiaCountry(line, network);
-                else
-                    country = new Country(line, network);
+                country = builder.country(line, line.equalsIgnoreCase("sweden"));
             }
         }
-
-        g.getPlayers().add(new SmartPlayer(g.getRandomStartingPosition()));
-        g.getPlayers().add(new GreedyPlayer(g.getRandomStartingPosition()));
-        g.getPlayers().add(new RandomPlayer(g.getRandomStartingPosition()));
-    
-        Player p = new Player(g.getRandomStartingPosition());
-        g.setGUIPlayer(p);
-        
-        g.reset(false, false);
-        return g;
-    }
-    
-}
-
-class NetworkParseException extends RuntimeException {
-
-    public NetworkParseException(String string) {
-        super(string);
+        try{
+            builder.build();
+        } catch(IllegalStateException e){
+            throw new NetworkParseException(e.getMessage());
+        }
     }
-
-    /**
-     * 
-     */
-    private static final long serialVersionUID = -919893285667013374L;
     
 }
@@ -1,6 +1,4 @@
 import java.awt.Color;
-import java.util.List;
-import java.util.Set;
 
 /**
  * An AI player which greedily chooses its path at each city (looks only one city ahead).
@@ -18,25 +16,20 @@ public class GreedyPlayer extends Player {
 		super(pos);
 	}
 	
+	/** Time spent per step of a GreedyPlayer */
+	private static final Metrics.Histogram STEP_TIME = Metrics.histogram("player.greedy.step");
+	
 	@Override
 	public void step(){
-		super.step();
+		long start = Metrics.start();
+		advance();
 		if(getPosition().hasArrived()){
 			City city = getPosition().getTo();
-			List<Road> roads = getCountry().getRoads(city);
-			double best = 0;
-			City bestCity = null;
-			for(Road road : roads){
-				double value = road.getTo().getValue() / (double) road.getLength();
-				if(value > best){
-					bestCity = road.getTo();
-					best = value;
-				}
-				
-			}
+			City bestCity = getCountry().getGame().getNeighbourIndex().getBest(city);
 			if(bestCity!=null)
-				setPosition(getCountry().readyToTravel(city, bestCity));
+				travel(city, bestCity);
 		}
+		STEP_TIME.recordSince(start);
 	}
 
 	@Override
@@ -0,0 +1,27 @@
+/**
+ * The strategy of the GreedyPlayer, as an example of a Strategy found through ServiceLoader: goes to the neighbour
+ * with the highest positive value per step, the first one on ties.
+ * @version v1.0
+ */
+public class GreedyStrategy implements Strategy {
+
+    @Override
+    public String getName() {
+        return "Greedy Bot";
+    }
+
+    @Override
+    public int decide(WorldView view) {
+        int city = view.getCity(), best = -1;
+        double bestValue = 0;
+        for (int r = 0; r < view.getRoadCount(city); r++) {
+            int to = view.getRoadTo(city, r);
+            double value = view.getValue(to) / (double) view.getRoadLength(city, r);
+            if (value > bestValue) {
+                bestValue = value;
+                best = to;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,191 @@
+import java.util.Arrays;
+
+/**
+ * A mergeable histogram of integer values in the style of HdrHistogram.
+ * Every power of two is split into 2^precision buckets, so values are stored with a relative error of at most
+ * 2^-precision, and small values are stored exactly. Negative values are kept in a mirrored set of buckets.
+ *
+ * @version v1.0
+ */
+public class LogHistogram {
+    /**
+     * The number of bits of sub-bucket precision.
+     */
+    private final int precision;
+    /**
+     * The counts of the buckets of non-negative and negative values, grown as needed.
+     */
+    private long[] positive = new long[0], negative = new long[0];
+    /**
+     * The number of values, and the smallest and largest value.
+     */
+    private long count, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+    /**
+     * Creates a histogram with 5 bits of precision (at most about 3% error).
+     */
+    public LogHistogram() {
+        this(5);
+    }
+
+    /**
+     * Creates a histogram with the given precision.
+     *
+     * @param precision //The number of bits of sub-bucket precision, between 1 and 16
+     */
+    public LogHistogram(int precision) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 1 and 16, but was " + precision + ".");
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value //The value
+     */
+    public void add(long value) {
+        add(value, 1);
+    }
+
+    /**
+     * Adds a value a number of times.
+     *
+     * @param value //The value
+     * @param times //How many times to add it
+     */
+    public void add(long value, long times) {
+        if (value >= 0) {
+            int b = bucketOf(value);
+            positive = grow(positive, b);
+            positive[b] += times;
+        } else {
+            int b = bucketOf(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value);
+            negative = grow(negative, b);
+            negative[b] += times;
+        }
+        count += times;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values of another histogram to this one.
+     *
+     * @param other //The other histogram, which must have the same precision
+     */
+    public void merge(LogHistogram other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge histograms of different precision.");
+        }
+        positive = grow(positive, other.positive.length - 1);
+        for (int i = 0; i < other.positive.length; i++) {
+            positive[i] += other.positive[i];
+        }
+        negative = grow(negative, other.negative.length - 1);
+        for (int i = 0; i < other.negative.length; i++) {
+            negative[i] += other.negative[i];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return long
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the smallest value, or 0 if there are no values.
+     *
+     * @return long
+     */
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the largest value, or 0 if there are no values.
+     *
+     * @return long
+     */
+    public long getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * Returns an estimate of the given quantile, or 0 if there are no values.
+     *
+     * @param q //The quantile, in [0,1]
+     * @return long
+     */
+    public long quantile(double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int b = negative.length - 1; b >= 0; b--) {
+            seen += negative[b];
+            if (seen >= rank) {
+                return clamp(-middleOf(b));
+            }
+        }
+        for (int b = 0; b < positive.length; b++) {
+            seen += positive[b];
+            if (seen >= rank) {
+                return clamp(middleOf(b));
+            }
+        }
+        return max;
+    }
+
+    private long clamp(long value) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Returns the bucket of a non-negative value.
+     *
+     * @param value //The value
+     * @return int
+     */
+    int bucketOf(long value) {
+        int sub = 1 << precision;
+        if (value < sub) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - precision;
+        return (shift + 1) * sub + (int) ((value >>> shift) & (sub - 1));
+    }
+
+    /**
+     * Returns the value in the middle of a bucket of non-negative values.
+     *
+     * @param bucket //The bucket
+     * @return long
+     */
+    long middleOf(int bucket) {
+        int sub = 1 << precision;
+        if (bucket < 2 * sub) {
+            return bucket;
+        }
+        int shift = bucket / sub - 1;
+        long lower = (long) (sub + bucket % sub) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+
+    private static long[] grow(long[] counts, int index) {
+        if (index < counts.length) {
+            return counts;
+        }
+        return Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+    }
+}
@@ -26,9 +26,25 @@ public class MafiaCountry extends Country {
      */
     @Override
     public int bonus(int value) {
+        return bonus(value, null);
+    }
+
+    /**
+     * Robs the player with the risk from the settings, and otherwise gives the bonus of the superclass Country.
+     * A robbery is told to the player, as a loss of 0 cannot be told apart from a bonus of 0.
+     *
+     * @param value //The value that a given city has
+     * @param p     //The player arriving, or null
+     * @return int
+     */
+    @Override
+    int bonus(int value, Player p) {
         if (getGame().getRandom().nextInt(100) + 1 > getGame().getSettings().getRisk()) {
             return super.bonus(value);
         }
+        if (p != null) {
+            p.addRobbery();
+        }
         return -getGame().getLoss();
     }
 }
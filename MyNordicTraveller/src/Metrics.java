@@ -0,0 +1,440 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-process registry of counters and latency histograms.
+ * Recording never locks or allocates, so the metrics can stay enabled during batch runs.
+ * Snapshots can be exported to CSV or JSON, or drawn on top of the GUI.
+ *
+ * @version v1.0
+ */
+public class Metrics {
+
+    /** All registered counters, by name. */
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /** All registered histograms, by name. */
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    /** Whether or not timings are currently being recorded. */
+    private static volatile boolean enabled = true;
+
+    /**
+     * Gets the counter with the given name, creating it if it does not exist yet.
+     * Intended to be called once and kept in a static field.
+     *
+     * @param name The name of the counter.
+     * @return The counter with the given name.
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Gets the histogram with the given name, creating it if it does not exist yet.
+     * Intended to be called once and kept in a static field.
+     *
+     * @param name The name of the histogram.
+     * @return The histogram with the given name.
+     */
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Returns a timestamp to pass to {@link Histogram#recordSince(long)}.
+     * Returns 0 when metrics are disabled, in which case nothing is recorded.
+     *
+     * @return A timestamp in nanoseconds, or 0.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns whether or not timings are currently being recorded.
+     *
+     * @return boolean
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording of timings on or off.
+     *
+     * @param enabled Whether or not timings should be recorded.
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Resets all counters and histograms to zero.
+     */
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(Histogram::reset);
+    }
+
+    /**
+     * Returns a human readable line for every metric, sorted by name.
+     *
+     * @return List<String>
+     */
+    public static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        for (Counter c : new TreeMap<>(counters).values()) {
+            lines.add(c.getName() + ": " + c.get());
+        }
+        for (Histogram h : new TreeMap<>(histograms).values()) {
+            Snapshot s = h.snapshot();
+            if (s.count == 0) {
+                continue;
+            }
+            lines.add(String.format("%s: n=%d p50=%s p99=%s max=%s", h.getName(), s.count,
+                    formatNanos(s.p50), formatNanos(s.p99), formatNanos(s.max)));
+        }
+        return lines;
+    }
+
+    /**
+     * Writes a snapshot of all metrics to a CSV file.
+     *
+     * @param filename The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public static void exportCsv(String filename) throws IOException {
+        try (PrintWriter out = new PrintWriter(filename)) {
+            out.print("type,name,count,sum,mean,p50,p90,p99,max\r\n");
+            for (Counter c : new TreeMap<>(counters).values()) {
+                out.print("counter," + c.getName() + "," + c.get() + ",,,,,,\r\n");
+            }
+            for (Histogram h : new TreeMap<>(histograms).values()) {
+                Snapshot s = h.snapshot();
+                out.print("histogram," + h.getName() + "," + s.count + "," + s.sum + "," + s.mean() + ","
+                        + s.p50 + "," + s.p90 + "," + s.p99 + "," + s.max + "\r\n");
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot of all metrics to a JSON file.
+     *
+     * @param filename The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public static void exportJson(String filename) throws IOException {
+        StringBuilder sb = new StringBuilder("{\n  \"counters\": {");
+        String sep = "\n";
+        for (Counter c : new TreeMap<>(counters).values()) {
+            sb.append(sep).append("    \"").append(c.getName()).append("\": ").append(c.get());
+            sep = ",\n";
+        }
+        sb.append("\n  },\n  \"histograms\": {");
+        sep = "\n";
+        for (Histogram h : new TreeMap<>(histograms).values()) {
+            Snapshot s = h.snapshot();
+            sb.append(sep).append("    \"").append(h.getName()).append("\": {")
+                    .append("\"count\": ").append(s.count)
+                    .append(", \"sum\": ").append(s.sum)
+                    .append(", \"mean\": ").append(s.mean())
+                    .append(", \"p50\": ").append(s.p50)
+                    .append(", \"p90\": ").append(s.p90)
+                    .append(", \"p99\": ").append(s.p99)
+                    .append(", \"max\": ").append(s.max).append("}");
+            sep = ",\n";
+        }
+        sb.append("\n  }\n}\n");
+        try (PrintWriter out = new PrintWriter(filename)) {
+            out.print(sb);
+        }
+    }
+
+    /**
+     * Formats a duration in nanoseconds with a suitable unit.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return String
+     */
+    private static String formatNanos(long nanos) {
+        if (nanos < 10_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 10_000_000) {
+            return nanos / 1000 + "µs";
+        }
+        return nanos / 1_000_000 + "ms";
+    }
+
+    /**
+     * A monotonically increasing counter, striped internally by a LongAdder.
+     */
+    public static class Counter {
+        /** The name of the counter. */
+        private final String name;
+        /** The striped sum. */
+        private final LongAdder adder = new LongAdder();
+
+        /**
+         * Creates a counter. Use {@link Metrics#counter(String)} to register one.
+         *
+         * @param name The name of the counter.
+         */
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the name of the counter.
+         *
+         * @return String
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Adds one to the counter.
+         */
+        public void increment() {
+            adder.increment();
+        }
+
+        /**
+         * Adds the given amount to the counter.
+         *
+         * @param amount The amount to add.
+         */
+        public void add(long amount) {
+            adder.add(amount);
+        }
+
+        /**
+         * Returns the current value of the counter.
+         *
+         * @return long
+         */
+        public long get() {
+            return adder.sum();
+        }
+
+        /**
+         * Sets the counter back to zero.
+         */
+        private void reset() {
+            adder.reset();
+        }
+    }
+
+    /**
+     * A log-linear histogram of non-negative values, typically durations in nanoseconds.
+     * Every power of two is split into four buckets, so the relative error is at most 25%.
+     * The buckets are striped per thread to avoid contention.
+     */
+    public static class Histogram {
+        /** Number of sub-buckets per power of two, as a power of two. */
+        private static final int SUB_BITS = 2;
+        /** Number of sub-buckets per power of two. */
+        private static final int SUB = 1 << SUB_BITS;
+        /** Total number of buckets needed to cover all non-negative longs. */
+        static final int BUCKETS = (64 - SUB_BITS) * SUB;
+        /** Number of stripes, a power of two. */
+        private static final int STRIPES = Math.min(16,
+                Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+
+        /** The name of the histogram. */
+        private final String name;
+        /** The bucket counts, STRIPES consecutive blocks of BUCKETS. */
+        private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+        /** The sum of all recorded values. */
+        private final LongAdder sum = new LongAdder();
+        /** The largest recorded value. */
+        private final AtomicLong max = new AtomicLong();
+
+        /**
+         * Creates a histogram. Use {@link Metrics#histogram(String)} to register one.
+         *
+         * @param name The name of the histogram.
+         */
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the name of the histogram.
+         *
+         * @return String
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Records the time elapsed since the given timestamp from {@link Metrics#start()}.
+         *
+         * @param start The timestamp, or 0 if metrics were disabled.
+         */
+        public void recordSince(long start) {
+            if (start != 0) {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Records a single value. Negative values are recorded as 0.
+         *
+         * @param value The value to record.
+         */
+        public void record(long value) {
+            if (value < 0) {
+                value = 0;
+            }
+            int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+            counts.getAndIncrement(stripe * BUCKETS + bucketOf(value));
+            sum.add(value);
+            long m = max.get();
+            while (value > m && !max.compareAndSet(m, value)) {
+                m = max.get();
+            }
+        }
+
+        /**
+         * Returns the bucket a value belongs in.
+         *
+         * @param value A non-negative value.
+         * @return int
+         */
+        static int bucketOf(long value) {
+            if (value < SUB) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB - 1);
+            return (exponent - SUB_BITS + 1) * SUB + sub;
+        }
+
+        /**
+         * Returns the largest value that belongs in the given bucket.
+         *
+         * @param bucket The bucket.
+         * @return long
+         */
+        static long upperBound(int bucket) {
+            if (bucket < SUB) {
+                return bucket;
+            }
+            int exponent = bucket / SUB + SUB_BITS - 1;
+            long width = 1L << (exponent - SUB_BITS);
+            long lower = (long) (SUB + bucket % SUB) << (exponent - SUB_BITS);
+            return lower + width - 1;
+        }
+
+        /**
+         * Merges all stripes into a consistent-enough snapshot.
+         *
+         * @return Snapshot
+         */
+        public Snapshot snapshot() {
+            long[] merged = new long[BUCKETS];
+            long count = 0;
+            for (int s = 0; s < STRIPES; s++) {
+                for (int b = 0; b < BUCKETS; b++) {
+                    long c = counts.get(s * BUCKETS + b);
+                    merged[b] += c;
+                    count += c;
+                }
+            }
+            long maxValue = max.get();
+            return new Snapshot(count, sum.sum(), maxValue,
+                    percentile(merged, count, 0.50, maxValue),
+                    percentile(merged, count, 0.90, maxValue),
+                    percentile(merged, count, 0.99, maxValue));
+        }
+
+        /**
+         * Estimates a percentile from merged bucket counts.
+         *
+         * @param merged   The merged bucket counts.
+         * @param count    The total number of values.
+         * @param quantile The quantile, in [0,1].
+         * @param maxValue The largest recorded value.
+         * @return long
+         */
+        private static long percentile(long[] merged, long count, double quantile, long maxValue) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += merged[b];
+                if (seen >= rank) {
+                    return Math.min(upperBound(b), maxValue);
+                }
+            }
+            return maxValue;
+        }
+
+        /**
+         * Sets every bucket back to zero.
+         */
+        private void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+            sum.reset();
+            max.set(0);
+        }
+    }
+
+    /**
+     * An immutable summary of a histogram at some point in time.
+     */
+    public static class Snapshot {
+        /** Number of recorded values. */
+        public final long count;
+        /** Sum of the recorded values. */
+        public final long sum;
+        /** Largest recorded value. */
+        public final long max;
+        /** Estimated percentiles. */
+        public final long p50, p90, p99;
+
+        /**
+         * Creates a snapshot.
+         *
+         * @param count The number of values.
+         * @param sum   The sum of the values.
+         * @param max   The largest value.
+         * @param p50   The estimated median.
+         * @param p90   The estimated 90th percentile.
+         * @param p99   The estimated 99th percentile.
+         */
+        Snapshot(long count, long sum, long max, long p50, long p90, long p99) {
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+        }
+
+        /**
+         * Returns the mean of the recorded values, or 0 if nothing was recorded.
+         *
+         * @return double
+         */
+        public double mean() {
+            return count == 0 ? 0 : sum / (double) count;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.List;
+
+/**
+ * The most valuable neighbour of every city of a game, as chosen by the GreedyPlayer: the city with the highest value
+ * per step among the cities one road away, if that is positive.
+ * The best neighbour of a city is computed the first time it is asked for, and kept until the value of one of its
+ * neighbours changes, so a greedy decision takes constant time as long as the cities around it are untouched.
+ * @version v1.0
+ */
+public class NeighbourIndex {
+
+    private final Game game;
+
+    /** The roads leaving every city, in the order of the network */
+    private final Road[][] roads;
+
+    /** The cities with a road to every city, whose best neighbour depends on its value */
+    private final int[][] incoming;
+
+    /** The best neighbour of every city, and whether it is up to date */
+    private final City[] best;
+    private final boolean[] known;
+
+    /**
+     * Creates an index over the cities of a game.
+     *
+     * @param game //The game, whose countries and roads are complete.
+     */
+    public NeighbourIndex(Game game) {
+        this.game = game;
+        int size = game.getCityCount();
+        roads = new Road[size][];
+        int[] degree = new int[size];
+        for (int i = 0; i < size; i++) {
+            City city = game.getCity(i);
+            List<Road> list = city.getCountry().getRoads(city);
+            roads[i] = list.toArray(new Road[list.size()]);
+            for (Road r : roads[i]) {
+                degree[game.indexOf(r.getTo())]++;
+            }
+        }
+        incoming = new int[size][];
+        for (int i = 0; i < size; i++) {
+            incoming[i] = new int[degree[i]];
+            degree[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (Road r : roads[i]) {
+                int to = game.indexOf(r.getTo());
+                incoming[to][degree[to]++] = i;
+            }
+        }
+        best = new City[size];
+        known = new boolean[size];
+    }
+
+    /**
+     * Returns the neighbour of a city with the highest value per step, or null if no neighbour has a positive value.
+     * Ties are won by the first road in the network. Cities outside the network of the game are looked up directly.
+     *
+     * @param city //The city.
+     * @return City
+     */
+    public City getBest(City city) {
+        int i = game.indexOf(city);
+        if (i < 0) {
+            List<Road> list = city.getCountry().getRoads(city);
+            return best(list.toArray(new Road[list.size()]));
+        }
+        if (!known[i]) {
+            best[i] = best(roads[i]);
+            known[i] = true;
+        }
+        return best[i];
+    }
+
+    /**
+     * Finds the destination with the highest positive value per step among some roads.
+     */
+    private static City best(Road[] roads) {
+        double value = 0;
+        City bestCity = null;
+        for (Road road : roads) {
+            double v = road.getTo().getValue() / (double) road.getLength();
+            if (v > value) {
+                bestCity = road.getTo();
+                value = v;
+            }
+        }
+        return bestCity;
+    }
+
+    /**
+     * Forgets the best neighbour of every city next to a city whose value has changed.
+     *
+     * @param city //The city whose value has changed.
+     */
+    public void invalidate(City city) {
+        int i = game.indexOf(city);
+        if (i < 0) {
+            return;
+        }
+        for (int from : incoming[i]) {
+            known[from] = false;
+        }
+    }
+
+    /**
+     * Returns the game this index belongs to.
+     *
+     * @return Game
+     */
+    public Game getGame() {
+        return game;
+    }
+}
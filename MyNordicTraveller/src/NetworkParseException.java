@@ -0,0 +1,15 @@
+/**
+ * Thrown when a network cannot be read, because its data is malformed.
+ */
+class NetworkParseException extends RuntimeException {
+
+    public NetworkParseException(String string) {
+        super(string);
+    }
+
+    /**
+     * 
+     */
+    private static final long serialVersionUID = -919893285667013374L;
+    
+}
@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Distributions of the outcomes of many finished games, in constant memory per player and city.
+ * For every player (by display name) it keeps the final money, the number of robberies and the toll paid;
+ * for every city it keeps the number of visits per game. Instances are not thread safe, but can be merged,
+ * so every worker thread keeps its own (see {@link PerThread}) and they are combined at the end.
+ *
+ * @version v1.0
+ */
+public class OutcomeStats {
+    /**
+     * The number of games added.
+     */
+    private long games;
+    /**
+     * The smallest and largest seed added.
+     */
+    private int firstSeed = Integer.MAX_VALUE, lastSeed = Integer.MIN_VALUE;
+    /**
+     * The settings and network hash of the first game added.
+     */
+    private String settings;
+    private long networkHash;
+    /**
+     * The statistics by player name.
+     */
+    private final Map<String, PlayerStats> players = new TreeMap<>();
+    /**
+     * The number of visits per game, by city name.
+     */
+    private final Map<String, RunningStats> visits = new TreeMap<>();
+
+    /**
+     * Adds the outcome of a finished game. Players deactivated by the settings of the game are left out.
+     *
+     * @param seed //The seed the game was created with
+     * @param game //The finished game
+     */
+    public void add(int seed, Game game) {
+        if (games++ == 0) {
+            settings = game.getSettings().toString().replace("\r\n", " ").trim();
+            networkHash = game.getNetworkHash();
+        }
+        firstSeed = Math.min(firstSeed, seed);
+        lastSeed = Math.max(lastSeed, seed);
+        for (Player p : game.getPlayers()) {
+            if (game.isActive(p)) {
+                players.computeIfAbsent(p.getName(), k -> new PlayerStats()).add(p);
+            }
+        }
+        for (Country country : game.getCountries()) {
+            for (City city : country.getNetwork().keySet()) {
+                visits.computeIfAbsent(city.getName(), k -> new RunningStats()).add(city.getVisits());
+            }
+        }
+    }
+
+    /**
+     * Adds everything from another instance to this one.
+     *
+     * @param other //The other instance, which is not changed
+     */
+    public void merge(OutcomeStats other) {
+        if (other.games == 0) {
+            return;
+        }
+        if (games == 0) {
+            settings = other.settings;
+            networkHash = other.networkHash;
+        }
+        games += other.games;
+        firstSeed = Math.min(firstSeed, other.firstSeed);
+        lastSeed = Math.max(lastSeed, other.lastSeed);
+        other.players.forEach((name, s) -> players.computeIfAbsent(name, k -> new PlayerStats()).merge(s));
+        other.visits.forEach((name, s) -> visits.computeIfAbsent(name, k -> new RunningStats()).merge(s));
+    }
+
+    /**
+     * Returns the number of games added.
+     *
+     * @return long
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the statistics of a player, or null if no such player has played.
+     *
+     * @param name //The display name of the player
+     * @return PlayerStats
+     */
+    public PlayerStats getPlayer(String name) {
+        return players.get(name);
+    }
+
+    /**
+     * Returns the distribution of visits per game of a city, or null if the city is unknown.
+     *
+     * @param name //The name of the city
+     * @return RunningStats
+     */
+    public RunningStats getVisits(String name) {
+        return visits.get(name);
+    }
+
+    /**
+     * Writes a JSON summary, including the seed range, settings and network hash of the run.
+     *
+     * @param filename //The file to write to
+     * @throws IOException If the file could not be written
+     */
+    public void writeJson(String filename) throws IOException {
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"games\": ").append(games).append(",\n");
+        sb.append("  \"seeds\": [").append(games == 0 ? 0 : firstSeed).append(", ")
+                .append(games == 0 ? 0 : lastSeed).append("],\n");
+        sb.append("  \"settings\": ").append(json(settings == null ? "" : settings)).append(",\n");
+        sb.append("  \"network\": \"").append(String.format("%016x", networkHash)).append("\",\n");
+        sb.append("  \"players\": {");
+        String sep = "\n";
+        for (Map.Entry<String, PlayerStats> e : players.entrySet()) {
+            PlayerStats s = e.getValue();
+            sb.append(sep).append("    ").append(json(e.getKey())).append(": {\n");
+            sb.append("      \"money\": ").append(json(s.money)).append(",\n");
+            sb.append("      \"moneyQuantiles\": {\"p10\": ").append(s.moneyDigest.quantile(0.1))
+                    .append(", \"p50\": ").append(s.moneyDigest.quantile(0.5))
+                    .append(", \"p90\": ").append(s.moneyDigest.quantile(0.9))
+                    .append(", \"p99\": ").append(s.moneyDigest.quantile(0.99)).append("},\n");
+            sb.append("      \"moneyHistogram\": {\"p50\": ").append(s.moneyHistogram.quantile(0.5))
+                    .append(", \"p99\": ").append(s.moneyHistogram.quantile(0.99)).append("},\n");
+            sb.append("      \"robberies\": ").append(json(s.robberies)).append(",\n");
+            sb.append("      \"tollsPaid\": ").append(json(s.tolls)).append("\n    }");
+            sep = ",\n";
+        }
+        sb.append("\n  },\n  \"visits\": {");
+        sep = "\n";
+        for (Map.Entry<String, RunningStats> e : visits.entrySet()) {
+            sb.append(sep).append("    ").append(json(e.getKey())).append(": ").append(json(e.getValue()));
+            sep = ",\n";
+        }
+        sb.append("\n  }\n}\n");
+        try (PrintWriter out = new PrintWriter(filename, "UTF-8")) {
+            out.print(sb);
+        }
+    }
+
+    /**
+     * Quotes a string for JSON, escaping quotes, backslashes and control characters.
+     *
+     * @param s //The string
+     * @return String
+     */
+    static String json(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String json(RunningStats s) {
+        return "{\"mean\": " + s.getMean() + ", \"sd\": " + s.getStandardDeviation()
+                + ", \"min\": " + s.getMin() + ", \"max\": " + s.getMax() + "}";
+    }
+
+    /**
+     * The distributions of one player: final money (mean/variance, histogram and quantiles), robberies and tolls.
+     */
+    public static class PlayerStats {
+        /**
+         * The final money.
+         */
+        private final RunningStats money = new RunningStats();
+        private final LogHistogram moneyHistogram = new LogHistogram();
+        private final TDigest moneyDigest = new TDigest();
+        /**
+         * The robberies and toll paid per game.
+         */
+        private final RunningStats robberies = new RunningStats(), tolls = new RunningStats();
+
+        private void add(Player p) {
+            money.add(p.getMoney());
+            moneyHistogram.add(p.getMoney());
+            moneyDigest.add(p.getMoney());
+            robberies.add(p.getRobberies());
+            tolls.add(p.getTollsPaid());
+        }
+
+        private void merge(PlayerStats other) {
+            money.merge(other.money);
+            moneyHistogram.merge(other.moneyHistogram);
+            moneyDigest.merge(other.moneyDigest);
+            robberies.merge(other.robberies);
+            tolls.merge(other.tolls);
+        }
+
+        /**
+         * Returns the mean and variance of the final money.
+         *
+         * @return RunningStats
+         */
+        public RunningStats getMoney() {
+            return money;
+        }
+
+        /**
+         * Returns the histogram of the final money.
+         *
+         * @return LogHistogram
+         */
+        public LogHistogram getMoneyHistogram() {
+            return moneyHistogram;
+        }
+
+        /**
+         * Returns the quantile digest of the final money.
+         *
+         * @return TDigest
+         */
+        public TDigest getMoneyDigest() {
+            return moneyDigest;
+        }
+
+        /**
+         * Returns the number of robberies per game.
+         *
+         * @return RunningStats
+         */
+        public RunningStats getRobberies() {
+            return robberies;
+        }
+
+        /**
+         * Returns the toll paid per game.
+         *
+         * @return RunningStats
+         */
+        public RunningStats getTollsPaid() {
+            return tolls;
+        }
+    }
+
+    /**
+     * One OutcomeStats per thread, so worker threads can add games without any contention.
+     */
+    public static class PerThread {
+        /**
+         * Every instance handed out, for merging.
+         */
+        private final Queue<OutcomeStats> all = new ConcurrentLinkedQueue<>();
+        /**
+         * The instance of each thread.
+         */
+        private final ThreadLocal<OutcomeStats> local = ThreadLocal.withInitial(() -> {
+            OutcomeStats s = new OutcomeStats();
+            all.add(s);
+            return s;
+        });
+
+        /**
+         * Returns the instance of the calling thread.
+         *
+         * @return OutcomeStats
+         */
+        public OutcomeStats get() {
+            return local.get();
+        }
+
+        /**
+         * Merges the instances of all threads. Only call this once the threads have stopped adding games.
+         *
+         * @return A new instance containing everything
+         */
+        public OutcomeStats merge() {
+            OutcomeStats merged = new OutcomeStats();
+            for (OutcomeStats s : all) {
+                merged.merge(s);
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs headless games over many combinations of Settings, to balance toll size, robbery risk and robbery losses.
+ * Points are taken from a full grid or from a Latin hypercube, and every point is played with a number of seeds.
+ * Each game gets its own in-memory Settings object, so 'settings.dat' is never read or written.
+ *
+ * @version v1.0
+ */
+public class ParameterSweep {
+    /**
+     * The ranges of the Settings fields.
+     */
+    private Range toll = new Range(20, 20, 1),
+            risk = new Range(20, 20, 1),
+            minLoss = new Range(10, 10, 1),
+            maxLoss = new Range(50, 50, 1);
+    /**
+     * The active player masks to try, as in the first line of 'settings.dat' (random, greedy, smart).
+     */
+    private List<boolean[]> masks = new ArrayList<>();
+    /**
+     * The lines of the network file, shared by all games.
+     */
+    private final String[] network;
+    /**
+     * One factory per player in every game.
+     */
+    private final List<Function<Position, ? extends Player>> lineUp;
+
+    /**
+     * Creates a sweep over the given network, with one Smart, Greedy and Random player per game.
+     *
+     * @param network //The lines of the network file
+     */
+    public ParameterSweep(String[] network) {
+        this.network = network;
+        this.lineUp = new ArrayList<>();
+        lineUp.add(SmartPlayer::new);
+        lineUp.add(GreedyPlayer::new);
+        lineUp.add(RandomPlayer::new);
+        masks.add(new boolean[]{true, true, true});
+    }
+
+    /**
+     * Sets the range of the toll size (in %).
+     *
+     * @param toll //The range
+     */
+    public void setToll(Range toll) {
+        this.toll = toll;
+    }
+
+    /**
+     * Sets the range of the risk of robbery (in %).
+     *
+     * @param risk //The range
+     */
+    public void setRisk(Range risk) {
+        this.risk = risk;
+    }
+
+    /**
+     * Sets the range of the minimum loss when robbed (in €).
+     *
+     * @param minLoss //The range
+     */
+    public void setMinLoss(Range minLoss) {
+        this.minLoss = minLoss;
+    }
+
+    /**
+     * Sets the range of the maximum loss when robbed (in €).
+     *
+     * @param maxLoss //The range
+     */
+    public void setMaxLoss(Range maxLoss) {
+        this.maxLoss = maxLoss;
+    }
+
+    /**
+     * Sets the active player masks to try.
+     *
+     * @param masks //The masks, each of length 3 (random, greedy, smart)
+     */
+    public void setMasks(List<boolean[]> masks) {
+        this.masks = new ArrayList<>(masks);
+    }
+
+    /**
+     * Returns every combination of the ranges and masks. Combinations where the minimum loss exceeds the maximum
+     * loss are left out.
+     *
+     * @return List<Settings>
+     */
+    public List<Settings> grid() {
+        List<Settings> points = new ArrayList<>();
+        for (boolean[] mask : masks)
+            for (int t = 0; t < toll.size(); t++)
+                for (int r = 0; r < risk.size(); r++)
+                    for (int lo = 0; lo < minLoss.size(); lo++)
+                        for (int hi = 0; hi < maxLoss.size(); hi++) {
+                            addPoint(points, mask, toll.get(t), risk.get(r), minLoss.get(lo), maxLoss.get(hi));
+                        }
+        return points;
+    }
+
+    /**
+     * Returns a Latin hypercube sample: every range is split into as many strata as there are samples, and each
+     * stratum of each range is used exactly once. Masks are cycled through the samples.
+     * Where the sampled minimum loss exceeds the sampled maximum loss the two are swapped, so every sample is kept.
+     *
+     * @param samples //The number of samples
+     * @param seed    //The seed for the random permutations
+     * @return List<Settings>
+     */
+    public List<Settings> latinHypercube(int samples, long seed) {
+        Random random = new Random(seed);
+        int[][] strata = new int[4][];
+        for (int d = 0; d < strata.length; d++) {
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < samples; i++)
+                order.add(i);
+            Collections.shuffle(order, random);
+            strata[d] = order.stream().mapToInt(Integer::intValue).toArray();
+        }
+        List<Settings> points = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            int t = toll.sample(strata[0][i], samples, random);
+            int r = risk.sample(strata[1][i], samples, random);
+            int lo = minLoss.sample(strata[2][i], samples, random);
+            int hi = maxLoss.sample(strata[3][i], samples, random);
+            addPoint(points, masks.get(i % masks.size()), t, r, Math.min(lo, hi), Math.max(lo, hi));
+        }
+        return points;
+    }
+
+    private static void addPoint(List<Settings> points, boolean[] mask, int toll, int risk, int min, int max) {
+        if (min > max) {
+            return;
+        }
+        Settings s = new Settings(mask.clone(), toll, risk, min, max, 4);
+        s.setPersistent(false);
+        points.add(s);
+    }
+
+    /**
+     * Plays every point with the seeds 0, 1, ..., seeds-1, all in parallel, and aggregates the results per point.
+     *
+     * @param points  //The settings to try
+     * @param seeds   //The number of seeds per point
+     * @param threads //The number of worker threads
+     * @return One aggregate per point, in the same order as the points
+     * @throws InterruptedException If interrupted while waiting for games
+     * @throws ExecutionException   If a game throws an exception
+     */
+    public List<Point> run(List<Settings> points, int seeds, int threads)
+            throws InterruptedException, ExecutionException {
+        List<Point> results = new ArrayList<>();
+        for (Settings s : points)
+            results.add(new Point(s));
+
+        Iterator<Callable<Object[]>> tasks = new Iterator<Callable<Object[]>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < results.size() * seeds;
+            }
+
+            @Override
+            public Callable<Object[]> next() {
+                Point point = results.get(next / seeds);
+                int seed = next++ % seeds;
+                return () -> new Object[]{point, play(point.getSettings(), seed)};
+            }
+        };
+        new BatchRunner(threads).run(tasks, r -> ((Point) r[0]).add((GameResult) r[1]));
+        return results;
+    }
+
+    /**
+     * Plays a single game with a copy of the given settings.
+     *
+     * @param settings //The settings
+     * @param seed     //The seed
+     * @return GameResult
+     */
+    private GameResult play(Settings settings, int seed) {
+        Settings copy = new Settings(settings);
+        copy.setPersistent(false);
+        return new GameResult(seed, BatchRunner.play(Generator.generateGame(seed, network, copy, lineUp)));
+    }
+
+    /**
+     * Writes the aggregated results as CSV, one line per point and player.
+     *
+     * @param results  //The aggregated results
+     * @param filename //The file to write to
+     * @throws IOException If the file could not be written
+     */
+    public static void writeCsv(List<Point> results, String filename) throws IOException {
+        try (PrintWriter out = new PrintWriter(filename)) {
+            out.print("active,toll,risk,minLoss,maxLoss,player,games,mean,sd\r\n");
+            for (Point p : results) {
+                out.print(p.toCsv());
+            }
+        }
+    }
+
+    /**
+     * Runs a sweep on 'network.dat' and writes the results to 'sweep.csv'.
+     * Arguments: [seeds per point] [grid | number of Latin hypercube samples] [toll=a:b:s] [risk=a:b:s]
+     * [min=a:b:s] [max=a:b:s] [active=111,110,...] [threads=n].
+     *
+     * @param args //The command line arguments
+     * @throws Exception If the sweep fails
+     */
+    public static void main(String[] args) throws Exception {
+        String[] network = Generator.readNetwork("network.dat");
+        if (network == null) {
+            System.out.println("Cannot run a sweep without 'network.dat'. Aborting...");
+            return;
+        }
+        ParameterSweep sweep = new ParameterSweep(network);
+        sweep.setToll(new Range(0, 50, 10));
+        sweep.setRisk(new Range(0, 50, 10));
+        sweep.setMinLoss(new Range(0, 50, 25));
+        sweep.setMaxLoss(new Range(50, 100, 25));
+
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String sampling = args.length > 1 ? args[1] : "grid";
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i < args.length; i++) {
+            String[] kv = args[i].split("=", 2);
+            switch (kv[0]) {
+                case "toll":
+                    sweep.setToll(Range.parse(kv[1]));
+                    break;
+                case "risk":
+                    sweep.setRisk(Range.parse(kv[1]));
+                    break;
+                case "min":
+                    sweep.setMinLoss(Range.parse(kv[1]));
+                    break;
+                case "max":
+                    sweep.setMaxLoss(Range.parse(kv[1]));
+                    break;
+                case "active":
+                    List<boolean[]> masks = new ArrayList<>();
+                    for (String m : kv[1].split(","))
+                        masks.add(new boolean[]{m.charAt(0) == '1', m.charAt(1) == '1', m.charAt(2) == '1'});
+                    sweep.setMasks(masks);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(kv[1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: '" + args[i] + "'.");
+            }
+        }
+
+        List<Settings> points = sampling.equals("grid") ? sweep.grid()
+                : sweep.latinHypercube(Integer.parseInt(sampling), 0);
+        long start = System.nanoTime();
+        List<Point> results = sweep.run(points, seeds, threads);
+        writeCsv(results, "sweep.csv");
+        System.out.printf("Swept %d points x %d seeds in %.1f s, results written to 'sweep.csv'.%n",
+                points.size(), seeds, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * An inclusive range of integers with a step size.
+     */
+    public static class Range {
+        /**
+         * The bounds and the step size.
+         */
+        private final int min, max, step;
+
+        /**
+         * Creates a range.
+         *
+         * @param min  //The smallest value
+         * @param max  //The largest value (included if reached by the step size)
+         * @param step //The step size, at least 1
+         */
+        public Range(int min, int max, int step) {
+            if (max < min || step < 1) {
+                throw new IllegalArgumentException("Invalid range " + min + ":" + max + ":" + step + ".");
+            }
+            this.min = min;
+            this.max = max;
+            this.step = step;
+        }
+
+        /**
+         * Parses a range written as min:max:step, min:max or a single value.
+         *
+         * @param s //The string representation
+         * @return Range
+         */
+        public static Range parse(String s) {
+            String[] parts = s.split(":");
+            int min = Integer.parseInt(parts[0]);
+            int max = parts.length > 1 ? Integer.parseInt(parts[1]) : min;
+            int step = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+            return new Range(min, max, step);
+        }
+
+        /**
+         * Returns the number of values in the range.
+         *
+         * @return int
+         */
+        public int size() {
+            return (max - min) / step + 1;
+        }
+
+        /**
+         * Returns the i'th value of the range.
+         *
+         * @param i //The index
+         * @return int
+         */
+        public int get(int i) {
+            return min + i * step;
+        }
+
+        /**
+         * Returns a random value of the range from the given stratum, when the range is split into n strata.
+         *
+         * @param stratum //The stratum, in [0,n)
+         * @param n       //The number of strata
+         * @param random  //The random generator
+         * @return int
+         */
+        int sample(int stratum, int n, Random random) {
+            int size = size();
+            int lo = (int) ((long) stratum * size / n);
+            int hi = Math.max(lo + 1, (int) ((long) (stratum + 1) * size / n));
+            return get(lo + random.nextInt(hi - lo));
+        }
+    }
+
+    /**
+     * The aggregated results of all games played at one point of a sweep.
+     */
+    public static class Point {
+        /**
+         * The settings of the point.
+         */
+        private final Settings settings;
+        /**
+         * The final money, by player name.
+         */
+        private final Map<String, RunningStats> money = new TreeMap<>();
+
+        /**
+         * Creates an empty aggregate.
+         *
+         * @param settings //The settings of the point
+         */
+        Point(Settings settings) {
+            this.settings = settings;
+        }
+
+        /**
+         * Returns the settings of the point.
+         *
+         * @return Settings
+         */
+        public Settings getSettings() {
+            return settings;
+        }
+
+        /**
+         * Adds the result of one game.
+         *
+         * @param result //The result
+         */
+        void add(GameResult result) {
+            for (int i = 0; i < result.size(); i++) {
+                money.computeIfAbsent(result.getName(i), k -> new RunningStats()).add(result.getMoney(i));
+            }
+        }
+
+        /**
+         * Returns the mean final money of a player, or 0 if it did not play.
+         *
+         * @param name //The display name of the player
+         * @return double
+         */
+        public double getMean(String name) {
+            RunningStats m = money.get(name);
+            return m == null ? 0 : m.getMean();
+        }
+
+        /**
+         * Returns the lines of the CSV output for this point.
+         *
+         * @return String
+         */
+        String toCsv() {
+            StringBuilder sb = new StringBuilder();
+            String prefix = "" + (settings.isActive(0) ? 1 : 0) + (settings.isActive(1) ? 1 : 0)
+                    + (settings.isActive(2) ? 1 : 0) + "," + settings.getTollToBePaid() + "," + settings.getRisk()
+                    + "," + settings.getMinRobbery() + "," + settings.getMaxRobbery() + ",";
+            for (Map.Entry<String, RunningStats> e : money.entrySet()) {
+                RunningStats m = e.getValue();
+                sb.append(prefix).append(e.getKey()).append(',').append(m.getCount()).append(',')
+                        .append(m.getMean()).append(',').append(m.getStandardDeviation()).append("\r\n");
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Stack;
+
+/**
+ * A path searched by a SmartSearch: its roads, its length and the value of following it.
+ * @author Nikolaj Ignatieff Schwartzbach
+ * @version 1.0.0
+ *
+ */
+class Path {
+
+    private Stack<Road> edges;
+    private int length;
+    private double value;
+    private double impulsiveness = 1.10;
+    
+    private SmartSearch source;
+    
+    public Path(SmartSearch source){
+        this.source = source;
+        edges = new Stack<Road>();
+        length = 0;
+        value = 0;
+    }
+    
+    public Path(SmartSearch source, Path other){
+        this.source = source;
+        edges = new Stack<Road>();
+        edges.addAll(other.edges);
+        length = other.length;
+        value = other.value;
+    }
+    public int compareTo(Path p){
+        if(value > p.value)
+            return 1;
+        if(value < p.value)
+            return -1;
+        if(length < p.length)
+            return 1;
+        if(length > p.length)
+            return -1;
+        return edges.peek().compareTo(p.edges.peek());
+    }
+    
+    public Road getRoad(){
+        return edges.peek();
+    }
+    
+    public int getLength(){
+        return length;
+    }
+    
+    public double getValue(){
+        return value;
+    }
+    
+    public boolean isEmpty(){
+        return edges.isEmpty();
+    }
+    
+    @Override
+    public String toString(){
+        if(edges.isEmpty())return "[]";
+        StringBuilder sb = new StringBuilder("[");
+        for(Road r : edges)
+            sb.append(r + ", ");
+        String s = sb.toString();
+        return s.substring(0,s.length()-2)+"]";
+    }
+    
+    public void addRoad(Road r, int penalty){
+        if(!edges.isEmpty()){
+            Road top = getRoad();
+            if(!top.getFrom().equals(r.getTo()))
+                throw new RuntimeException("Invalid road. You tried to add road to "+r.getTo()+", but the next city is "+top.getFrom());
+        } else {
+            value += valueFrom(r, penalty);
+        }
+        edges.add(r);
+        length += r.getLength();
+        
+        
+        value+=valueTo(r, penalty);
+    }
+    
+    public double valueFrom(Road r, int penalty){
+        Settings s = r.getFrom().getCountry().getGame().getSettings();
+        double v = source.value(r.getFrom()) / (Math.pow(2,penalty-1) * Math.pow(impulsiveness, edges.size()));//Check if we have to pay toll
+        
+        //Check if we visit a capital
+        if(r.getFrom() instanceof CapitalCity)
+            v -= value/2;
+        
+        if(r.getFrom().getCountry() instanceof MafiaCountry)
+            v -= s.getRisk() / 100.0 * (s.getMinRobbery() + s.getMaxRobbery())/2;
+        
+        return v;
+    }
+    
+    public double valueTo(Road r, int penalty){
+        Settings s = r.getFrom().getCountry().getGame().getSettings();
+        double v = source.value(r.getTo()) / (Math.pow(2,penalty-1) * Math.pow(impulsiveness, edges.size()));
+        
+        //Check if we have to pay toll
+        if(r.getTo() instanceof BorderCity && !r.getFrom().getCountry().equals(r.getTo().getCountry()))
+            v -= source.getMoney() * s.getTollToBePaid() / 100.0;
+        
+        //Check if we visit a capital
+        if(r.getTo() instanceof CapitalCity)
+            v -= source.getMoney()/2;
+        
+        if(r.getTo().getCountry() instanceof MafiaCountry)
+            v -= s.getRisk() / 100.0 * (s.getMinRobbery() + s.getMaxRobbery())/2;
+        
+        return v;
+    }
+}
\ No newline at end of file
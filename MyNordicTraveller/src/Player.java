@@ -11,19 +11,32 @@ import java.util.Stack;
  */
 public class Player implements Comparable<Player> {
 
-    /** The Position objects of this Player. 'pending' is the next position to attempt after finishing 'pos'. */
-    private Position pos, pending;
+    /**
+     * The Position objects of this Player. 'pending' is the next position to attempt after finishing 'pos'.
+     * Both are owned by the Player and moved in place, so travelling does not create new objects.
+     */
+    private final Position pos, pending;
+    
+    /** Whether or not there is a pending position */
+    private boolean hasPending;
     
     /** The amount of money this Player has collected */
     private int money;
     
+    /** How many times this Player has been robbed, and how much toll it has paid, since the game started */
+    private int robberies, tollsPaid;
+    
+    /** Time spent per step of a GUI Player */
+    private static final Metrics.Histogram STEP_TIME = Metrics.histogram("player.gui.step");
+    
     /**
      * Instantiates a new GUI Player with the specified position and balance.
      * @param pos The position of this player.
      * @param money The starting balance of this player.
      */
     public Player(Position pos, int money){
-        this.pos = pos;
+        this.pos = new Position(pos);
+        this.pending = new Position(pos);
         this.money = money;
     }
 
@@ -46,14 +59,63 @@ public class Player implements Comparable<Player> {
      * Advances this Player one step.
      */
     public void step(){
+        long start = Metrics.start();
+        advance();
+        STEP_TIME.recordSince(start);
+    }
+    
+    /**
+     * Moves this Player one step along its current road, collecting money on arrival.
+     * Subclasses call this before deciding where to go next.
+     */
+    protected void advance(){
         if(pos.move() && pos.hasArrived()){
             money += pos.getTo().arrive(this);
-            if(pending!=null && pos.getTo().equals(pending.getFrom()))
-                pos = pending;
-            pending = null;
+            if(hasPending && pos.getTo().equals(pending.getFrom()))
+                pos.set(pending);
+            hasPending = false;
         }
     }
     
+    /**
+     * Resets the statistics of this Player (robberies and tolls), at the start of a new game.
+     */
+    public void resetStatistics(){
+        robberies = 0;
+        tollsPaid = 0;
+    }
+    
+    /**
+     * Registers that this Player was robbed.
+     */
+    void addRobbery(){
+        robberies++;
+    }
+    
+    /**
+     * Registers that this Player paid toll.
+     * @param toll The amount paid (in €).
+     */
+    void addToll(int toll){
+        tollsPaid += toll;
+    }
+    
+    /**
+     * Gets how many times this Player has been robbed since the game started.
+     * @return The number of robberies.
+     */
+    public int getRobberies(){
+        return robberies;
+    }
+    
+    /**
+     * Gets how much toll this Player has paid since the game started.
+     * @return The total toll paid (in €).
+     */
+    public int getTollsPaid(){
+        return tollsPaid;
+    }
+    
     /**
      * Gets how much money this Player has collected.
      * @return An integer representing how much money this Player has collected (in €).
@@ -64,6 +126,7 @@ public class Player implements Comparable<Player> {
     
     /**
      * Gets the current position of this Player instance.
+     * The same object is returned throughout the game, and changes as the player moves.
      * @return The current position of this Player instance.
      */
     public Position getPosition(){
@@ -76,8 +139,27 @@ public class Player implements Comparable<Player> {
      * @param newPos The new position to attempt to move this Player to.
      */
     public void setPosition(Position newPos){
-        if(pos.hasArrived() || getCountry().getGame().getStepsLeft()==getCountry().getGame().getTotalTimeLeft())
-            pos = newPos;
+        if(canMove())
+            pos.set(newPos);
+    }
+    
+    /**
+     * Starts travelling from one city towards a neighbouring city, as setPosition(getCountry().readyToTravel(from, to))
+     * but without creating a new Position.
+     * Only has effect, if the Player has arrived to its destination, or the game has just started.
+     * @param from The city to travel from.
+     * @param to The city to travel to. If there is no road to it, the player stays in 'from'.
+     */
+    public void travel(City from, City to){
+        if(canMove())
+            getCountry().readyToTravel(pos, from, to);
+    }
+    
+    /**
+     * Determines whether or not this Player may be given a new position.
+     */
+    private boolean canMove(){
+        return pos.hasArrived() || getCountry().getGame().getStepsLeft()==getCountry().getGame().getTotalTimeLeft();
     }
     
     /**
@@ -87,7 +169,33 @@ public class Player implements Comparable<Player> {
      * @param pending The pending position.
      */
     public void setPendingPosition(Position pending){
-        this.pending = pending;
+        hasPending = pending != null;
+        if(hasPending)
+            this.pending.set(pending);
+    }
+    
+    /**
+     * Gets the pending position of this Player.
+     * @return The pending position, or null if there is none.
+     */
+    Position getPendingPosition(){
+        return hasPending ? pending : null;
+    }
+    
+    /**
+     * Restores the money, statistics and positions of this Player, as recorded by a Checkpoint.
+     * @param money The money.
+     * @param robberies The number of robberies.
+     * @param tollsPaid The toll paid.
+     * @param pos The current position, including how far the player has moved.
+     * @param pending The pending position, or null if there is none.
+     */
+    void restore(int money, int robberies, int tollsPaid, Position pos, Position pending){
+        this.money = money;
+        this.robberies = robberies;
+        this.tollsPaid = tollsPaid;
+        this.pos.set(pos);
+        setPendingPosition(pending);
     }
     
     /**
@@ -120,15 +228,18 @@ public class Player implements Comparable<Player> {
     public void travelTo(City c){
         City playerCity = getPosition().getTo();
         if(getPosition().hasArrived()){
-            for(Road r : getCountry().getRoads(playerCity)){
-                if(r.getTo().equals(c)){
-                    setPosition(getCountry().readyToTravel(playerCity, c));
-                }
+            Road r = getCountry().getRoad(playerCity, c);
+            if(r != null && canMove()){
+                if(c.equals(playerCity))
+                    pos.set(playerCity, playerCity, 0);
+                else
+                    pos.set(playerCity, c, r.getLength());
             }
         } else if(c.equals(getPosition().getFrom())){
             turnAround();
         } else {
-            setPendingPosition(getPosition().getTo().getCountry().readyToTravel(playerCity, c));
+            getPosition().getTo().getCountry().readyToTravel(pending, playerCity, c);
+            hasPending = true;
         }
     }
 
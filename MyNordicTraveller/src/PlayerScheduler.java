@@ -0,0 +1,131 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The players of a game, in the order they move.
+ * It is the list returned by Game.getPlayers(), so players are still added to it directly. The list is sorted by
+ * name (stably, so players with the same name keep the order they were added in) only when it has been changed since
+ * it was last sorted, instead of at every step, and the players taking part are only worked out again when the list
+ * or the Settings have changed.
+ * Whether a player takes part depends on its category: the index of the AI player in Settings.isActive(int) that
+ * turns it on and off. Categories are registered per class, so other kinds of players can be switched on and off the
+ * same way; players of a class without a category always take part.
+ * @version v1.0
+ */
+public class PlayerScheduler extends ArrayList<Player> {
+
+    private static final long serialVersionUID = 2706482186017243517L;
+
+    /** The category of each class of player */
+    private static final Map<Class<?>, Integer> CATEGORIES = new ConcurrentHashMap<>();
+
+    static {
+        register(RandomPlayer.class, 0);
+        register(GreedyPlayer.class, 1);
+        register(SmartPlayer.class, 2);
+    }
+
+    private final transient Settings settings;
+
+    //The modification count when the list was last sorted, and the version of the settings the active players match
+    private int sortedAt = -1, settingsVersion;
+    private Player[] active = new Player[0];
+
+    /**
+     * Creates an empty list of players.
+     *
+     * @param settings //The settings deciding which players take part.
+     */
+    PlayerScheduler(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Registers the category of a class of players. Only players of exactly that class get the category, not those
+     * of its subclasses.
+     *
+     * @param type     //The class of players.
+     * @param category //The index in Settings.isActive(int), or -1 if the players always take part.
+     */
+    public static void register(Class<? extends Player> type, int category) {
+        if (category < 0) {
+            CATEGORIES.remove(type);
+        } else {
+            CATEGORIES.put(type, category);
+        }
+    }
+
+    /**
+     * Returns the category of a player.
+     *
+     * @param p //The player.
+     * @return int //The index in Settings.isActive(int), or -1 if the player always takes part.
+     */
+    public static int getCategory(Player p) {
+        Integer category = CATEGORIES.get(p.getClass());
+        return category == null ? -1 : category;
+    }
+
+    /**
+     * Determines whether a player takes part according to the settings.
+     *
+     * @param p //The player.
+     * @return boolean
+     */
+    boolean isActive(Player p) {
+        int category = getCategory(p);
+        return category < 0 || settings.isActive(category);
+    }
+
+    /**
+     * Replaces a player. Unlike adding and removing, this does not change the modification count of the list (nor do
+     * Collections.swap and ListIterator.set, which come here), so the list is marked as changed directly.
+     *
+     * @param index //The index of the player to replace.
+     * @param p     //The new player.
+     * @return Player //The player that was replaced.
+     */
+    @Override
+    public Player set(int index, Player p) {
+        sortedAt = -1;
+        return super.set(index, p);
+    }
+
+    /**
+     * Sorts the players by name if they have changed since they were last sorted.
+     *
+     * @return PlayerScheduler //This list.
+     */
+    PlayerScheduler sorted() {
+        if (modCount != sortedAt) {
+            Collections.sort(this);
+            sortedAt = modCount;
+            active = null;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the players taking part, in the order they move.
+     *
+     * @return Player[] //Must not be changed.
+     */
+    Player[] active() {
+        sorted();
+        if (active == null || settingsVersion != settings.getVersion()) {
+            settingsVersion = settings.getVersion();
+            int n = 0;
+            Player[] a = new Player[size()];
+            for (Player p : this) {
+                if (isActive(p)) {
+                    a[n++] = p;
+                }
+            }
+            active = n == a.length ? a : Arrays.copyOf(a, n);
+        }
+        return active;
+    }
+}
@@ -0,0 +1,308 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The moves of a SmartPlayer, searched in advance for one network and one set of Settings, so a TablePlayer can look
+ * them up in constant time during a game.
+ * The table holds the best next city for every city, number of steps left (up to a maximum) and value bucket. The
+ * buckets divide how much of the total value of the cities is left: with B buckets, bucket b covers a total between
+ * b/B and (b+1)/B of the initial total, and is searched with every city at (b+1)/B of its initial value, so the last
+ * bucket is the state at the start of a game. Searches assume a player without money, as at the start of a game.
+ * Tables are compiled in parallel, with one task per bucket and city which searches every number of steps in turn
+ * and reuses subtrees through a TranspositionTable.
+ * <p>
+ * The format is (all numbers big-endian): the magic number "NTPT", the format version, the network hash, the
+ * settings hash, the number of cities, the maximum number of steps, the number of buckets, and then for every bucket,
+ * number of steps from 0 to the maximum, and city by id, the id of the next city as a short, or -1 to stay.
+ * @version v1.0
+ */
+public class PolicyTable {
+
+    /** The first four bytes of a policy table ("NTPT") */
+    static final int MAGIC = 0x4E545054;
+
+    /** The version of the format */
+    static final int VERSION = 1;
+
+    private static final int HEADER = 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    /** Number of entries in the transposition table of every task, which searches many numbers of steps in turn */
+    private static final int TABLE_SIZE = 1 << 16;
+
+    private static final Metrics.Histogram COMPILE_TIME = Metrics.histogram("policy.compile");
+
+    private final long networkHash, settingsHash;
+    private final int cities, maxSteps, buckets;
+    private final short[] next;
+
+    private PolicyTable(long networkHash, long settingsHash, int cities, int maxSteps, int buckets, short[] next) {
+        this.networkHash = networkHash;
+        this.settingsHash = settingsHash;
+        this.cities = cities;
+        this.maxSteps = maxSteps;
+        this.buckets = buckets;
+        this.next = next;
+    }
+
+    /**
+     * Returns a hash of the settings a search depends on: the toll and the risk and size of robberies.
+     *
+     * @param s //The settings.
+     * @return long
+     */
+    public static long settingsHash(Settings s) {
+        long h = 0xcbf29ce484222325L;
+        for (int v : new int[]{s.getTollToBePaid(), s.getRisk(), s.getMinRobbery(), s.getMaxRobbery()}) {
+            h = (h ^ v) * 0x100000001b3L;
+        }
+        return h;
+    }
+
+    /**
+     * Compiles the table of a game, whose network and settings it is then valid for.
+     *
+     * @param game     //The game, which is not changed.
+     * @param maxSteps //The largest number of steps left to search for.
+     * @param buckets  //The number of value buckets.
+     * @param threads  //The number of threads to search with.
+     * @return PolicyTable
+     * @throws IllegalArgumentException if the sizes are invalid, or the city ids do not fit in a short
+     */
+    public static PolicyTable compile(Game game, int maxSteps, int buckets, int threads) {
+        if (maxSteps < 0 || buckets < 1 || threads < 1) {
+            throw new IllegalArgumentException("Invalid size of policy table: " + maxSteps + " steps, " + buckets
+                    + " buckets, " + threads + " threads.");
+        }
+        int n = game.getCityCount();
+        if (n > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("A policy table cannot hold the ids of " + n + " cities (at most "
+                    + Short.MAX_VALUE + ").");
+        }
+        if (buckets * (maxSteps + 1L) * n > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid size of policy table: " + maxSteps + " steps, " + buckets
+                    + " buckets, " + n + " cities.");
+        }
+        long start = Metrics.start();
+        //Computed before searching, so the threads only read it
+        game.getTopology();
+        short[] next = new short[buckets * (maxSteps + 1) * n];
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "policy-compiler");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int b = 0; b < buckets; b++) {
+                int[] values = new int[n];
+                for (int i = 0; i < n; i++) {
+                    values[i] = (int) ((long) game.getCity(i).getInitialValue() * (b + 1) / buckets);
+                }
+                for (int c = 0; c < n; c++) {
+                    int bucket = b, city = c;
+                    tasks.add(pool.submit(() -> {
+                        TranspositionTable table = new TranspositionTable(TABLE_SIZE,
+                                TranspositionTable.Policy.DEPTH_PREFERRED);
+                        SmartSearch search = new SmartSearch(0, values, table);
+                        for (int s = 0; s <= maxSteps; s++) {
+                            Path best = search.search(game.getCity(city), s);
+                            next[(bucket * (maxSteps + 1) + s) * n + city] =
+                                    (short) (best.isEmpty() ? -1 : best.getRoad().getTo().getId());
+                        }
+                    }));
+                }
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compiling the policy table.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not compile the policy table: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        COMPILE_TIME.recordSince(start);
+        return new PolicyTable(game.getNetworkHash(), settingsHash(game.getSettings()), n, maxSteps, buckets, next);
+    }
+
+    /**
+     * Determines whether the table is valid for the network and current settings of a game.
+     *
+     * @param game //The game.
+     * @return boolean
+     */
+    public boolean fits(Game game) {
+        return game.getNetworkHash() == networkHash && game.getCityCount() == cities
+                && settingsHash(game.getSettings()) == settingsHash;
+    }
+
+    /**
+     * Returns the hash of the network the table was compiled for.
+     *
+     * @return long
+     */
+    public long getNetworkHash() {
+        return networkHash;
+    }
+
+    /**
+     * Returns the settings hash the table was compiled for.
+     *
+     * @return long
+     */
+    public long getSettingsHash() {
+        return settingsHash;
+    }
+
+    /**
+     * Returns the largest number of steps left the table has moves for.
+     *
+     * @return int
+     */
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * Returns the number of value buckets.
+     *
+     * @return int
+     */
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Returns the bucket of a total value of the cities.
+     *
+     * @param total   //The total value now.
+     * @param initial //The total value at the start of the game.
+     * @return int //The bucket, from 0 up to getBuckets() - 1.
+     */
+    public int bucket(long total, long initial) {
+        if (initial <= 0 || total >= initial) {
+            return buckets - 1;
+        }
+        //Bucket b covers totals above b/B and up to (b+1)/B of the initial total
+        long b = (total * buckets + initial - 1) / initial - 1;
+        return b < 0 ? 0 : (int) b;
+    }
+
+    /**
+     * Looks up the move from a city.
+     *
+     * @param city      //The id of the city.
+     * @param stepsLeft //The number of steps left, at most getMaxSteps().
+     * @param bucket    //The value bucket.
+     * @return int //The id of the next city, or -1 to stay.
+     */
+    public int get(int city, int stepsLeft, int bucket) {
+        return next[(bucket * (maxSteps + 1) + stepsLeft) * cities + city];
+    }
+
+    /**
+     * Returns the encoded table.
+     *
+     * @return byte[]
+     */
+    public byte[] toBytes() {
+        ByteBuffer b = ByteBuffer.allocate(HEADER + 2 * next.length);
+        b.putInt(MAGIC).putInt(VERSION).putLong(networkHash).putLong(settingsHash);
+        b.putInt(cities).putInt(maxSteps).putInt(buckets);
+        for (short s : next) {
+            b.putShort(s);
+        }
+        return b.array();
+    }
+
+    /**
+     * Reads a table from its encoded form.
+     *
+     * @param data //The bytes, as returned by toBytes().
+     * @return PolicyTable
+     * @throws PolicyTableException if the bytes are not a valid policy table
+     */
+    public static PolicyTable fromBytes(byte[] data) {
+        ByteBuffer b = ByteBuffer.wrap(data);
+        try {
+            if (b.getInt() != MAGIC) {
+                throw new PolicyTableException("Not a policy table.");
+            }
+            if (b.getInt() != VERSION) {
+                throw new PolicyTableException("Unsupported version of policy table.");
+            }
+            long networkHash = b.getLong(), settingsHash = b.getLong();
+            int cities = b.getInt(), maxSteps = b.getInt(), buckets = b.getInt();
+            if (cities < 0 || maxSteps < 0 || buckets < 1
+                    || (long) buckets * (maxSteps + 1) * cities * 2 != b.remaining()) {
+                throw new PolicyTableException("The policy table has the wrong size.");
+            }
+            short[] next = new short[buckets * (maxSteps + 1) * cities];
+            for (int i = 0; i < next.length; i++) {
+                next[i] = b.getShort();
+                if (next[i] < -1 || next[i] >= cities) {
+                    throw new PolicyTableException("The policy table refers to city " + next[i] + ".");
+                }
+            }
+            return new PolicyTable(networkHash, settingsHash, cities, maxSteps, buckets, next);
+        } catch (BufferUnderflowException e) {
+            throw new PolicyTableException("The policy table is truncated.");
+        }
+    }
+
+    /**
+     * Writes the table to a file.
+     *
+     * @param file //The file.
+     * @throws IOException if the file cannot be written
+     */
+    public void write(java.nio.file.Path file) throws IOException {
+        Files.write(file, toBytes());
+    }
+
+    /**
+     * Reads a table from a file.
+     *
+     * @param file //The file.
+     * @return PolicyTable
+     * @throws IOException if the file cannot be read
+     * @throws PolicyTableException if the file is not a valid policy table
+     */
+    public static PolicyTable read(java.nio.file.Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+
+    /**
+     * Compiles the table of 'network.dat' with the settings in 'settings.dat'.
+     * Arguments: [target file (policy.dat)] [steps (the length of a game)] [buckets (4)] [threads].
+     *
+     * @param args //The command line arguments
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Game game = Generator.generateGame(0, "network.dat");
+        if (game == null) {
+            throw new IOException("Cannot read 'network.dat'.");
+        }
+        java.nio.file.Path target = Paths.get(args.length > 0 ? args[0] : "policy.dat");
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : game.getTotalTimeLeft();
+        int buckets = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        PolicyTable table = compile(game, steps, buckets, threads);
+        table.write(target);
+        System.out.printf("Compiled %d moves to '%s' in %.1f s%n", table.next.length, target,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Thrown when a policy table is invalid.
+ */
+class PolicyTableException extends RuntimeException {
+
+    public PolicyTableException(String string) {
+        super(string);
+    }
+
+    private static final long serialVersionUID = 4950187351526093370L;
+
+}
@@ -36,6 +36,56 @@ public class Position {
         this.total = distance;
     }
 
+    /**
+     * Creates a copy of another position, including how far the player has moved.
+     *
+     * @param other //The position to copy.
+     */
+    public Position(Position other) {
+        set(other);
+    }
+
+    /**
+     * Moves the position onto a new road, so the same object can be reused for every journey.
+     *
+     * @param from     //The city the player originated from
+     * @param to       //The city the player is going to.
+     * @param distance //The distance the player has yet to travel, which is also the total distance.
+     */
+    public void set(City from, City to, int distance) {
+        this.from = from;
+        this.to = to;
+        this.distance = distance;
+        this.total = distance;
+    }
+
+    /**
+     * Moves the position onto a road, part of which may already have been travelled.
+     *
+     * @param from     //The city the player originated from
+     * @param to       //The city the player is going to.
+     * @param distance //The distance the player has yet to travel.
+     * @param total    //The length of the road.
+     */
+    void set(City from, City to, int distance, int total) {
+        this.from = from;
+        this.to = to;
+        this.distance = distance;
+        this.total = total;
+    }
+
+    /**
+     * Makes this position equal to another, including how far the player has moved.
+     *
+     * @param other //The position to copy.
+     */
+    public void set(Position other) {
+        this.from = other.from;
+        this.to = other.to;
+        this.distance = other.distance;
+        this.total = other.total;
+    }
+
     /**
      * Returns the city from where you are going
      *
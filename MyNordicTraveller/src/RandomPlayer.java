@@ -18,9 +18,13 @@ public class RandomPlayer extends Player {
 		super(pos);
 	}
 	
+	/** Time spent per step of a RandomPlayer */
+	private static final Metrics.Histogram STEP_TIME = Metrics.histogram("player.random.step");
+	
 	@Override
 	public void step(){
-		super.step();
+		long start = Metrics.start();
+		advance();
 		if(getPosition().hasArrived()){
 			City city = getPosition().getTo();
 			List<Road> roads = getCountry().getRoads(city);
@@ -28,9 +32,10 @@ public class RandomPlayer extends Player {
 			int i=0;
 			for(Road road : roads)
 				if(i++==random){
-					setPosition(getCountry().readyToTravel(city, road.getTo()));
+					travel(city, road.getTo());
 				}
 		}
+		STEP_TIME.recordSince(start);
 	}
 
 	@Override
@@ -0,0 +1,198 @@
+/**
+ * A Glicko style rating of a strategy: a rating together with a deviation, which shrinks as more games are played.
+ * The 95% confidence interval of the rating is rating ± 1.96 · deviation.
+ *
+ * @version v1.0
+ */
+public class Rating implements Comparable<Rating> {
+    /**
+     * The scaling constant of the Glicko system.
+     */
+    private static final double Q = Math.log(10) / 400;
+    /**
+     * The rating and deviation of a strategy that has not played any games.
+     */
+    public static final double INITIAL_RATING = 1500, INITIAL_DEVIATION = 350;
+
+    /**
+     * The name of the strategy.
+     */
+    private final String name;
+    /**
+     * The current rating and rating deviation.
+     */
+    private double rating = INITIAL_RATING, deviation = INITIAL_DEVIATION;
+    /**
+     * The number of games played and won.
+     */
+    private int games, wins;
+    /**
+     * Running mean and sum of squared deviations of the final money (Welford).
+     */
+    private double meanMoney, m2Money;
+    /**
+     * Sums collected for the update after the current game.
+     */
+    private double pendingVariance, pendingDelta;
+
+    /**
+     * Creates an unrated strategy.
+     *
+     * @param name //The name of the strategy
+     */
+    public Rating(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the strategy.
+     *
+     * @return String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current rating.
+     *
+     * @return double
+     */
+    public double getRating() {
+        return rating;
+    }
+
+    /**
+     * Returns the current rating deviation.
+     *
+     * @return double
+     */
+    public double getDeviation() {
+        return deviation;
+    }
+
+    /**
+     * Returns the lower bound of the 95% confidence interval of the rating.
+     *
+     * @return double
+     */
+    public double getLower() {
+        return rating - 1.96 * deviation;
+    }
+
+    /**
+     * Returns the upper bound of the 95% confidence interval of the rating.
+     *
+     * @return double
+     */
+    public double getUpper() {
+        return rating + 1.96 * deviation;
+    }
+
+    /**
+     * Returns the number of games played.
+     *
+     * @return int
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games where the strategy ended with the most money (ties included).
+     *
+     * @return int
+     */
+    public int getWins() {
+        return wins;
+    }
+
+    /**
+     * Returns the mean final money over all games played.
+     *
+     * @return double
+     */
+    public double getMeanMoney() {
+        return meanMoney;
+    }
+
+    /**
+     * Returns the standard deviation of the final money over all games played.
+     *
+     * @return double
+     */
+    public double getMoneyDeviation() {
+        return games < 2 ? 0 : Math.sqrt(m2Money / (games - 1));
+    }
+
+    /**
+     * Registers the outcome of one game for this strategy.
+     *
+     * @param money //The final money of the strategy
+     * @param won   //Whether or not the strategy had the most money
+     */
+    void addGame(int money, boolean won) {
+        games++;
+        if (won) {
+            wins++;
+        }
+        double delta = money - meanMoney;
+        meanMoney += delta / games;
+        m2Money += delta * (money - meanMoney);
+    }
+
+    /**
+     * Collects the outcome against one opponent. Call {@link #apply()} once all opponents of a game are collected,
+     * so every rating in the game is updated from the ratings before the game.
+     *
+     * @param opponent //The rating of the opponent
+     * @param score    //1 for a win, 0.5 for a draw and 0 for a loss
+     */
+    void accumulate(Rating opponent, double score) {
+        double g = g(opponent.deviation);
+        double e = 1 / (1 + Math.pow(10, -g * (rating - opponent.rating) / 400));
+        pendingVariance += g * g * e * (1 - e);
+        pendingDelta += g * (score - e);
+    }
+
+    /**
+     * Updates the rating and deviation from the outcomes collected since the last call.
+     */
+    void apply() {
+        if (pendingVariance > 0) {
+            double dSquaredInverse = Q * Q * pendingVariance;
+            double precision = 1 / (deviation * deviation) + dSquaredInverse;
+            rating += Q / precision * pendingDelta;
+            deviation = Math.sqrt(1 / precision);
+        }
+        pendingVariance = 0;
+        pendingDelta = 0;
+    }
+
+    /**
+     * Reduces the impact of the result against an opponent with an uncertain rating.
+     *
+     * @param deviation //The rating deviation of the opponent
+     * @return double
+     */
+    private static double g(double deviation) {
+        return 1 / Math.sqrt(1 + 3 * Q * Q * deviation * deviation / (Math.PI * Math.PI));
+    }
+
+    /**
+     * Sorts ratings from highest to lowest.
+     *
+     * @param other //The other rating
+     * @return int
+     */
+    @Override
+    public int compareTo(Rating other) {
+        return Double.compare(other.rating, rating);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s %7.1f  [%7.1f, %7.1f]  games=%d  wins=%d  money=%.1f (sd %.1f)",
+                name, rating, getLower(), getUpper(), games, wins, meanMoney, getMoneyDeviation());
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Mean, variance, minimum and maximum of a stream of values, in constant memory (Welford's algorithm).
+ * Two instances can be merged, so every thread can keep its own and combine them at the end.
+ *
+ * @version v1.0
+ */
+public class RunningStats {
+    /**
+     * The number of values.
+     */
+    private long count;
+    /**
+     * The running mean and the sum of squared deviations from it.
+     */
+    private double mean, m2;
+    /**
+     * The smallest and largest value.
+     */
+    private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a value.
+     *
+     * @param x //The value
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+    }
+
+    /**
+     * Adds all values of another instance to this one (Chan et al.).
+     *
+     * @param other //The other instance, which is not changed
+     */
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * count * other.count / n;
+        count = n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return long
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean, or 0 if there are no values.
+     *
+     * @return double
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample variance, or 0 if there are less than two values.
+     *
+     * @return double
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation, or 0 if there are less than two values.
+     *
+     * @return double
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the smallest value, or 0 if there are no values.
+     *
+     * @return double
+     */
+    public double getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * Returns the largest value, or 0 if there are no values.
+     *
+     * @return double
+     */
+    public double getMax() {
+        return count == 0 ? 0 : max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f sd=%.2f min=%.0f max=%.0f",
+                count, getMean(), getStandardDeviation(), getMin(), getMax());
+    }
+}
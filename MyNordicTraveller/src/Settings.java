@@ -11,6 +11,16 @@ public class Settings {
 	private boolean[] activePlayers;
 	private int minLoss, maxLoss, gameSpeed, tollSize, robRisk;
 	
+	/** Whether or not changes are written to 'settings.dat' */
+	private boolean persistent = true;
+	
+	/** Increases each time these settings change, so caches can tell whether they are stale */
+	private int version;
+	
+	/** Time spent writing 'settings.dat', and the number of failed writes */
+	private static final Metrics.Histogram SAVE_TIME = Metrics.histogram("settings.save");
+	private static final Metrics.Counter SAVE_ERRORS = Metrics.counter("settings.save.errors");
+	
 	/**
 	 * Instantiates a new Settings object based on its values.
 	 * @param activePlayers Which players are active. Must be an array of length 3, where each index corresponds to a given player (0 = random, 1 = greedy, 2 = smart).
@@ -45,6 +55,22 @@ public class Settings {
 		this.gameSpeed = s.gameSpeed;
 	}
 	
+	/**
+	 * Copies the values of another Settings object into this one, without saving them.
+	 * @param s The Settings to copy.
+	 */
+	void set(Settings s){
+		for(int i=0; i<3; i++)
+			this.activePlayers[i] = s.activePlayers[i];
+		
+		this.tollSize = s.tollSize;
+		this.robRisk  = s.robRisk;
+		this.minLoss  = s.minLoss;
+		this.maxLoss  = s.maxLoss;
+		this.gameSpeed = s.gameSpeed;
+		version++;
+	}
+	
 	/**
 	 * Instantiates a Settings object with the default values.
 	 */
@@ -78,6 +104,28 @@ public class Settings {
 	 */
 	public Settings(String s) throws SettingsException{
 		this();
+		load(s);
+	}
+	
+	/**
+	 * Parses the string representation of a Settings object into a new object which is not persistent, so parsing
+	 * never writes 'settings.dat'.
+	 * @param s The string representation.
+	 * @return The parsed Settings, which are not persistent.
+	 * @throws SettingsException if the string is not a valid representation
+	 */
+	static Settings parse(String s) throws SettingsException{
+		Settings settings = new Settings();
+		settings.setPersistent(false);
+		try{
+			settings.load(s);
+		} catch(NumberFormatException e){
+			throw new SettingsException("Expected a number, but received "+e.getMessage()+".");
+		}
+		return settings;
+	}
+	
+	private void load(String s) throws SettingsException{
 		String[] lines = s.replace("\r", "").split("\n");
 		
 		if(lines.length!=6)
@@ -112,14 +160,49 @@ public class Settings {
 		}
 	}
 	
+	/**
+	 * Determines whether or not changes to this Settings object are written to 'settings.dat'.
+	 * @return True if changes are saved.
+	 */
+	public boolean isPersistent(){
+		return persistent;
+	}
+	
+	/**
+	 * Changes whether or not changes to this Settings object are written to 'settings.dat'.
+	 * Settings used by headless games should not be persistent, so they stay isolated from each other.
+	 * @param persistent Whether or not changes should be saved.
+	 */
+	public void setPersistent(boolean persistent){
+		this.persistent = persistent;
+	}
+	
+	/**
+	 * Gets the version of these settings, which increases each time they change.
+	 * @return The version.
+	 */
+	int getVersion(){
+		return version;
+	}
+	
+	private void changed(){
+		version++;
+		save();
+	}
+	
 	private void save() {
+		if(!persistent)
+			return;
+		long start = Metrics.start();
 		try{
 			PrintWriter out = new PrintWriter("settings.dat");
 			out.print(this);
 			out.close();
 		} catch(IOException e){
+			SAVE_ERRORS.increment();
 			System.out.println("Unable to save settings: "+e.getMessage());
 		}
+		SAVE_TIME.recordSince(start);
 	}
 	
 	@Override
@@ -154,7 +237,7 @@ public class Settings {
 	 */
 	public void setActive(int player, boolean active){
 		activePlayers[player] = active;
-		save();
+		changed();
 	}
 	
 	/**
@@ -171,7 +254,7 @@ public class Settings {
 	 */
 	public void setTollToBePaid(int tollSize){
 		this.tollSize = tollSize;
-		save();
+		changed();
 	}
 
 	/**
@@ -188,7 +271,7 @@ public class Settings {
 	 */
 	public void setRisk(int robRisk){
 		this.robRisk = robRisk;
-		save();
+		changed();
 	}
 	
 	/**
@@ -207,7 +290,7 @@ public class Settings {
 	public void setMinMaxRobbery(int min, int max){
 		this.minLoss = min;
 		this.maxLoss = max;
-		save();
+		changed();
 	}
 	
 	/**
@@ -242,15 +325,6 @@ public class Settings {
 	 */
 	public void setGameSpeed(int gameSpeed){
 		this.gameSpeed = gameSpeed;
-		save();
+		changed();
 	}
 }
-
-class SettingsException extends Exception {
-
-	private static final long serialVersionUID = 354443936938324L;
-	
-	public SettingsException(String s){
-		super(s);
-	}
-}
\ No newline at end of file
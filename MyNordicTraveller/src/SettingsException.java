@@ -0,0 +1,11 @@
+/**
+ * Thrown when settings cannot be parsed.
+ */
+class SettingsException extends Exception {
+
+	private static final long serialVersionUID = 354443936938324L;
+	
+	public SettingsException(String s){
+		super(s);
+	}
+}
@@ -1,6 +1,9 @@
 import java.awt.Color;
-import java.util.HashMap;
-import java.util.Stack;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A smart AI player which uses a depth-first search to determine the optimal path.
@@ -10,6 +13,60 @@ import java.util.Stack;
  */
 public class SmartPlayer extends Player {
 
+    /** Time spent per step of a SmartPlayer, and per search */
+    private static final Metrics.Histogram STEP_TIME = Metrics.histogram("player.smart.step"),
+                                           SEARCH_TIME = Metrics.histogram("smart.search");
+    
+    /** Number of search nodes expanded */
+    private static final Metrics.Counter NODES = Metrics.counter("smart.nodes");
+    
+    /** Number of decisions where the time budget ran out */
+    private static final Metrics.Counter TIMEOUTS = Metrics.counter("smart.timeouts");
+    
+    /** Number of arrivals where the pre-planned search could and could not be used */
+    private static final Metrics.Counter PLAN_HITS = Metrics.counter("smart.preplan.hits"),
+                                         PLAN_MISSES = Metrics.counter("smart.preplan.misses");
+    
+    /** Threads running pre-planned searches, shared by all SmartPlayers */
+    private static final ExecutorService PLANNERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), r -> {
+                Thread t = new Thread(r, "smart-planner");
+                t.setDaemon(true);
+                return t;
+            });
+    
+    /** Default number of entries in the transposition table of a SmartPlayer */
+    static final int TABLE_SIZE = 1 << 12;
+    
+    /**
+     * Subtrees searched by this player, reused within and across decisions. Unless one was set, the table is made by
+     * the first decision, so players that never decide do not pay for it.
+     */
+    private TranspositionTable table;
+    
+    /** Whether or not this player makes its own table when it needs one */
+    private boolean ownTable = true;
+    
+    /**
+     * Subtrees searched by the pre-planned searches of this player, which run on a planner thread and so cannot share
+     * the table of the decisions. A cancelled plan may still be running when the next one starts, so the plans take
+     * turns on it by locking it.
+     */
+    private TranspositionTable planTable;
+    
+    /** Wall-clock time allowed per decision (in ms), or 0 to always search the full depth */
+    private long timeBudget;
+    
+    /** Whether or not to search ahead in the background while travelling */
+    private boolean prePlanning;
+    
+    /** The search running in the background, the city it starts in, its steps left and its snapshot */
+    private Future<Path> plan;
+    private City planCity;
+    private int planSteps;
+    private List<City> planCities;
+    private int[] planValues;
+
     /**
      * Instantiates a new SmartPlayer with the specified position.
      * @param pos The position of this player.
@@ -18,48 +75,188 @@ public class SmartPlayer extends Player {
         super(pos);
     }
     
+    /**
+     * Gets the wall-clock time this player may spend deciding where to go.
+     * @return The time budget (in ms), or 0 if unlimited.
+     */
+    public long getTimeBudget(){
+        return timeBudget;
+    }
+    
+    /**
+     * Sets the wall-clock time this player may spend deciding where to go. With a budget, the player searches by
+     * iterative deepening and follows the best path of the deepest search it completed in time.
+     * @param timeBudget The time budget (in ms), or 0 to always search the full depth.
+     */
+    public void setTimeBudget(long timeBudget){
+        if(timeBudget < 0)
+            throw new IllegalArgumentException("Time budget must not be negative: "+timeBudget);
+        this.timeBudget = timeBudget;
+    }
+    
+    /**
+     * Gets the transposition table used by this player.
+     * @return The table, or null if subtrees are not reused (or the player has not decided yet).
+     */
+    public TranspositionTable getTranspositionTable(){
+        return table;
+    }
+    
+    /**
+     * Sets the transposition table used by this player. Reusing subtrees does not change the decisions.
+     * @param table The table, or null to search every subtree.
+     */
+    public void setTranspositionTable(TranspositionTable table){
+        this.table = table;
+        ownTable = false;
+    }
+    
+    private TranspositionTable table(){
+        if(table == null && ownTable)
+            table = new TranspositionTable(TABLE_SIZE, TranspositionTable.Policy.DEPTH_PREFERRED);
+        return table;
+    }
+    
+    /**
+     * Determines whether or not this player plans ahead in the background.
+     * @return True if pre-planning is enabled.
+     */
+    public boolean isPrePlanning(){
+        return prePlanning;
+    }
+    
+    /**
+     * Enables or disables pre-planning. When enabled, the search from the next city starts in the background as soon as
+     * a road is chosen, against the world as it is at that time. On arrival, the result is used if no city within reach
+     * has changed value in the meantime; otherwise the player searches again as usual.
+     * The money collected on arrival, and the change of the arrival city itself, are the player's own doing and do
+     * not invalidate the plan, so decisions can differ slightly from the synchronous search.
+     * @param prePlanning Whether or not to plan ahead.
+     */
+    public void setPrePlanning(boolean prePlanning){
+        this.prePlanning = prePlanning;
+        cancelPlan();
+    }
+    
     @Override
     public void step(){
-        super.step();
+        long start = Metrics.start();
+        advance();
         if(getPosition().hasArrived()){
             City city = getPosition().getTo();
-            setPosition(getCountry().readyToTravel(city, maximizeValue(city, getCountry().getGame().getStepsLeft())));
+            int n = getCountry().getGame().getStepsLeft();
+            City next = prePlanned(city, n);
+            if(next == null)
+                next = maximizeValue(city, n);
+            travel(city, next);
+            if(prePlanning && getPosition().getDistance() > 0)
+                startPlan(next, n - getPosition().getDistance());
         } 
+        STEP_TIME.recordSince(start);
+    }
+    
+    @Override
+    public void reset(){
+        super.reset();
+        cancelPlan();
     }
     
     private City maximizeValue(City c, int n){
-        HashMap<City, Integer> visited = new HashMap<City, Integer>();
-        visited.put(c, 1);
-        Path best = maximizeValue(visited, c, n);
+        long start = Metrics.start();
+        SmartSearch search = new SmartSearch(getMoney(), null, table());
+        Path best;
+        if(timeBudget > 0){
+            best = search.search(c, n, System.nanoTime() + timeBudget * 1000000);
+            if(search.isTimedOut())
+                TIMEOUTS.increment();
+        } else {
+            best = search.search(c, n);
+        }
+        NODES.add(search.getNodes());
+        SEARCH_TIME.recordSince(start);
+        return destination(c, best);
+    }
+    
+    private static City destination(City c, Path best){
         if(best.isEmpty())
             return c;
         return best.getRoad().getTo();
     }
     
-    private static final int MAX_DEPTH = 26;
-    private Path maximizeValue(HashMap<City, Integer> visits, City c, int i){
-        int n = i;
-        if(i>MAX_DEPTH)n=MAX_DEPTH;
-        Path p = new Path(this);
-        for(Road r : c.getCountry().getRoads(c)){
-            if(r.getLength() <= n){
-                HashMap<City, Integer> newVisits = new HashMap<City, Integer>(visits);
-                City to = r.getTo();
-                int v = 0;
-                if(newVisits.containsKey(to))
-                    v=newVisits.get(to);
-                newVisits.put(to, ++v);
-                
-                Path subPath = maximizeValue(newVisits, to, n - r.getLength());
-                subPath.addRoad(r, v);
-                double newValue = subPath.getValue();
-                if(subPath.compareTo(p) == 1){
-                    p = subPath;
+    /**
+     * Starts searching from the city this player is travelling to, in the background.
+     * @param city The city the player will arrive in.
+     * @param n The number of steps that will be left on arrival.
+     */
+    private void startPlan(City city, int n){
+        cancelPlan();
+        int[] values = SmartSearch.snapshot(city, n);
+        int money = getMoney();
+        planCity = city;
+        planSteps = n;
+        planCities = city.getCountry().getGame().getTopology().getReachable(city.getCountry().getGame(), city,
+                Math.min(n, SmartSearch.MAX_DEPTH));
+        planValues = values;
+        if(planTable == null && ownTable)
+            planTable = new TranspositionTable(TABLE_SIZE, TranspositionTable.Policy.DEPTH_PREFERRED);
+        TranspositionTable table = planTable;
+        plan = PLANNERS.submit(() -> {
+            SmartSearch search = new SmartSearch(money, values, table);
+            //Only a plan stops when interrupted, as it is then no longer wanted
+            search.setInterruptible(true);
+            Path best;
+            if(table == null){
+                best = search.search(city, n);
+            } else {
+                synchronized(table){
+                    best = search.search(city, n);
                 }
             }
+            NODES.add(search.getNodes());
+            return best;
+        });
+    }
+    
+    /**
+     * Returns the destination found by the pre-planned search, if it is still valid.
+     * @param city The city the player has arrived in.
+     * @param n The number of steps left.
+     * @return The next city to travel to, or null if there is no valid plan.
+     */
+    private City prePlanned(City city, int n){
+        if(plan == null)
+            return null;
+        boolean valid = city.equals(planCity) && n == planSteps;
+        for(City c : planCities)
+            if(valid && !c.equals(city) && c.getValue() != planValues[c.getId()])
+                valid = false;
+        Future<Path> f = plan;
+        plan = null;
+        planCities = null;
+        planValues = null;
+        if(!valid){
+            f.cancel(true);
+            PLAN_MISSES.increment();
+            return null;
         }
-        
-        return p;
+        try{
+            City next = destination(city, f.get());
+            PLAN_HITS.increment();
+            return next;
+        } catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        } catch(ExecutionException e){
+        }
+        PLAN_MISSES.increment();
+        return null;
+    }
+    
+    private void cancelPlan(){
+        if(plan != null)
+            plan.cancel(true);
+        plan = null;
+        planCities = null;
+        planValues = null;
     }
 
     @Override
@@ -72,104 +269,3 @@ public class SmartPlayer extends Player {
         return Color.CYAN;
     }
 }
-
-class Path {
-
-    private Stack<Road> edges;
-    private int length;
-    private double value;
-    private double impulsiveness = 1.10;
-    
-    private SmartPlayer source;
-    
-    public Path(SmartPlayer source){
-        this.source = source;
-        edges = new Stack<Road>();
-        length = 0;
-        value = 0;
-    }
-    public int compareTo(Path p){
-        if(value > p.value)
-            return 1;
-        if(value < p.value)
-            return -1;
-        if(length < p.length)
-            return 1;
-        if(length > p.length)
-            return -1;
-        return edges.peek().compareTo(p.edges.peek());
-    }
-    
-    public Road getRoad(){
-        return edges.peek();
-    }
-    
-    public int getLength(){
-        return length;
-    }
-    
-    public double getValue(){
-        return value;
-    }
-    
-    public boolean isEmpty(){
-        return edges.isEmpty();
-    }
-    
-    @Override
-    public String toString(){
-        if(edges.isEmpty())return "[]";
-        StringBuilder sb = new StringBuilder("[");
-        for(Road r : edges)
-            sb.append(r + ", ");
-        String s = sb.toString();
-        return s.substring(0,s.length()-2)+"]";
-    }
-    
-    public void addRoad(Road r, int penalty){
-        if(!edges.isEmpty()){
-            Road top = getRoad();
-            if(!top.getFrom().equals(r.getTo()))
-                throw new RuntimeException("Invalid road. You tried to add road to "+r.getTo()+", but the next city is "+top.getFrom());
-        } else {
-            value += valueFrom(r, penalty);
-        }
-        edges.add(r);
-        length += r.getLength();
-        
-        
-        value+=valueTo(r, penalty);
-    }
-    
-    public double valueFrom(Road r, int penalty){
-        Settings s = r.getFrom().getCountry().getGame().getSettings();
-        double v = r.getFrom().getValue() / (Math.pow(2,penalty-1) * Math.pow(impulsiveness, edges.size()));//Check if we have to pay toll
-        
-        //Check if we visit a capital
-        if(r.getFrom() instanceof CapitalCity)
-            v -= value/2;
-        
-        if(r.getFrom().getCountry() instanceof MafiaCountry)
-            v -= s.getRisk() / 100.0 * (s.getMinRobbery() + s.getMaxRobbery())/2;
-        
-        return v;
-    }
-    
-    public double valueTo(Road r, int penalty){
-        Settings s = r.getFrom().getCountry().getGame().getSettings();
-        double v = r.getTo().getValue() / (Math.pow(2,penalty-1) * Math.pow(impulsiveness, edges.size()));
-        
-        //Check if we have to pay toll
-        if(r.getTo() instanceof BorderCity && !r.getFrom().getCountry().equals(r.getTo().getCountry()))
-            v -= source.getMoney() * s.getTollToBePaid() / 100.0;
-        
-        //Check if we visit a capital
-        if(r.getTo() instanceof CapitalCity)
-            v -= source.getMoney()/2;
-        
-        if(r.getTo().getCountry() instanceof MafiaCountry)
-            v -= s.getRisk() / 100.0 * (s.getMinRobbery() + s.getMaxRobbery())/2;
-        
-        return v;
-    }
-}
\ No newline at end of file
@@ -0,0 +1,289 @@
+import java.util.List;
+
+/**
+ * The depth-first search of the SmartPlayer, separated from the player so it can run on another thread.
+ * A search either reads the live values of the cities, or a snapshot of them taken beforehand;
+ * in the latter case it does not touch any mutable state of the game, and can safely run in the background.
+ * A search made interruptible stops early when the thread running it is interrupted, so a search in the background
+ * can be cancelled. Other searches ignore interrupts, so an interrupted game thread still gets complete decisions.
+ * @author Nikolaj Ignatieff Schwartzbach
+ * @version 1.0.0
+ *
+ */
+public class SmartSearch {
+
+    /** The search never looks further ahead than this many steps */
+    static final int MAX_DEPTH = 26;
+    
+    /** The money of the searching player, used to estimate tolls and desires */
+    private final int money;
+    
+    /** The values of the cities to use by city id, or null to use the live values */
+    private final int[] values;
+    
+    /** The table of searched subtrees, or null to search every subtree */
+    private final TranspositionTable table;
+    
+    /** The hash of everything besides the visits a subtree depends on: money, settings and city values */
+    private long context;
+    
+    /** Number of nodes expanded so far */
+    private long nodes;
+    
+    /** The time (System.nanoTime) at which an iterative deepening search gives up, and whether it has */
+    private long deadline = Long.MAX_VALUE;
+    private boolean timedOut;
+    
+    /** Whether or not the search stops when its thread is interrupted */
+    private boolean interruptible;
+    
+    /** The number of steps searched by the deepest completed iteration */
+    private int depth;
+    
+    /**
+     * Creates a search using the live values of the cities.
+     * @param money The money of the searching player.
+     */
+    public SmartSearch(int money){
+        this(money, null);
+    }
+    
+    /**
+     * Creates a search using a snapshot of the values of the cities.
+     * @param money The money of the searching player.
+     * @param values The values of every city the search can reach by id, or null to use the live values.
+     */
+    public SmartSearch(int money, int[] values){
+        this(money, values, null);
+    }
+    
+    /**
+     * Creates a search which reuses subtrees through a transposition table.
+     * @param money The money of the searching player.
+     * @param values The values of every city the search can reach by id, or null to use the live values.
+     * @param table The transposition table, or null to search every subtree.
+     */
+    public SmartSearch(int money, int[] values, TranspositionTable table){
+        this.money = money;
+        this.values = values;
+        this.table = table;
+    }
+    
+    /**
+     * Gets the money of the searching player.
+     * @return The money (in €).
+     */
+    public int getMoney(){
+        return money;
+    }
+    
+    /**
+     * Gets the value of a city, as seen by this search.
+     * @param c The city.
+     * @return The value of the city in the snapshot, or its live value.
+     */
+    public int value(City c){
+        if(values == null)
+            return c.getValue();
+        return values[c.getId()];
+    }
+    
+    /**
+     * Gets the number of nodes expanded by this search.
+     * @return The number of nodes.
+     */
+    public long getNodes(){
+        return nodes;
+    }
+    
+    /**
+     * Makes the search stop when the thread running it is interrupted, as a search cancelled in the background should.
+     * Only use this on threads whose interrupts mean the result is no longer wanted.
+     * @param interruptible Whether or not to stop on interrupts.
+     */
+    void setInterruptible(boolean interruptible){
+        this.interruptible = interruptible;
+    }
+    
+    /**
+     * Gets the number of steps searched by the deepest completed iteration of the last search.
+     * @return The depth, which is the full step budget (at most MAX_DEPTH) unless the deadline was reached.
+     */
+    public int getDepth(){
+        return depth;
+    }
+    
+    /**
+     * Determines whether or not the last search ran out of time, or was interrupted (if it is interruptible).
+     * @return True if the deadline was reached, or the thread interrupted, before the full depth was searched.
+     */
+    public boolean isTimedOut(){
+        return timedOut;
+    }
+    
+    /**
+     * Finds the most valuable path from a city by iterative deepening, giving up at a deadline.
+     * Each iteration searches one step further than the last; the shallower iterations are cheap next to the last
+     * one, and with a transposition table their subtrees are reused by the deeper ones. If the deadline is reached, or an interruptible search is interrupted, the best path of the
+     * deepest completed iteration is returned.
+     * When there is time enough, the result is the same as that of search(c, n).
+     * @param c The city to start in.
+     * @param n The number of steps left.
+     * @param deadline The time (as given by System.nanoTime) at which to stop searching.
+     * @return The best path found, which is empty if staying is best.
+     */
+    public Path search(City c, int n, long deadline){
+        this.deadline = deadline;
+        timedOut = false;
+        depth = 0;
+        start(c);
+        List<Road> roads = c.getCountry().getRoads(c);
+        int[] visits = new int[c.getCountry().getGame().getCityCount()];
+        visits[c.getId()] = 1;
+        Path best = new Path(this);
+        int max = Math.min(n, MAX_DEPTH);
+        try {
+            for(int d = 1; d <= max; d++){
+                Path p = new Path(this);
+                for(Road r : roads){
+                    if(r.getLength() <= d){
+                        int v = ++visits[r.getTo().getId()];
+                        long hash = key(c, 1);
+                        if(v == 2)
+                            hash ^= key(c, 1) ^ key(c, 2);
+                        else
+                            hash ^= key(r.getTo(), 1);
+                        Path subPath = maximizeValue(visits, hash, r.getTo(), d - r.getLength());
+                        //The subtree leaves the visits as it found them, so only the road's own visit is undone
+                        visits[r.getTo().getId()]--;
+                        subPath.addRoad(r, v);
+                        if(subPath.compareTo(p) == 1)
+                            p = subPath;
+                    }
+                }
+                best = p;
+                depth = d;
+            }
+        } catch(SearchAborted e){
+            timedOut = true;
+        } finally {
+            this.deadline = Long.MAX_VALUE;
+        }
+        return best;
+    }
+    
+    /**
+     * Finds the most valuable path from a city, with a given number of steps left.
+     * @param c The city to start in.
+     * @param n The number of steps left.
+     * @return The best path, which is empty if staying is best, or if an interruptible search was interrupted (see
+     *         isTimedOut).
+     */
+    public Path search(City c, int n){
+        timedOut = false;
+        depth = 0;
+        start(c);
+        int[] visited = new int[c.getCountry().getGame().getCityCount()];
+        visited[c.getId()] = 1;
+        try {
+            Path best = maximizeValue(visited, key(c, 1), c, n);
+            depth = Math.min(n, MAX_DEPTH);
+            return best;
+        } catch(SearchAborted e){
+            timedOut = true;
+            return new Path(this);
+        }
+    }
+    
+    /**
+     * Prepares a search from a city: makes sure the cities have ids, and hashes the context of the search for the
+     * transposition table.
+     */
+    private void start(City c){
+        Game game = c.getCountry().getGame();
+        game.indexCities();
+        if(table == null)
+            return;
+        table.newSearch();
+        Settings s = game.getSettings();
+        long h = TranspositionTable.mix(money);
+        h = TranspositionTable.mix(h + s.getTollToBePaid());
+        h = TranspositionTable.mix(h + s.getRisk());
+        h = TranspositionTable.mix(h + s.getMinRobbery());
+        h = TranspositionTable.mix(h + s.getMaxRobbery());
+        for(int i=0; i<game.getCityCount(); i++)
+            h += TranspositionTable.mix(table.key(game.getCity(i), 0) + (values == null ? game.getCity(i).getValue() : values[i]));
+        context = h;
+    }
+    
+    private long key(City c, int count){
+        return table == null ? 0 : table.key(c, count);
+    }
+    
+    private Path maximizeValue(int[] visits, long hash, City c, int i){
+        if((++nodes & 0xFF) == 0 && (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0
+                || interruptible && Thread.currentThread().isInterrupted()))
+            throw SearchAborted.INSTANCE;
+        int n = i;
+        if(i>MAX_DEPTH)n=MAX_DEPTH;
+        long entry = 0;
+        if(table != null && n > 0){
+            entry = TranspositionTable.mix(hash ^ table.key(c, 0) ^ context + n);
+            Path known = table.get(entry);
+            if(known != null)
+                return new Path(this, known);
+        }
+        Path p = new Path(this);
+        for(Road r : c.getCountry().getRoads(c)){
+            if(r.getLength() <= n){
+                City to = r.getTo();
+                int v = visits[to.getId()];
+                long newHash = hash;
+                if(table != null)
+                    newHash ^= (v == 0 ? 0 : table.key(to, v)) ^ table.key(to, v + 1);
+                visits[to.getId()] = ++v;
+                
+                Path subPath = maximizeValue(visits, newHash, to, n - r.getLength());
+                visits[to.getId()]--;
+                subPath.addRoad(r, v);
+                if(subPath.compareTo(p) == 1){
+                    p = subPath;
+                }
+            }
+        }
+        
+        if(table != null && n > 0){
+            table.put(entry, n, p);
+            return new Path(this, p);
+        }
+        return p;
+    }
+    
+    /**
+     * Takes a snapshot of the values of every city a search from 'c' with 'n' steps left can reach.
+     * These are exactly the cities whose values the search reads.
+     * @param c The city the search starts in.
+     * @param n The number of steps left.
+     * @return The values of all cities within 'n' steps of 'c' (at most MAX_DEPTH) by id; other entries are 0.
+     */
+    public static int[] snapshot(City c, int n){
+        Game game = c.getCountry().getGame();
+        int[] values = new int[game.getCityCount()];
+        for(City city : game.getTopology().getReachable(game, c, Math.min(n, MAX_DEPTH)))
+            values[city.getId()] = city.getValue();
+        return values;
+    }
+    
+    /**
+     * Thrown to abandon an iteration when the deadline is reached or the thread is interrupted.
+     */
+    private static class SearchAborted extends RuntimeException {
+        private static final long serialVersionUID = 7021526412940183217L;
+        
+        private static final SearchAborted INSTANCE = new SearchAborted();
+        
+        private SearchAborted(){
+            super(null, null, false, false);
+        }
+    }
+}
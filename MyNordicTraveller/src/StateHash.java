@@ -0,0 +1,69 @@
+import java.util.List;
+
+/**
+ * The hash of the state of a game, used to detect when two runs of the same game diverge.
+ * Every city contributes a term depending on its id and value, and the terms are combined with xor, so when a value
+ * changes the hash is updated in constant time by removing the old term and adding the new one. Players are few, so
+ * their money and positions are folded in whenever the hash is read, together with the time left and the state of
+ * the random generator, and so is the state of the crowd of the game, if it has one.
+ * @version v1.0
+ */
+public class StateHash {
+
+    private static final long CITY = 0x9E3779B97F4A7C15L, PLAYER = 0xC2B2AE3D27D4EB4FL, TIME = 0x165667B19E3779F9L;
+
+    private final Game game;
+
+    /** The xor of the terms of all cities */
+    private long cities;
+
+    /**
+     * Creates the hash of a game, computing the terms of all cities.
+     *
+     * @param game //The game, whose cities have ids.
+     */
+    public StateHash(Game game) {
+        this.game = game;
+        for (int i = 0; i < game.getCityCount(); i++) {
+            cities ^= term(i, game.getCity(i).getValue());
+        }
+    }
+
+    /**
+     * Updates the hash after the value of a city has changed.
+     *
+     * @param c   //The city, holding its new value.
+     * @param old //The value before the change.
+     */
+    void cityChanged(City c, int old) {
+        cities ^= term(c.getId(), old) ^ term(c.getId(), c.getValue());
+    }
+
+    private static long term(int id, int value) {
+        return TranspositionTable.mix(CITY * (id + 1) ^ value);
+    }
+
+    /**
+     * Returns the hash of the current state.
+     *
+     * @return long
+     */
+    public long get() {
+        long h = cities ^ TranspositionTable.mix(TIME ^ ((long) game.getStepsLeft() << 1 | (game.ongoing() ? 1 : 0)));
+        h ^= TranspositionTable.mix(TIME + game.getRandomState());
+        List<Player> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
+            Position pos = p.getPosition();
+            long t = TranspositionTable.mix(PLAYER * (i + 1) ^ p.getMoney());
+            t = TranspositionTable.mix(t ^ ((long) pos.getFrom().getId() << 32 | pos.getTo().getId()));
+            t = TranspositionTable.mix(t ^ ((long) pos.getDistance() << 32 | pos.getTotal()));
+            h ^= t;
+        }
+        Crowd crowd = game.getCrowd();
+        if (crowd != null) {
+            h ^= TranspositionTable.mix(PLAYER ^ crowd.hash());
+        }
+        return h;
+    }
+}
@@ -0,0 +1,580 @@
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams the state of a running game over TCP on localhost, so any number of observers can follow it.
+ * After every step the game's driver calls publish(), which encodes a single frame holding only the cities whose
+ * value changed and the players whose position or money changed. Every so often a keyframe with the full state is
+ * encoded instead. Frames are encoded once and the same bytes are queued for every observer; one I/O thread writes
+ * them without blocking, so the game does no per-observer work besides queueing a view of the frame.
+ * An observer that connects late gets the names of the cities and players, the last keyframe and the deltas since.
+ * An observer that falls too far behind has the frames it has not started reading dropped, and picks up again from
+ * the next keyframe.
+ * <p>
+ * Every frame is an int with the length of the rest of the frame, followed by (all numbers big-endian):
+ *  * HELLO: the type (0), the number of cities, their names (short length + UTF-8) by id, the number of players
+ *    and their names.
+ *  * KEYFRAME or DELTA: the type (1 or 2), the tick, the steps left, the number of cities, for each its id (short) and
+ *    value (int), the number of players, and for each its index (byte), the ids of the cities it travels from and
+ *    to (short), its distance and total distance (short) and its money (int).
+ * A keyframe holds every city and player, a delta only those that changed since the previous frame.
+ * @version v1.0
+ */
+public class StateStream implements CityChanges.Listener, Closeable {
+
+    /** The frame types */
+    public static final byte HELLO = 0, KEYFRAME = 1, DELTA = 2;
+
+    /** Frames queued per observer before its backlog is dropped */
+    private static final int MAX_BACKLOG = 1024;
+
+    private static final Metrics.Histogram ENCODE_TIME = Metrics.histogram("stream.encode");
+    private static final Metrics.Counter FRAMES = Metrics.counter("stream.frames"),
+                                         BYTES = Metrics.counter("stream.bytes"),
+                                         DROPPED = Metrics.counter("stream.dropped");
+
+    private final Game game;
+    private final Player[] players;
+    private final int keyframeInterval;
+
+    /** The state last published, to find what changed */
+    private final int[] from, to, distance, total, money;
+    private final BitSet changedCities = new BitSet();
+    private int tick;
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+    /** The hello frame, and the last keyframe followed by all deltas since, for observers that connect */
+    private final ByteBuffer hello;
+    private final List<ByteBuffer> sinceKeyframe = new ArrayList<>();
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final List<Observer> observers = new ArrayList<>();
+    private final Thread io;
+    private volatile boolean closed;
+
+    /** An observer, with the frames still to be written to it */
+    private static class Observer {
+        final SocketChannel channel;
+        final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        boolean resync;
+
+        Observer(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Starts streaming a game, which must have all of its players. The agents of a Crowd are not streamed, so a game
+     * with a crowd cannot be. Nor can a game that does not fit the frames: more than Byte.MAX_VALUE players, or more
+     * than Short.MAX_VALUE cities, roads longer than that or names longer than that in UTF-8.
+     *
+     * @param game             //The game.
+     * @param port             //The port to listen on (on the loopback address), or 0 for any free port.
+     * @param keyframeInterval //The number of ticks between keyframes.
+     * @throws IOException if the port cannot be opened
+     * @throws IllegalArgumentException if the game has a crowd, or does not fit the frames
+     */
+    public StateStream(Game game, int port, int keyframeInterval) throws IOException {
+        if (game.getCrowd() != null) {
+            throw new IllegalArgumentException("A game with a crowd cannot be streamed.");
+        }
+        this.game = game;
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+        players = game.getPlayers().toArray(new Player[0]);
+        checkLimits(game, players);
+        from = new int[players.length];
+        to = new int[players.length];
+        distance = new int[players.length];
+        total = new int[players.length];
+        money = new int[players.length];
+        hello = encodeHello();
+        game.getCityChanges().addListener(this);
+
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        io = new Thread(this::serve, "state-stream");
+        io.setDaemon(true);
+        io.start();
+    }
+
+    /**
+     * Checks that the indices, ids, lengths and names of a game fit the byte and short fields of the frames.
+     */
+    private static void checkLimits(Game game, Player[] players) {
+        if (players.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("A game with more than " + Byte.MAX_VALUE
+                    + " players cannot be streamed.");
+        }
+        int n = game.getCityCount();
+        if (n > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("A game with more than " + Short.MAX_VALUE
+                    + " cities cannot be streamed.");
+        }
+        for (int i = 0; i < n; i++) {
+            City c = game.getCity(i);
+            checkName(c.getName());
+            for (Road r : c.getCountry().getRoads(c)) {
+                if (r.getLength() > Short.MAX_VALUE) {
+                    throw new IllegalArgumentException("A game with roads longer than " + Short.MAX_VALUE
+                            + " cannot be streamed.");
+                }
+            }
+        }
+        for (Player p : players) {
+            checkName(p.getName());
+        }
+    }
+
+    private static void checkName(String name) {
+        if (name.getBytes(StandardCharsets.UTF_8).length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("The name '" + name.substring(0, 20) + "...' is too long to stream.");
+        }
+    }
+
+    /**
+     * Returns the port the stream listens on.
+     *
+     * @return int
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of connected observers.
+     *
+     * @return int
+     */
+    public synchronized int getObserverCount() {
+        return observers.size();
+    }
+
+    @Override
+    public void citiesChanged(CityChanges changes) {
+        for (int i = changes.nextDirty(0); i >= 0; i = changes.nextDirty(i + 1)) {
+            changedCities.set(i);
+        }
+    }
+
+    /**
+     * Encodes the changes since the previous call, and queues them for every observer.
+     * Must be called by the thread stepping the game, after every step.
+     */
+    public void publish() {
+        long start = Metrics.start();
+        boolean keyframe = tick % keyframeInterval == 0;
+        ByteBuffer frame = encodeFrame(keyframe);
+        ENCODE_TIME.recordSince(start);
+        FRAMES.increment();
+        BYTES.add(frame.remaining());
+        synchronized (this) {
+            if (keyframe) {
+                sinceKeyframe.clear();
+            }
+            sinceKeyframe.add(frame);
+            for (Observer o : observers) {
+                if (o.queue.size() >= MAX_BACKLOG) {
+                    dropBacklog(o.queue);
+                    o.resync = true;
+                    DROPPED.increment();
+                }
+                if (keyframe) {
+                    o.resync = false;
+                }
+                if (!o.resync) {
+                    o.queue.add(frame.duplicate());
+                }
+            }
+        }
+        selector.wakeup();
+    }
+
+    /**
+     * Drops the frames queued for an observer that have not been started. The frame being written is kept, as the
+     * observer has already read part of it, and so is the hello frame, without which no other frame can be read.
+     */
+    static void dropBacklog(ArrayDeque<ByteBuffer> queue) {
+        ByteBuffer head = queue.peek();
+        queue.clear();
+        if (head != null && (head.position() > 0 || head.get(4) == HELLO)) {
+            queue.add(head);
+        }
+    }
+
+    private ByteBuffer encodeHello() {
+        int n = game.getCityCount();
+        byte[][] cityNames = new byte[n][], playerNames = new byte[players.length][];
+        int size = 1 + 4 + 2 * n + 4 + 2 * players.length;
+        for (int i = 0; i < n; i++) {
+            cityNames[i] = game.getCity(i).getName().getBytes(StandardCharsets.UTF_8);
+            size += cityNames[i].length;
+        }
+        for (int i = 0; i < players.length; i++) {
+            playerNames[i] = players[i].getName().getBytes(StandardCharsets.UTF_8);
+            size += playerNames[i].length;
+        }
+        ByteBuffer b = ByteBuffer.allocate(4 + size);
+        b.putInt(size).put(HELLO).putInt(n);
+        for (byte[] name : cityNames) {
+            b.putShort((short) name.length).put(name);
+        }
+        b.putInt(players.length);
+        for (byte[] name : playerNames) {
+            b.putShort((short) name.length).put(name);
+        }
+        b.flip();
+        return b.asReadOnlyBuffer();
+    }
+
+    private ByteBuffer encodeFrame(boolean keyframe) {
+        int n = game.getCityCount();
+        int needed = 4 + 1 + 4 + 4 + 4 + 6 * n + 4 + 11 * players.length;
+        if (scratch.capacity() < needed) {
+            scratch = ByteBuffer.allocate(needed);
+        }
+        ByteBuffer b = scratch;
+        b.clear();
+        b.putInt(0).put(keyframe ? KEYFRAME : DELTA).putInt(tick++).putInt(game.getStepsLeft());
+
+        //Cities
+        int countAt = b.position(), count = 0;
+        b.putInt(0);
+        for (int i = keyframe ? 0 : changedCities.nextSetBit(0); i >= 0 && i < n;
+             i = keyframe ? i + 1 : changedCities.nextSetBit(i + 1)) {
+            b.putShort((short) i).putInt(game.getCity(i).getValue());
+            count++;
+        }
+        b.putInt(countAt, count);
+        changedCities.clear();
+
+        //Players
+        countAt = b.position();
+        count = 0;
+        b.putInt(0);
+        for (int i = 0; i < players.length; i++) {
+            Position pos = players[i].getPosition();
+            int f = pos.getFrom().getId(), t = pos.getTo().getId(), m = players[i].getMoney();
+            if (keyframe || f != from[i] || t != to[i] || pos.getDistance() != distance[i]
+                    || pos.getTotal() != total[i] || m != money[i]) {
+                from[i] = f;
+                to[i] = t;
+                distance[i] = pos.getDistance();
+                total[i] = pos.getTotal();
+                money[i] = m;
+                b.put((byte) i).putShort((short) f).putShort((short) t).putShort((short) distance[i])
+                        .putShort((short) total[i]).putInt(m);
+                count++;
+            }
+        }
+        b.putInt(countAt, count);
+        b.putInt(0, b.position() - 4);
+
+        b.flip();
+        ByteBuffer frame = ByteBuffer.allocate(b.remaining());
+        frame.put(b).flip();
+        return frame.asReadOnlyBuffer();
+    }
+
+    /**
+     * Accepts observers and writes their queued frames, until the stream is closed.
+     */
+    private void serve() {
+        try {
+            while (!closed) {
+                synchronized (this) {
+                    for (Observer o : observers) {
+                        SelectionKey key = o.channel.keyFor(selector);
+                        if (key != null && key.isValid()) {
+                            key.interestOps(o.queue.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+                        }
+                    }
+                }
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isWritable()) {
+                        write((Observer) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Observer o = new Observer(channel);
+        synchronized (this) {
+            o.queue.add(hello.duplicate());
+            for (ByteBuffer frame : sinceKeyframe) {
+                o.queue.add(frame.duplicate());
+            }
+            observers.add(o);
+        }
+        channel.register(selector, 0, o);
+    }
+
+    private void write(Observer o) {
+        try {
+            synchronized (this) {
+                while (!o.queue.isEmpty()) {
+                    ByteBuffer frame = o.queue.peek();
+                    o.channel.write(frame);
+                    if (frame.hasRemaining()) {
+                        return;
+                    }
+                    o.queue.poll();
+                }
+            }
+        } catch (IOException e) {
+            disconnect(o);
+        }
+    }
+
+    private synchronized void disconnect(Observer o) {
+        observers.remove(o);
+        try {
+            o.channel.close();
+        } catch (IOException e) {
+            //Already gone
+        }
+    }
+
+    /**
+     * Stops streaming, and disconnects all observers.
+     *
+     * @throws IOException if the port cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        game.getCityChanges().removeListener(this);
+        selector.wakeup();
+        try {
+            io.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            for (Observer o : new ArrayList<>(observers)) {
+                disconnect(o);
+            }
+        }
+        server.close();
+        selector.close();
+    }
+
+    /**
+     * Follows a stream, keeping a copy of the state it describes.
+     * Intended for observers written in Java, and as a reference for decoding the frames.
+     */
+    public static class Client implements Closeable {
+        private final Socket socket;
+        private final DataInputStream in;
+        private String[] cityNames = new String[0], playerNames = new String[0];
+        private int[] values = new int[0], from = new int[0], to = new int[0], distance = new int[0],
+                total = new int[0], money = new int[0];
+        private int tick = -1, stepsLeft;
+
+        /**
+         * Connects to a stream on localhost.
+         *
+         * @param port //The port of the stream.
+         * @throws IOException if the stream cannot be reached
+         */
+        public Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        }
+
+        /**
+         * Reads and applies the next frame.
+         *
+         * @return byte //The type of the frame.
+         * @throws IOException if the stream is closed or broken
+         */
+        public byte next() throws IOException {
+            in.readInt();
+            byte type = in.readByte();
+            if (type == HELLO) {
+                cityNames = new String[in.readInt()];
+                for (int i = 0; i < cityNames.length; i++) {
+                    cityNames[i] = readName();
+                }
+                playerNames = new String[in.readInt()];
+                for (int i = 0; i < playerNames.length; i++) {
+                    playerNames[i] = readName();
+                }
+                values = new int[cityNames.length];
+                from = new int[playerNames.length];
+                to = new int[playerNames.length];
+                distance = new int[playerNames.length];
+                total = new int[playerNames.length];
+                money = new int[playerNames.length];
+                return type;
+            }
+            tick = in.readInt();
+            stepsLeft = in.readInt();
+            for (int count = in.readInt(); count > 0; count--) {
+                int id = in.readShort();
+                values[id] = in.readInt();
+            }
+            for (int count = in.readInt(); count > 0; count--) {
+                int i = in.readByte();
+                from[i] = in.readShort();
+                to[i] = in.readShort();
+                distance[i] = in.readShort();
+                total[i] = in.readShort();
+                money[i] = in.readInt();
+            }
+            return type;
+        }
+
+        private String readName() throws IOException {
+            byte[] b = new byte[in.readShort()];
+            in.readFully(b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns the tick of the last frame read, or -1 before the first.
+         *
+         * @return int
+         */
+        public int getTick() {
+            return tick;
+        }
+
+        /**
+         * Returns the steps left in the game, as of the last frame read.
+         *
+         * @return int
+         */
+        public int getStepsLeft() {
+            return stepsLeft;
+        }
+
+        /**
+         * Returns the name of a city.
+         *
+         * @param id //The id of the city.
+         * @return String
+         */
+        public String getCityName(int id) {
+            return cityNames[id];
+        }
+
+        /**
+         * Returns the value of a city.
+         *
+         * @param id //The id of the city.
+         * @return int
+         */
+        public int getValue(int id) {
+            return values[id];
+        }
+
+        /**
+         * Returns the number of players.
+         *
+         * @return int
+         */
+        public int getPlayerCount() {
+            return playerNames.length;
+        }
+
+        /**
+         * Returns the name of a player.
+         *
+         * @param i //The index of the player.
+         * @return String
+         */
+        public String getPlayerName(int i) {
+            return playerNames[i];
+        }
+
+        /**
+         * Returns the money of a player.
+         *
+         * @param i //The index of the player.
+         * @return int
+         */
+        public int getMoney(int i) {
+            return money[i];
+        }
+
+        /**
+         * Returns the position of a player as the ids of the cities it travels from and to, its distance and the
+         * total distance.
+         *
+         * @param i //The index of the player.
+         * @return int[]
+         */
+        public int[] getPosition(int i) {
+            return new int[]{from[i], to[i], distance[i], total[i]};
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Runs games on 'network.dat' one after another, streaming them on the given port (4711 by default).
+     * Arguments: [port] [milliseconds per step, 50 by default].
+     *
+     * @param args //The command line arguments
+     * @throws Exception if the port cannot be opened, or the thread is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4711;
+        long delay = args.length > 1 ? Long.parseLong(args[1]) : 50;
+        Game game = Generator.generateGame((int) (Math.random() * Integer.MAX_VALUE), "network.dat");
+        try (StateStream stream = new StateStream(game, port, 32)) {
+            System.out.println("Streaming on port " + stream.getPort());
+            while (true) {
+                if (!game.ongoing()) {
+                    game.reset(false, false);
+                }
+                game.step();
+                stream.publish();
+                Thread.sleep(delay);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A compact record of the state of a game after every step: one 64-bit state hash per tick, where tick 0 is the state
+ * before the first step. Two traces of the same game can be compared to find the first tick where they differ, for
+ * instance to check an optimised engine against the reference one over many games.
+ * The file format is the magic number "NTST", the number of ticks and the hashes (all big-endian).
+ * @version v1.0
+ */
+public class StateTrace {
+
+    /** The first four bytes of a trace file ("NTST") */
+    static final int MAGIC = 0x4E545354;
+
+    private long[] hashes = new long[64];
+    private int size;
+
+    /**
+     * Plays a game to the end, recording its state before the first step and after every step.
+     *
+     * @param g //The game.
+     * @return StateTrace
+     */
+    public static StateTrace play(Game g) {
+        StateTrace trace = new StateTrace();
+        trace.record(g);
+        while (g.ongoing()) {
+            g.step();
+            trace.record(g);
+        }
+        return trace;
+    }
+
+    /**
+     * Records the current state of a game as the next tick.
+     *
+     * @param g //The game.
+     */
+    public void record(Game g) {
+        add(g.getStateHash());
+    }
+
+    /**
+     * Adds a hash as the next tick.
+     *
+     * @param hash //The hash.
+     */
+    public void add(long hash) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        hashes[size++] = hash;
+    }
+
+    /**
+     * Returns the number of ticks recorded.
+     *
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the hash of a tick.
+     *
+     * @param tick //The tick.
+     * @return long
+     */
+    public long get(int tick) {
+        if (tick < 0 || tick >= size) {
+            throw new IndexOutOfBoundsException("No tick " + tick + " in a trace of " + size + " ticks");
+        }
+        return hashes[tick];
+    }
+
+    /**
+     * Finds the first tick where this trace and another differ.
+     * If one trace is a prefix of the other, the first tick recorded in only one of them is returned.
+     *
+     * @param other //The other trace.
+     * @return int //The first differing tick, or -1 if the traces are equal.
+     */
+    public int firstDifference(StateTrace other) {
+        int n = Math.min(size, other.size);
+        for (int i = 0; i < n; i++) {
+            if (hashes[i] != other.hashes[i]) {
+                return i;
+            }
+        }
+        return size == other.size ? -1 : n;
+    }
+
+    /**
+     * Writes the trace to a file.
+     *
+     * @param file //The file.
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(8 + 8 * size);
+        b.putInt(MAGIC).putInt(size);
+        for (int i = 0; i < size; i++) {
+            b.putLong(hashes[i]);
+        }
+        Files.write(file, b.array());
+    }
+
+    /**
+     * Reads a trace from a file.
+     *
+     * @param file //The file.
+     * @return StateTrace
+     * @throws IOException if the file cannot be read, or is not a trace
+     */
+    public static StateTrace read(Path file) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (b.remaining() < 8 || b.getInt() != MAGIC) {
+            throw new IOException("'" + file + "' is not a state trace.");
+        }
+        int n = b.getInt();
+        if (n < 0 || b.remaining() != 8L * n) {
+            throw new IOException("'" + file + "' is truncated.");
+        }
+        StateTrace trace = new StateTrace();
+        trace.hashes = new long[Math.max(n, 1)];
+        b.asLongBuffer().get(trace.hashes, 0, n);
+        trace.size = n;
+        return trace;
+    }
+}
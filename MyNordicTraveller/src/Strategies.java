@@ -0,0 +1,56 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Function;
+
+/**
+ * Finds the strategies on the class path, which are listed in 'META-INF/services/Strategy'.
+ * @version v1.0
+ */
+public class Strategies {
+
+    private Strategies() {
+    }
+
+    /**
+     * Returns one instance of every strategy on the class path.
+     *
+     * @return List //The strategies, in the order they are listed.
+     */
+    public static List<Strategy> load() {
+        List<Strategy> strategies = new ArrayList<>();
+        for (Strategy s : ServiceLoader.load(Strategy.class)) {
+            strategies.add(s);
+        }
+        return strategies;
+    }
+
+    /**
+     * Returns the factory of players using a strategy on the class path, which is found by the simple name of its
+     * class or by its display name, ignoring case. Every player gets its own instance of the strategy.
+     *
+     * @param name //The name of the strategy
+     * @return A factory creating the player at its starting position, or null if there is no such strategy
+     */
+    public static Function<Position, ? extends Player> find(String name) {
+        String n = name.trim();
+        for (Strategy s : ServiceLoader.load(Strategy.class)) {
+            if (s.getClass().getSimpleName().equalsIgnoreCase(n) || s.getName().equalsIgnoreCase(n)) {
+                Class<? extends Strategy> type = s.getClass();
+                return pos -> new StrategyPlayer(pos, newInstance(type));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a strategy through its constructor without arguments, as ServiceLoader does.
+     */
+    private static Strategy newInstance(Class<? extends Strategy> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the strategy " + type.getName() + ": " + e, e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * A strategy for an AI player, which can be added to the game without changing it.
+ * Strategies are discovered with java.util.ServiceLoader: a jar on the class path lists its implementations in
+ * 'META-INF/services/Strategy', and each needs a public constructor without arguments (see Strategies).
+ * A strategy is played by a StrategyPlayer, which asks it where to go every time the player arrives in a city. It
+ * only sees the game through a read-only WorldView, and must decide within the budget of the player, or the player
+ * makes the greedy move instead.
+ * @version v1.0
+ */
+public interface Strategy {
+
+    /**
+     * Returns the display name of players using this strategy, which also decides the order players move in.
+     *
+     * @return String
+     */
+    String getName();
+
+    /**
+     * Decides where to go from the city the player has arrived in. May be called on another thread than the one
+     * stepping the game, but never for two decisions of the same player at once.
+     *
+     * @param view //The game as seen by the player, which can only be used until this method returns.
+     * @return int //The id of a neighbouring city, or -1 to stay.
+     */
+    int decide(WorldView view);
+}
@@ -0,0 +1,271 @@
+import java.awt.Color;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An AI player whose decisions are made by a Strategy, which may come from a third party.
+ * Every decision is given a budget: with a time budget the strategy decides on a separate thread, and if it has not
+ * decided in time the player stops waiting and makes the greedy move instead, so one slow strategy cannot stall the
+ * game. With an allocation budget a decision that allocated more memory than that is ignored as well, as is one
+ * that threw an exception or chose a city that is not a neighbour. The time of every decision, and the number of
+ * decisions that were replaced, are recorded per strategy as 'strategy.NAME.decide', 'strategy.NAME.timeouts',
+ * 'strategy.NAME.overbudget' and 'strategy.NAME.errors'.
+ * A strategy that overran its budget is not asked again until that decision has ended: until then the player makes
+ * the greedy move (counted as a timeout), so a strategy never makes two decisions at once. A strategy that never
+ * returns keeps one thread of the bounded pool busy, but no more.
+ * The pool has DECIDER_THREADS threads; decisions waiting for a thread count against their time budget.
+ * @version v1.0
+ */
+public class StrategyPlayer extends Player {
+
+    /** The default time allowed per decision (in ms) */
+    public static final long DEFAULT_TIME_BUDGET = 100;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    /** The number of threads running decisions with a time budget */
+    static final int DECIDER_THREADS = 2 * Runtime.getRuntime().availableProcessors();
+
+    /** Threads running decisions with a time budget, shared by all StrategyPlayers */
+    private static final ExecutorService DECIDERS = deciders();
+
+    /** Measures the memory allocated by a thread, or null if the JVM cannot */
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocations();
+
+    private final Strategy strategy;
+
+    /** The decision still running after the player stopped waiting for it, if any */
+    private Decision overrun;
+
+    /**
+     * A decision made on a thread of the pool, which is either waiting for a thread, running, or over (finished, or
+     * abandoned before it started).
+     */
+    private class Decision implements Callable<long[]> {
+        private static final int WAITING = 0, RUNNING = 1, OVER = 2;
+        private final AtomicInteger state = new AtomicInteger();
+        private final WorldView view;
+
+        Decision(WorldView view) {
+            this.view = view;
+        }
+
+        @Override
+        public long[] call() {
+            if (!state.compareAndSet(WAITING, RUNNING))
+                return null;
+            try {
+                return decide(view);
+            } finally {
+                state.set(OVER);
+            }
+        }
+
+        /**
+         * Gives up on the decision: it will not start if it has not yet.
+         * @return True if it is still running.
+         */
+        boolean abandon() {
+            return !state.compareAndSet(WAITING, OVER) && state.get() == RUNNING;
+        }
+
+        boolean isRunning() {
+            return state.get() == RUNNING;
+        }
+    }
+
+    private long timeBudget = DEFAULT_TIME_BUDGET, allocationBudget;
+
+    private final Metrics.Histogram decideTime;
+    private final Metrics.Counter timeouts, overBudget, errors;
+
+    /**
+     * Instantiates a new StrategyPlayer with the specified position, and the default time budget.
+     * @param pos The position of this player.
+     * @param strategy The strategy deciding where this player goes.
+     */
+    public StrategyPlayer(Position pos, Strategy strategy) {
+        super(pos);
+        this.strategy = strategy;
+        String name = "strategy." + strategy.getName().trim().toLowerCase().replace(' ', '-');
+        decideTime = Metrics.histogram(name + ".decide");
+        timeouts = Metrics.counter(name + ".timeouts");
+        overBudget = Metrics.counter(name + ".overbudget");
+        errors = Metrics.counter(name + ".errors");
+    }
+
+    private static ExecutorService deciders() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(DECIDER_THREADS, DECIDER_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "strategy-" + THREADS.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static com.sun.management.ThreadMXBean allocations() {
+        try {
+            Object bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) bean;
+                if (b.isThreadAllocatedMemorySupported()) {
+                    b.setThreadAllocatedMemoryEnabled(true);
+                    return b;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            //Allocation budgets are then not enforced
+        }
+        return null;
+    }
+
+    /**
+     * Determines whether allocation budgets can be enforced by this JVM.
+     * @return True if the memory allocated by a decision can be measured.
+     */
+    public static boolean isAllocationMeasured() {
+        return ALLOCATIONS != null;
+    }
+
+    /**
+     * Gets the strategy of this player.
+     * @return The strategy.
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the wall-clock time this player may spend deciding where to go.
+     * @return The time budget (in ms), or 0 if unlimited.
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * Sets the wall-clock time this player may spend deciding where to go. Without a budget, the strategy decides
+     * on the thread stepping the game.
+     * @param timeBudget The time budget (in ms), or 0 to wait for every decision.
+     */
+    public void setTimeBudget(long timeBudget) {
+        if (timeBudget < 0)
+            throw new IllegalArgumentException("Time budget must not be negative: " + timeBudget);
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * Gets the memory this player may allocate while deciding where to go.
+     * @return The allocation budget (in bytes), or 0 if unlimited.
+     */
+    public long getAllocationBudget() {
+        return allocationBudget;
+    }
+
+    /**
+     * Sets the memory this player may allocate while deciding where to go. Is only enforced if
+     * isAllocationMeasured().
+     * @param allocationBudget The allocation budget (in bytes), or 0 if unlimited.
+     */
+    public void setAllocationBudget(long allocationBudget) {
+        if (allocationBudget < 0)
+            throw new IllegalArgumentException("Allocation budget must not be negative: " + allocationBudget);
+        this.allocationBudget = allocationBudget;
+    }
+
+    @Override
+    public void step() {
+        advance();
+        if (getPosition().hasArrived()) {
+            City city = getPosition().getTo();
+            City next = decide(city);
+            if (next != null)
+                travel(city, next);
+        }
+    }
+
+    /**
+     * Asks the strategy where to go within the budget, falling back to the greedy move.
+     */
+    private City decide(City city) {
+        long start = Metrics.start();
+        Game game = getCountry().getGame();
+        WorldView view = new WorldView(game, city, getMoney());
+        long[] decision = null;
+        try {
+            if (overrun != null && overrun.isRunning()) {
+                //The previous decision is still running, so the strategy is not asked again yet
+                timeouts.increment();
+            } else if (timeBudget == 0) {
+                overrun = null;
+                decision = decide(view);
+            } else {
+                overrun = null;
+                Decision d = new Decision(view);
+                Future<long[]> future = DECIDERS.submit(d);
+                try {
+                    decision = future.get(timeBudget, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (d.abandon())
+                        overrun = d;
+                    future.cancel(true);
+                    timeouts.increment();
+                } catch (ExecutionException e) {
+                    errors.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+        } finally {
+            view.close();
+        }
+        if (decision != null && allocationBudget > 0 && decision[1] > allocationBudget) {
+            overBudget.increment();
+            decision = null;
+        }
+        if (decision != null && decision[0] != -1 && (decision[0] < 0 || decision[0] >= game.getCityCount()
+                || city.getCountry().getRoad(city, game.getCity((int) decision[0])) == null)) {
+            //Not a neighbour, so the move would not be made
+            errors.increment();
+            decision = null;
+        }
+        decideTime.recordSince(start);
+        if (decision == null)
+            return game.getNeighbourIndex().getBest(city);
+        return decision[0] < 0 ? null : game.getCity((int) decision[0]);
+    }
+
+    /**
+     * Runs a decision, measuring the memory it allocated.
+     * @return The city chosen, and the bytes allocated (or 0 if not measured).
+     */
+    private long[] decide(WorldView view) {
+        long id = Thread.currentThread().getId();
+        long before = ALLOCATIONS == null ? 0 : ALLOCATIONS.getThreadAllocatedBytes(id);
+        int choice = strategy.decide(view);
+        long after = ALLOCATIONS == null ? 0 : ALLOCATIONS.getThreadAllocatedBytes(id);
+        return new long[]{choice, after - before};
+    }
+
+    @Override
+    public String getName() {
+        return strategy.getName();
+    }
+
+    @Override
+    public Color getColor() {
+        return Color.PINK;
+    }
+}
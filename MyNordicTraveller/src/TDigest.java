@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * A merging t-digest (Dunning) for estimating quantiles of a stream of values in constant memory.
+ * Clusters near the tails are kept small, so extreme quantiles are accurate, and digests can be merged.
+ *
+ * @version v1.0
+ */
+public class TDigest {
+    /**
+     * The compression; roughly the number of clusters kept.
+     */
+    private final double compression;
+    /**
+     * The means and weights of the clusters, sorted by mean.
+     */
+    private double[] mean, weight;
+    /**
+     * The number of clusters in use.
+     */
+    private int clusters;
+    /**
+     * Values added since the last compression.
+     */
+    private double[] bufferMean, bufferWeight;
+    /**
+     * The number of buffered values.
+     */
+    private int buffered;
+    /**
+     * The total weight, and the smallest and largest value.
+     */
+    private double total, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a digest with a compression of 100.
+     */
+    public TDigest() {
+        this(100);
+    }
+
+    /**
+     * Creates a digest with the given compression.
+     *
+     * @param compression //The compression, at least 10
+     */
+    public TDigest(double compression) {
+        this.compression = Math.max(10, compression);
+        int size = (int) Math.ceil(2 * this.compression) + 10;
+        mean = new double[size];
+        weight = new double[size];
+        bufferMean = new double[5 * size];
+        bufferWeight = new double[5 * size];
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param x //The value
+     */
+    public void add(double x) {
+        add(x, 1);
+    }
+
+    /**
+     * Adds a value with a weight.
+     *
+     * @param x //The value
+     * @param w //The weight
+     */
+    public void add(double x, double w) {
+        if (buffered == bufferMean.length) {
+            compress();
+        }
+        bufferMean[buffered] = x;
+        bufferWeight[buffered++] = w;
+        total += w;
+        min = Math.min(min, x);
+        max = Math.max(max, x);
+    }
+
+    /**
+     * Adds all values of another digest to this one.
+     *
+     * @param other //The other digest, which is not changed
+     */
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.clusters; i++) {
+            add(other.mean[i], other.weight[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the total weight of all values.
+     *
+     * @return double
+     */
+    public double getCount() {
+        return total;
+    }
+
+    /**
+     * Returns an estimate of the given quantile, or NaN if there are no values.
+     *
+     * @param q //The quantile, in [0,1]
+     * @return double
+     */
+    public double quantile(double q) {
+        compress();
+        if (clusters == 0) {
+            return Double.NaN;
+        }
+        if (clusters == 1) {
+            return mean[0];
+        }
+        double index = q * total;
+        if (index < weight[0] / 2) {
+            return min + (mean[0] - min) * index / (weight[0] / 2);
+        }
+        double seen = weight[0] / 2;
+        for (int i = 0; i < clusters - 1; i++) {
+            double step = (weight[i] + weight[i + 1]) / 2;
+            if (seen + step > index) {
+                return mean[i] + (mean[i + 1] - mean[i]) * (index - seen) / step;
+            }
+            seen += step;
+        }
+        double last = weight[clusters - 1] / 2;
+        return mean[clusters - 1] + (max - mean[clusters - 1]) * Math.min(1, (index - seen) / last);
+    }
+
+    /**
+     * Merges the buffered values into the clusters.
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = clusters + buffered;
+        double[] allMean = Arrays.copyOf(mean, n), allWeight = Arrays.copyOf(weight, n);
+        System.arraycopy(bufferMean, 0, allMean, clusters, buffered);
+        System.arraycopy(bufferWeight, 0, allWeight, clusters, buffered);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMean[a], allMean[b]));
+
+        clusters = 0;
+        double seen = 0;
+        double limit = total * q(k(0) + 1);
+        double curMean = allMean[order[0]], curWeight = allWeight[order[0]];
+        for (int i = 1; i < n; i++) {
+            double m = allMean[order[i]], w = allWeight[order[i]];
+            if (seen + curWeight + w <= limit) {
+                curWeight += w;
+                curMean += (m - curMean) * w / curWeight;
+            } else {
+                seen += curWeight;
+                emit(curMean, curWeight);
+                limit = total * q(k(seen / total) + 1);
+                curMean = m;
+                curWeight = w;
+            }
+        }
+        emit(curMean, curWeight);
+        buffered = 0;
+    }
+
+    private void emit(double m, double w) {
+        if (clusters == mean.length) {
+            mean = Arrays.copyOf(mean, clusters * 2);
+            weight = Arrays.copyOf(weight, clusters * 2);
+        }
+        mean[clusters] = m;
+        weight[clusters++] = w;
+    }
+
+    /**
+     * The scale function k1, which keeps clusters small near q = 0 and q = 1.
+     */
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+    }
+
+    /**
+     * The inverse of the scale function.
+     */
+    private double q(double k) {
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+}
@@ -0,0 +1,90 @@
+import java.awt.Color;
+
+/**
+ * An AI player which moves as a SmartPlayer would, by looking its moves up in a PolicyTable compiled in advance, so
+ * every decision takes constant time.
+ * The value bucket is found from the total value of the cities, which the game keeps up to date. When there are
+ * more steps left than the table has moves for, or the settings have changed so the table no longer fits, the player
+ * makes the greedy move instead; such decisions are counted as 'policy.misses'.
+ * @version v1.0
+ */
+public class TablePlayer extends Player {
+
+    /** Time spent per step of a TablePlayer */
+    private static final Metrics.Histogram STEP_TIME = Metrics.histogram("player.table.step");
+
+    /** Number of decisions the table had no move for */
+    private static final Metrics.Counter MISSES = Metrics.counter("policy.misses");
+
+    private final PolicyTable table;
+
+    /** The total value of the cities at the start of a game */
+    private final long initialValue;
+
+    /** Whether the table fits the settings, and the version of the settings this was checked for */
+    private boolean fits;
+    private int settingsVersion = -1;
+
+    /**
+     * Instantiates a new TablePlayer with the specified position.
+     * @param pos The position of this player, in a game on the network the table was compiled for.
+     * @param table The moves of this player.
+     * @throws IllegalArgumentException if the table was compiled for another network
+     */
+    public TablePlayer(Position pos, PolicyTable table) {
+        super(pos);
+        this.table = table;
+        Game game = pos.getFrom().getCountry().getGame();
+        long sum = 0;
+        for (int i = 0; i < game.getCityCount(); i++)
+            sum += game.getCity(i).getInitialValue();
+        initialValue = sum;
+        if (table.getNetworkHash() != game.getNetworkHash())
+            throw new IllegalArgumentException("The policy table was compiled for another network.");
+    }
+
+    /**
+     * Gets the table of this player.
+     * @return The policy table.
+     */
+    public PolicyTable getTable() {
+        return table;
+    }
+
+    @Override
+    public void step() {
+        long start = Metrics.start();
+        advance();
+        if (getPosition().hasArrived()) {
+            City city = getPosition().getTo();
+            Game game = getCountry().getGame();
+            Settings s = game.getSettings();
+            if (settingsVersion != s.getVersion()) {
+                settingsVersion = s.getVersion();
+                fits = table.fits(game);
+            }
+            int n = game.getStepsLeft();
+            City next;
+            if (fits && n <= table.getMaxSteps()) {
+                int to = table.get(city.getId(), n, table.bucket(game.getTotalValue(), initialValue));
+                next = to < 0 ? city : game.getCity(to);
+            } else {
+                MISSES.increment();
+                next = game.getNeighbourIndex().getBest(city);
+            }
+            if (next != null)
+                travel(city, next);
+        }
+        STEP_TIME.recordSince(start);
+    }
+
+    @Override
+    public String getName() {
+        return "Table Player";
+    }
+
+    @Override
+    public Color getColor() {
+        return Color.GREEN;
+    }
+}
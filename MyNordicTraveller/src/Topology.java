@@ -0,0 +1,308 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * The shortest road lengths between all pairs of cities of a network, and the cities reachable from each city within
+ * a given number of steps.
+ * Cities are identified by an index, given by the order of their names. A Topology only refers to cities by name,
+ * so it is computed once per network and shared by all games loaded from that network (as long as it is one of the
+ * CACHE_SIZE networks used most recently; a game keeps its own Topology either way). It is safe to share across
+ * threads: the reachability bitsets it caches are published through an AtomicReferenceArray.
+ * @version v1.0
+ */
+public class Topology {
+
+    /** The distance between two cities when there is no route between them */
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    /** The number of networks whose topologies are kept for later games */
+    static final int CACHE_SIZE = 16;
+
+    /**
+     * The topologies of the networks used most recently, by network hash. The lock of the map is only held to find or
+     * insert an entry; the topology itself is built outside it, and games on the same network wait for that one build.
+     */
+    private static final Map<Long, CompletableFuture<Topology>> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<Long, CompletableFuture<Topology>>(CACHE_SIZE, 0.75f, true) {
+                private static final long serialVersionUID = -3318562071447402914L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<Topology>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /** Time spent computing topologies */
+    private static final Metrics.Histogram BUILD_TIME = Metrics.histogram("topology.build");
+
+    private final String[] names;
+    private final Map<String, Integer> indices;
+    private final int size;
+
+    /** The distance matrix, row by row; only one of them is used, depending on the largest distance */
+    private final short[] shortDistances;
+    private final int[] intDistances;
+
+    /** Cached reachability bitsets, indexed by city * (MAX_BALL + 1) + steps */
+    private final AtomicReferenceArray<long[]> balls;
+
+    /** Bitsets are cached for up to this many steps */
+    static final int MAX_BALL = 64;
+
+    /**
+     * Computes the topology of a game's network.
+     *
+     * @param game //The game, whose countries and roads are complete.
+     */
+    Topology(Game game) {
+        long start = Metrics.start();
+        TreeMap<String, City> cities = new TreeMap<String, City>();
+        for (Country country : game.getCountries()) {
+            for (City city : country.getCities()) {
+                cities.put(city.getName(), city);
+            }
+        }
+        size = cities.size();
+        names = cities.keySet().toArray(new String[size]);
+        indices = new HashMap<String, Integer>();
+        for (int i = 0; i < size; i++) {
+            indices.put(names[i], i);
+        }
+
+        //The roads of every city, as indices and lengths
+        int[][] targets = new int[size][];
+        int[][] lengths = new int[size][];
+        int i = 0;
+        for (City city : cities.values()) {
+            List<Road> roads = city.getCountry().getRoads(city);
+            targets[i] = new int[roads.size()];
+            lengths[i] = new int[roads.size()];
+            for (int j = 0; j < roads.size(); j++) {
+                targets[i][j] = indices.get(roads.get(j).getTo().getName());
+                lengths[i][j] = roads.get(j).getLength();
+            }
+            i++;
+        }
+
+        int[][] rows = new int[size][];
+        IntStream.range(0, size).parallel().forEach(s -> rows[s] = dijkstra(s, targets, lengths));
+
+        int max = 0;
+        for (int[] row : rows) {
+            for (int d : row) {
+                if (d != INFINITY) {
+                    max = Math.max(max, d);
+                }
+            }
+        }
+        if (max < Short.MAX_VALUE) {
+            shortDistances = new short[size * size];
+            intDistances = null;
+            for (int a = 0; a < size; a++) {
+                for (int b = 0; b < size; b++) {
+                    shortDistances[a * size + b] = rows[a][b] == INFINITY ? -1 : (short) rows[a][b];
+                }
+            }
+        } else {
+            intDistances = new int[size * size];
+            shortDistances = null;
+            for (int a = 0; a < size; a++) {
+                System.arraycopy(rows[a], 0, intDistances, a * size, size);
+            }
+        }
+        balls = new AtomicReferenceArray<long[]>(size * (MAX_BALL + 1));
+        BUILD_TIME.recordSince(start);
+    }
+
+    /**
+     * Finds the shortest road lengths from a city to all others.
+     */
+    private int[] dijkstra(int source, int[][] targets, int[][] lengths) {
+        int[] distance = new int[size];
+        Arrays.fill(distance, INFINITY);
+        distance[source] = 0;
+        PriorityQueue<Long> queue = new PriorityQueue<Long>();
+        queue.add((long) source);
+        while (!queue.isEmpty()) {
+            long next = queue.poll();
+            int city = (int) next;
+            int d = (int) (next >>> 32);
+            if (d > distance[city]) {
+                continue;
+            }
+            for (int j = 0; j < targets[city].length; j++) {
+                int to = targets[city][j];
+                int nd = d + lengths[city][j];
+                if (nd < distance[to]) {
+                    distance[to] = nd;
+                    queue.add(((long) nd << 32) | to);
+                }
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Returns the topology of a game's network, computing it if no game with the same network has done so before.
+     *
+     * @param game //The game.
+     * @return Topology
+     */
+    public static Topology of(Game game) {
+        Long hash = game.getNetworkHash();
+        CompletableFuture<Topology> future = new CompletableFuture<Topology>();
+        CompletableFuture<Topology> cached = CACHE.putIfAbsent(hash, future);
+        if (cached != null) {
+            return cached.join();
+        }
+        try {
+            Topology t = new Topology(game);
+            future.complete(t);
+            return t;
+        } catch (RuntimeException | Error e) {
+            //Lets the next game try again, and fails those waiting for this build
+            CACHE.remove(hash, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of cities.
+     *
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of a city, or -1 if the city is not part of the network.
+     *
+     * @param c //The city.
+     * @return int
+     */
+    public int indexOf(City c) {
+        int id = c.getId();
+        if (id >= 0 && id < size && names[id].equals(c.getName())) {
+            return id;
+        }
+        Integer i = indices.get(c.getName());
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Returns the name of the city with a given index.
+     *
+     * @param index //The index of the city.
+     * @return String
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the length of the shortest route between two cities, or INFINITY if there is none.
+     *
+     * @param from //The index of the first city.
+     * @param to   //The index of the second city.
+     * @return int
+     */
+    public int getDistance(int from, int to) {
+        if (shortDistances != null) {
+            short d = shortDistances[from * size + to];
+            return d < 0 ? INFINITY : d;
+        }
+        return intDistances[from * size + to];
+    }
+
+    /**
+     * Returns the length of the shortest route between two cities, or INFINITY if there is none.
+     *
+     * @param from //The first city.
+     * @param to   //The second city.
+     * @return int
+     */
+    public int getDistance(City from, City to) {
+        return getDistance(indexOf(from), indexOf(to));
+    }
+
+    /**
+     * Determines whether a city can be reached from another within a given number of steps.
+     *
+     * @param from  //The city to start in.
+     * @param to    //The city to reach.
+     * @param steps //The number of steps.
+     * @return boolean
+     */
+    public boolean isReachable(City from, City to, int steps) {
+        return getDistance(from, to) <= steps;
+    }
+
+    /**
+     * Returns the indices of the cities that can be reached from a city within a given number of steps.
+     *
+     * @param from  //The city to start in.
+     * @param steps //The number of steps.
+     * @return BitSet
+     */
+    public BitSet getReachable(City from, int steps) {
+        return BitSet.valueOf(ball(indexOf(from), steps));
+    }
+
+    /**
+     * Returns the cities of a game that can be reached from a city within a given number of steps.
+     *
+     * @param game  //The game, which must have been loaded from the network of this Topology.
+     * @param from  //The city to start in.
+     * @param steps //The number of steps.
+     * @return List<City>
+     */
+    public List<City> getReachable(Game game, City from, int steps) {
+        long[] ball = ball(indexOf(from), steps);
+        List<City> cities = new ArrayList<City>();
+        for (int w = 0; w < ball.length; w++) {
+            for (long bits = ball[w]; bits != 0; bits &= bits - 1) {
+                cities.add(game.getCity(w * 64 + Long.numberOfTrailingZeros(bits)));
+            }
+        }
+        return cities;
+    }
+
+    /**
+     * Returns the bitset of cities within a given number of steps of a city. The result must not be modified.
+     *
+     * @param from  //The index of the city to start in.
+     * @param steps //The number of steps.
+     * @return long[]
+     */
+    long[] ball(int from, int steps) {
+        steps = Math.max(steps, 0);
+        int slot = from * (MAX_BALL + 1) + steps;
+        long[] ball = steps <= MAX_BALL ? balls.get(slot) : null;
+        if (ball == null) {
+            ball = new long[(size + 63) / 64];
+            for (int to = 0; to < size; to++) {
+                if (getDistance(from, to) <= steps) {
+                    ball[to >>> 6] |= 1L << to;
+                }
+            }
+            if (steps <= MAX_BALL) {
+                //Threads computing the same bitset at once store equal arrays, so either may win
+                balls.set(slot, ball);
+            }
+        }
+        return ball;
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Plays many seeded headless games with a fixed line-up of players, and rates each strategy as results come in.
+ * Players are rated per strategy (their display name), so a line-up may contain the same strategy several times.
+ *
+ * @version v1.0
+ */
+public class Tournament {
+    /**
+     * The lines of the network file, shared by all games.
+     */
+    private final String[] network;
+    /**
+     * The settings every game starts from.
+     */
+    private final Settings settings;
+    /**
+     * One factory per player in every game.
+     */
+    private final List<Function<Position, ? extends Player>> lineUp;
+    /**
+     * The ratings by strategy name.
+     */
+    private final Map<String, Rating> ratings = new TreeMap<>();
+    /**
+     * The number of games recorded so far.
+     */
+    private int games;
+    /**
+     * The distributions of the outcomes, collected by each worker thread.
+     */
+    private final OutcomeStats.PerThread outcomes = new OutcomeStats.PerThread();
+
+    /**
+     * Creates a tournament.
+     *
+     * @param network  //The lines of the network file
+     * @param settings //The settings of every game; each game gets its own copy
+     * @param lineUp   //One factory per player in every game
+     */
+    public Tournament(String[] network, Settings settings, List<Function<Position, ? extends Player>> lineUp) {
+        this.network = network;
+        this.settings = settings;
+        this.lineUp = new ArrayList<>(lineUp);
+    }
+
+    /**
+     * Plays the games with seeds firstSeed, firstSeed+1, ..., in parallel, updating the ratings as each one finishes.
+     *
+     * @param firstSeed //The seed of the first game
+     * @param count     //The number of games to play
+     * @param threads   //The number of worker threads
+     * @param listener  //Receives each result after the ratings are updated, may be null
+     * @throws InterruptedException If interrupted while waiting for games
+     * @throws ExecutionException   If a game throws an exception
+     */
+    public void run(int firstSeed, int count, int threads, Consumer<GameResult> listener)
+            throws InterruptedException, ExecutionException {
+        Iterator<Callable<GameResult>> tasks = new Iterator<Callable<GameResult>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Callable<GameResult> next() {
+                int seed = firstSeed + next++;
+                return () -> play(seed);
+            }
+        };
+        new BatchRunner(threads).run(tasks, result -> {
+            record(result);
+            if (listener != null) {
+                listener.accept(result);
+            }
+        });
+    }
+
+    /**
+     * Plays a single game with the given seed.
+     *
+     * @param seed //The seed of the game
+     * @return GameResult
+     */
+    public GameResult play(int seed) {
+        Game g = BatchRunner.play(Generator.generateGame(seed, network, new Settings(settings), lineUp));
+        outcomes.get().add(seed, g);
+        return new GameResult(seed, g);
+    }
+
+    /**
+     * Returns the distributions of the outcomes of all games played so far.
+     * Only call this while no games are being played.
+     *
+     * @return OutcomeStats
+     */
+    public OutcomeStats getOutcomes() {
+        return outcomes.merge();
+    }
+
+    /**
+     * Updates the ratings with the result of one game.
+     * Every pair of players with different strategies counts as one match, won by the player with the most money.
+     * A strategy playing in several slots has all its matches combined into one update, and is rated once per game.
+     *
+     * @param result //The result of the game
+     */
+    public void record(GameResult result) {
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < result.size(); i++) {
+            best = Math.max(best, result.getMoney(i));
+        }
+        Rating[] rated = new Rating[result.size()];
+        for (int i = 0; i < result.size(); i++) {
+            rated[i] = ratings.computeIfAbsent(result.getName(i), Rating::new);
+        }
+        for (int i = 0; i < rated.length; i++) {
+            for (int j = 0; j < rated.length; j++) {
+                if (rated[i] == rated[j]) {
+                    continue;
+                }
+                int diff = Integer.compare(result.getMoney(i), result.getMoney(j));
+                rated[i].accumulate(rated[j], diff > 0 ? 1 : diff == 0 ? 0.5 : 0);
+            }
+        }
+        //A strategy in several slots of the line-up counts once per game, with the most money of its slots
+        Map<Rating, Integer> money = new LinkedHashMap<>();
+        for (int i = 0; i < rated.length; i++) {
+            money.merge(rated[i], result.getMoney(i), Math::max);
+        }
+        for (Map.Entry<Rating, Integer> e : money.entrySet()) {
+            e.getKey().apply();
+            e.getKey().addGame(e.getValue(), e.getValue() == best);
+        }
+        games++;
+    }
+
+    /**
+     * Returns the number of games recorded so far.
+     *
+     * @return int
+     */
+    public int getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the rating of a strategy, or null if it has not played.
+     *
+     * @param name //The display name of the strategy
+     * @return Rating
+     */
+    public Rating getRating(String name) {
+        return ratings.get(name);
+    }
+
+    /**
+     * Returns the ratings, best first.
+     *
+     * @return List<Rating>
+     */
+    public List<Rating> getStandings() {
+        List<Rating> standings = new ArrayList<>(ratings.values());
+        Collections.sort(standings);
+        return standings;
+    }
+
+    /**
+     * Returns the factory of the strategy with the given short name (smart, greedy, random or gui), or of a strategy
+     * on the class path with the given name (see Strategies).
+     *
+     * @param name //The short name of the strategy
+     * @return A factory creating the player at its starting position
+     */
+    public static Function<Position, ? extends Player> strategy(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "smart":
+                return SmartPlayer::new;
+            case "greedy":
+                return GreedyPlayer::new;
+            case "random":
+                return RandomPlayer::new;
+            case "gui":
+                return Player::new;
+            default:
+                Function<Position, ? extends Player> plugin = Strategies.find(name);
+                if (plugin != null) {
+                    return plugin;
+                }
+                throw new IllegalArgumentException("Unknown strategy: '" + name + "'.");
+        }
+    }
+
+    /**
+     * Runs a tournament on 'network.dat'.
+     * Arguments: [games] [line-up, e.g. smart,greedy,random] [threads].
+     *
+     * @param args //The command line arguments
+     * @throws Exception If the tournament fails
+     */
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        String names = args.length > 1 ? args[1] : "smart,greedy,random";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        String[] network = Generator.readNetwork("network.dat");
+        if (network == null) {
+            System.out.println("Cannot run a tournament without 'network.dat'. Aborting...");
+            return;
+        }
+        List<Function<Position, ? extends Player>> lineUp = new ArrayList<>();
+        for (String name : names.split(",")) {
+            lineUp.add(strategy(name));
+        }
+        Settings s = Game.loadSettings();
+        Settings all = new Settings(new boolean[]{true, true, true}, s.getTollToBePaid(), s.getRisk(),
+                s.getMinRobbery(), s.getMaxRobbery(), s.getGameSpeed());
+
+        Tournament t = new Tournament(network, all, lineUp);
+        long start = System.nanoTime();
+        t.run(0, count, threads, r -> {
+            if (t.getGames() % 100 == 0) {
+                System.out.println(t.getGames() + " games");
+                t.getStandings().forEach(System.out::println);
+            }
+        });
+        System.out.printf("Played %d games in %.1f s%n", t.getGames(), (System.nanoTime() - start) / 1e9);
+        t.getStandings().forEach(System.out::println);
+        t.getOutcomes().writeJson("tournament.json");
+        System.out.println("Distributions written to 'tournament.json'.");
+    }
+}
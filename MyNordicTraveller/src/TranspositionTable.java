@@ -0,0 +1,228 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A fixed-size table of searched subtrees for the SmartPlayer, keyed by Zobrist hashes.
+ * A subtree is identified by the city it starts in, the number of steps left and how many times each city has
+ * been visited on the way there. Each (city, count) pair has a random 64-bit key, and the hash of a state is the
+ * xor of the keys of its pairs, so it can be updated incrementally when a single count changes.
+ * The table uses open addressing over a short probe window, and when the window is full an entry is replaced
+ * according to the replacement policy.
+ * Entries are only valid for the money, settings and city values they were searched with; these are folded into
+ * the key through a context hash, so entries survive from one decision to the next as long as nothing changed.
+ * A table may only be used by one search at a time.
+ * @version v1.0
+ */
+public class TranspositionTable {
+
+    /** How an entry is chosen for replacement when the probe window is full */
+    public enum Policy {
+        /** Keep the deepest subtree searched in the current decision, replacing entries of older decisions first */
+        DEPTH_PREFERRED,
+        /** Always replace the first entry of the window */
+        ALWAYS_REPLACE
+    }
+
+    /** Number of slots probed per lookup */
+    private static final int PROBES = 4;
+
+    /** Hit and miss counters shared by all tables */
+    private static final Metrics.Counter HITS = Metrics.counter("smart.tt.hits"),
+                                         MISSES = Metrics.counter("smart.tt.misses");
+
+    private final Policy policy;
+    private final int mask;
+    private final long[] keys;
+    private final byte[] depths;
+    private final int[] generations;
+    private final Path[] paths;
+
+    /** The Zobrist keys of every city by id, indexed by visit count, where index 0 marks the current city */
+    private long[][] zobrist = new long[0][];
+    private final SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+
+    private int generation;
+    private long hits, misses, stores;
+
+    /**
+     * Creates a new table.
+     * @param size   //The number of entries, which is rounded up to a power of two.
+     * @param policy //The replacement policy.
+     */
+    public TranspositionTable(int size, Policy policy) {
+        if (size < PROBES) {
+            throw new IllegalArgumentException("A transposition table needs at least " + PROBES + " entries");
+        }
+        int capacity = Integer.highestOneBit(size - 1) << 1;
+        this.policy = policy;
+        mask = capacity - 1;
+        keys = new long[capacity];
+        depths = new byte[capacity];
+        generations = new int[capacity];
+        paths = new Path[capacity];
+    }
+
+    /**
+     * Returns the Zobrist key of a city visited a given number of times.
+     *
+     * @param c     //The city.
+     * @param count //The number of visits, or 0 for the key marking the current city.
+     * @return long
+     */
+    public long key(City c, int count) {
+        int id = c.getId();
+        if (id >= zobrist.length) {
+            zobrist = Arrays.copyOf(zobrist, Math.max(id + 1, zobrist.length * 2));
+        }
+        long[] k = zobrist[id];
+        if (k == null || k.length <= count) {
+            long[] grown = new long[Math.max(count + 1, SmartSearch.MAX_DEPTH + 2)];
+            int from = 0;
+            if (k != null) {
+                System.arraycopy(k, 0, grown, 0, k.length);
+                from = k.length;
+            }
+            for (int i = from; i < grown.length; i++) {
+                grown[i] = random.nextLong();
+            }
+            zobrist[id] = grown;
+            k = grown;
+        }
+        return k[count];
+    }
+
+    /**
+     * Marks the start of a new decision. Entries of earlier decisions are kept, but are replaced first.
+     */
+    public void newSearch() {
+        generation++;
+    }
+
+    /**
+     * Looks up a subtree.
+     *
+     * @param key   //The full hash of the subtree.
+     * @return Path //The stored best path, which must not be modified, or null if the subtree is not in the table.
+     */
+    public Path get(long key) {
+        int slot = (int) mix(key) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int s = (slot + i) & mask;
+            if (paths[s] != null && keys[s] == key) {
+                hits++;
+                HITS.increment();
+                return paths[s];
+            }
+        }
+        misses++;
+        MISSES.increment();
+        return null;
+    }
+
+    /**
+     * Stores a subtree.
+     *
+     * @param key   //The full hash of the subtree.
+     * @param depth //The number of steps left in the subtree.
+     * @param path  //The best path of the subtree, which must not be modified afterwards.
+     */
+    public void put(long key, int depth, Path path) {
+        int slot = (int) mix(key) & mask;
+        int victim = slot;
+        for (int i = 0; i < PROBES; i++) {
+            int s = (slot + i) & mask;
+            if (paths[s] == null || keys[s] == key) {
+                victim = s;
+                break;
+            }
+            if (policy == Policy.DEPTH_PREFERRED && worse(s, victim)) {
+                victim = s;
+            }
+        }
+        if (policy == Policy.DEPTH_PREFERRED && paths[victim] != null && keys[victim] != key
+                && generations[victim] == generation && depths[victim] > depth) {
+            return;
+        }
+        keys[victim] = key;
+        depths[victim] = (byte) depth;
+        generations[victim] = generation;
+        paths[victim] = path;
+        stores++;
+    }
+
+    /**
+     * Determines whether slot a is a better candidate for replacement than slot b.
+     */
+    private boolean worse(int a, int b) {
+        if (generations[a] != generations[b]) {
+            return generations[a] != generation;
+        }
+        return depths[a] < depths[b];
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = null;
+        }
+    }
+
+    /**
+     * Returns the number of entries the table can hold.
+     *
+     * @return int
+     */
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * Returns the replacement policy.
+     *
+     * @return Policy
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of lookups that found their subtree.
+     *
+     * @return long
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find their subtree.
+     *
+     * @return long
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries written.
+     *
+     * @return long
+     */
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * Scrambles a 64-bit value (the finalizer of SplitMix64).
+     *
+     * @param z //The value.
+     * @return long
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,237 @@
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The game as seen by a Strategy while it decides where to go.
+ * Cities are identified by their ids, and everything the view returns is a copy, so a strategy cannot change the
+ * game. A view can only be used during the decision it was made for: afterwards every method throws an
+ * IllegalStateException, so a strategy that overran its budget cannot read the game while it moves on.
+ * The values of the cities, the money of the player and the settings are copied when the view is made, on the thread
+ * stepping the game, so a strategy deciding on another thread sees them as they were when it was asked, however long
+ * it takes. Random numbers come from a generator of the view's own, seeded from the state of the game's generator, so
+ * a decision never advances the generator of the game and games with the strategy can still be repeated.
+ * @version v1.0
+ */
+public final class WorldView {
+
+    private final Game game;
+    private final int city, money, stepsLeft, toll, risk;
+    private final int[] values;
+    private final long seed;
+    private volatile boolean open = true;
+
+    //The generator of the decision, made when it is first used
+    private Random random;
+
+    //The roads of the last city asked about
+    private int roadsOf = -1;
+    private List<Road> roads;
+
+    /**
+     * Creates a view for a decision.
+     *
+     * @param game  //The game.
+     * @param city  //The city the player has arrived in.
+     * @param money //The money of the player.
+     */
+    WorldView(Game game, City city, int money) {
+        this.game = game;
+        this.city = city.getId();
+        this.money = money;
+        this.stepsLeft = game.getStepsLeft();
+        this.toll = game.getSettings().getTollToBePaid();
+        this.risk = game.getSettings().getRisk();
+        values = new int[game.getCityCount()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = game.getCity(i).getValue();
+        }
+        seed = TranspositionTable.mix(game.getRandomState() ^ ((long) this.city << 32 | stepsLeft)) ^ money;
+    }
+
+    /**
+     * Ends the decision, after which the view can no longer be used.
+     */
+    void close() {
+        open = false;
+    }
+
+    private void check() {
+        if (!open) {
+            throw new IllegalStateException("The decision this view was made for is over.");
+        }
+    }
+
+    /**
+     * Returns the city the player has arrived in.
+     *
+     * @return int //The id of the city.
+     */
+    public int getCity() {
+        check();
+        return city;
+    }
+
+    /**
+     * Returns the money of the player.
+     *
+     * @return int
+     */
+    public int getMoney() {
+        check();
+        return money;
+    }
+
+    /**
+     * Returns the number of steps left in the game.
+     *
+     * @return int
+     */
+    public int getStepsLeft() {
+        check();
+        return stepsLeft;
+    }
+
+    /**
+     * Returns the number of cities, whose ids are 0 up to this number.
+     *
+     * @return int
+     */
+    public int getCityCount() {
+        check();
+        return values.length;
+    }
+
+    /**
+     * Returns the name of a city.
+     *
+     * @param city //The id of the city.
+     * @return String
+     */
+    public String getName(int city) {
+        check();
+        return game.getCity(city).getName();
+    }
+
+    /**
+     * Returns the value of a city when the decision was asked for.
+     *
+     * @param city //The id of the city.
+     * @return int
+     */
+    public int getValue(int city) {
+        check();
+        return values[city];
+    }
+
+    /**
+     * Returns the name of the country of a city.
+     *
+     * @param city //The id of the city.
+     * @return String
+     */
+    public String getCountry(int city) {
+        check();
+        return game.getCity(city).getCountry().getName();
+    }
+
+    /**
+     * Determines whether a city is a capital, where players spend some of their money.
+     *
+     * @param city //The id of the city.
+     * @return boolean
+     */
+    public boolean isCapital(int city) {
+        check();
+        return game.getCity(city) instanceof CapitalCity;
+    }
+
+    /**
+     * Determines whether a city is in a country with mafia, where players may be robbed.
+     *
+     * @param city //The id of the city.
+     * @return boolean
+     */
+    public boolean isMafia(int city) {
+        check();
+        return game.getCity(city).getCountry() instanceof MafiaCountry;
+    }
+
+    /**
+     * Returns the toll paid when crossing a border.
+     *
+     * @return int //The toll, in % of the money of the player.
+     */
+    public int getToll() {
+        check();
+        return toll;
+    }
+
+    /**
+     * Returns the risk of being robbed in a country with mafia.
+     *
+     * @return int //The risk, in %.
+     */
+    public int getRisk() {
+        check();
+        return risk;
+    }
+
+    private List<Road> roads(int from) {
+        if (roadsOf != from) {
+            City c = game.getCity(from);
+            roads = c.getCountry().getRoads(c);
+            roadsOf = from;
+        }
+        return roads;
+    }
+
+    /**
+     * Returns the number of roads leaving a city.
+     *
+     * @param city //The id of the city.
+     * @return int
+     */
+    public int getRoadCount(int city) {
+        check();
+        return roads(city).size();
+    }
+
+    /**
+     * Returns the city a road leads to.
+     *
+     * @param city //The id of the city the road leaves.
+     * @param road //The index of the road, below getRoadCount(city).
+     * @return int //The id of the city.
+     */
+    public int getRoadTo(int city, int road) {
+        check();
+        return roads(city).get(road).getTo().getId();
+    }
+
+    /**
+     * Returns the length of a road.
+     *
+     * @param city //The id of the city the road leaves.
+     * @param road //The index of the road, below getRoadCount(city).
+     * @return int //The length, in steps.
+     */
+    public int getRoadLength(int city, int road) {
+        check();
+        return roads(city).get(road).getLength();
+    }
+
+    /**
+     * Returns a random number from the generator of the decision, which is seeded from the generator of the game
+     * (without advancing it), so games with the strategy can be repeated.
+     *
+     * @param bound //The bound, which must be positive.
+     * @return int //A number from 0 to bound - 1.
+     */
+    public int nextInt(int bound) {
+        check();
+        if (random == null) {
+            random = new Random(seed);
+        }
+        return random.nextInt(bound);
+    }
+}